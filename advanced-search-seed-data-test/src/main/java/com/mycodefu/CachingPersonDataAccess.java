@@ -0,0 +1,145 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.cache.CacheStats;
+import com.mycodefu.cache.ReadThroughCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Opt-in read-through cache in front of PersonDataAccess.getPerson and findPersonByBio.
+ * <p>
+ * Updates and deletes made through this class invalidate the cached person. Changes made directly to the
+ * collection (or through another PersonDataAccess) are only picked up once the cached entry expires.
+ * <p>
+ * Bio search results are cached by the query with case and runs of whitespace normalised, which the bio analyzer
+ * ignores, so "Dedicated  Engineer" and "dedicated engineer" share an entry. The search itself is always run with the
+ * caller's query. Results are bounded by an estimate of their size in memory rather than a count.
+ * Any insert, update or delete made through this class could change any search, so they clear every cached result.
+ */
+public class CachingPersonDataAccess implements AutoCloseable {
+    public static final long DEFAULT_MAX_SEARCH_RESULT_BYTES = 64L * 1024 * 1024;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * A bio search, with the query normalised by searchKey. The fuzzy options (maxEdits, prefixLength, maxExpansions) are fixed by
+     * PersonDataAccess, so fuzzy on or off is all that varies.
+     */
+    record SearchKey(String query, boolean fuzzy, int limit) { }
+
+    private final PersonDataAccess personDataAccess;
+    private final ReadThroughCache<String, Person> cache;
+    private final ReadThroughCache<SearchKey, List<Person>> searchCache;
+
+    public CachingPersonDataAccess(PersonDataAccess personDataAccess, int maxSize, Duration ttl) {
+        this(personDataAccess, maxSize, ttl, DEFAULT_MAX_SEARCH_RESULT_BYTES, ttl);
+    }
+
+    public CachingPersonDataAccess(PersonDataAccess personDataAccess, int maxSize, Duration ttl, long maxSearchResultBytes, Duration searchTtl) {
+        this.personDataAccess = personDataAccess;
+        this.cache = ReadThroughCache.bounded(maxSize, ttl);
+        this.searchCache = new ReadThroughCache<>(maxSearchResultBytes, searchTtl, CachingPersonDataAccess::estimatedBytes);
+    }
+
+    public String insertPerson(Person person) {
+        try {
+            return personDataAccess.insertPerson(person);
+        } finally {
+            searchCache.invalidateAll();
+        }
+    }
+
+    public Person getPerson(String id) {
+        return cache.get(id, personDataAccess::getPerson);
+    }
+
+    public void updatePerson(Person person) {
+        try {
+            personDataAccess.updatePerson(person);
+        } finally {
+            cache.invalidate(person.id());
+            searchCache.invalidateAll();
+        }
+    }
+
+    public void deletePerson(String id) {
+        try {
+            personDataAccess.deletePerson(id);
+        } finally {
+            cache.invalidate(id);
+            searchCache.invalidateAll();
+        }
+    }
+
+    public List<Person> findPersonByBio(String query, boolean fuzzy) {
+        return findPersonByBio(query, fuzzy, PersonDataAccess.DEFAULT_SEARCH_LIMIT);
+    }
+
+    /**
+     * The cached results for the query, shared between callers so they can't be modified.
+     */
+    public List<Person> findPersonByBio(String query, boolean fuzzy, int limit) {
+        return searchCache.get(searchKey(query, fuzzy, limit), key -> List.copyOf(personDataAccess.findPersonByBio(query, fuzzy, limit)));
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateSearches() {
+        searchCache.invalidateAll();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        searchCache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public CacheStats searchStats() {
+        return searchCache.stats();
+    }
+
+    /**
+     * Memory held by cached search results, as estimated when they were cached.
+     */
+    public long searchResultBytes() {
+        return searchCache.weight();
+    }
+
+    @Override
+    public void close() {
+        personDataAccess.close();
+    }
+
+    /**
+     * The query lower cased and trimmed, with each run of whitespace replaced by a single space. lucene.standard lower
+     * cases and splits on whitespace, so those changes can't change the results. Punctuation and word order are kept,
+     * as the tokenizer treats punctuation differently depending on where it falls (it keeps the apostrophe in "don't").
+     */
+    static SearchKey searchKey(String query, boolean fuzzy, int limit) {
+        return new SearchKey(WHITESPACE.matcher(query.strip()).replaceAll(" ").toLowerCase(Locale.ROOT), fuzzy, limit);
+    }
+
+    /**
+     * Roughly the heap used by the results: object headers and references plus two bytes per character.
+     */
+    static long estimatedBytes(SearchKey key, List<Person> people) {
+        long bytes = 64 + 2L * key.query().length();
+        for (Person person : people) {
+            bytes += 160 + 2L * (length(person.id()) + length(person.name()) + length(person.job()) + length(person.bio()));
+        }
+        return bytes;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,204 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.NameSuggestion;
+import com.mycodefu.cache.ReadThroughCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Client side type-ahead over PersonDataAccess.suggestPersonNames, for one search box.
+ * <p>
+ * Suggestions are cached by normalised prefix. When the server returned fewer than the limit for a prefix, that is
+ * every match, so suggestions for any longer prefix (up to the index's maxGrams) are worked out from it without a
+ * query: "richa" returning 5 names answers "richar" and "richard" too. suggestAsync also debounces keystrokes, only
+ * querying once typing has paused and cancelling the futures of prefixes which were typed over.
+ */
+public class PersonAutocomplete implements AutoCloseable {
+    static Logger log = LoggerFactory.getLogger(PersonAutocomplete.class);
+
+    // the person_autocomplete index's minGrams, shorter prefixes never match
+    public static final int MIN_PREFIX_LENGTH = 2;
+    // and its maxGrams: the index only has the first 20 characters of each word, so the server's matches for a longer
+    // prefix aren't the names with a word starting with it, and have to come from the server
+    public static final int MAX_REUSED_PREFIX_LENGTH = 20;
+    public static final int DEFAULT_CACHED_PREFIXES = 1_000;
+    public static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(1);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    public record AutocompleteStats(long requests, long serverQueries, long cacheHits, long prefixReuses, long debounced) { }
+
+    /**
+     * @param complete true when the server returned fewer than the limit, so these are all the matches.
+     */
+    private record Suggestions(List<NameSuggestion> names, boolean complete) { }
+
+    private final PersonDataAccess personDataAccess;
+    private final int limit;
+    private final long debounceNanos;
+    private final ReadThroughCache<String, Suggestions> cache;
+    private final ScheduledExecutorService debounceScheduler;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder serverQueries = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder prefixReuses = new LongAdder();
+    private final LongAdder debounced = new LongAdder();
+
+    private CompletableFuture<List<NameSuggestion>> pendingSuggestions;
+    private ScheduledFuture<?> pendingQuery;
+
+    public PersonAutocomplete(PersonDataAccess personDataAccess, int limit, Duration debounce) {
+        this(personDataAccess, limit, debounce, DEFAULT_CACHED_PREFIXES, DEFAULT_CACHE_TTL);
+    }
+
+    public PersonAutocomplete(PersonDataAccess personDataAccess, int limit, Duration debounce, int cachedPrefixes, Duration cacheTtl) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.personDataAccess = personDataAccess;
+        this.limit = limit;
+        this.debounceNanos = debounce.toNanos();
+        this.cache = ReadThroughCache.bounded(cachedPrefixes, cacheTtl);
+        this.debounceScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "person-autocomplete-debounce");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Suggestions for the prefix straight away, from the cache when possible and otherwise from the server.
+     */
+    public List<NameSuggestion> suggest(String prefix) {
+        requests.increment();
+        String key = normalize(prefix);
+        if (key.length() < MIN_PREFIX_LENGTH) {
+            return List.of();
+        }
+        List<NameSuggestion> cached = fromCache(key);
+        return cached != null ? cached : load(key);
+    }
+
+    /**
+     * Suggestions for a keystroke. Answers from the cache complete immediately; otherwise the query is sent once no
+     * other keystroke has arrived for the debounce delay, and a keystroke arriving first cancels this future.
+     */
+    public synchronized CompletableFuture<List<NameSuggestion>> suggestAsync(String prefix) {
+        requests.increment();
+        cancelPending();
+        String key = normalize(prefix);
+        if (key.length() < MIN_PREFIX_LENGTH) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<NameSuggestion> cached = fromCache(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<List<NameSuggestion>> suggestions = new CompletableFuture<>();
+        pendingSuggestions = suggestions;
+        pendingQuery = debounceScheduler.schedule(() -> {
+            try {
+                suggestions.complete(load(key));
+            } catch (RuntimeException e) {
+                suggestions.completeExceptionally(e);
+            }
+        }, debounceNanos, TimeUnit.NANOSECONDS);
+        return suggestions;
+    }
+
+    public AutocompleteStats stats() {
+        return new AutocompleteStats(requests.sum(), serverQueries.sum(), cacheHits.sum(), prefixReuses.sum(), debounced.sum());
+    }
+
+    @Override
+    public synchronized void close() {
+        cancelPending();
+        debounceScheduler.shutdownNow();
+    }
+
+    private void cancelPending() {
+        // a query which has already been sent is left to finish, its result still warms the cache
+        if (pendingQuery != null && pendingQuery.cancel(false)) {
+            pendingSuggestions.cancel(false);
+            debounced.increment();
+        }
+        pendingQuery = null;
+        pendingSuggestions = null;
+    }
+
+    private List<NameSuggestion> fromCache(String key) {
+        Suggestions exact = cache.getIfPresent(key);
+        if (exact != null) {
+            cacheHits.increment();
+            return exact.names();
+        }
+        if (key.indexOf(' ') >= 0 || key.length() > MAX_REUSED_PREFIX_LENGTH) {
+            // the server matches each word of a multi-word prefix on its own, so only single words are worked out here
+            return null;
+        }
+        for (int length = key.length() - 1; length >= MIN_PREFIX_LENGTH; length--) {
+            Suggestions shorter = cache.getIfPresent(key.substring(0, length));
+            if (shorter != null) {
+                if (!shorter.complete()) {
+                    // any shorter prefix matches at least as many names, so can't be complete either
+                    return null;
+                }
+                List<NameSuggestion> names = new ArrayList<>(shorter.names().size());
+                for (NameSuggestion suggestion : shorter.names()) {
+                    if (hasWordStartingWith(suggestion.name(), key)) {
+                        names.add(suggestion);
+                    }
+                }
+                cache.put(key, new Suggestions(names, true));
+                prefixReuses.increment();
+                if (log.isTraceEnabled()) {
+                    log.trace("Suggestions for '{}' worked out from the {} cached for '{}'", key, shorter.names().size(), key.substring(0, length));
+                }
+                return names;
+            }
+        }
+        return null;
+    }
+
+    private List<NameSuggestion> load(String key) {
+        return cache.get(key, prefix -> {
+            serverQueries.increment();
+            List<NameSuggestion> names = personDataAccess.suggestPersonNames(prefix, limit);
+            return new Suggestions(names, names.size() < limit);
+        }).names();
+    }
+
+    /**
+     * Lower case without accents and with single spaces, as the autocomplete index sees names.
+     */
+    static String normalize(String text) {
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(folded.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static boolean hasWordStartingWith(String name, String prefix) {
+        for (String word : WORD_SEPARATORS.split(normalize(name))) {
+            if (word.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,312 @@
+package com.mycodefu;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mycodefu.PersonDataAccess.Person;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.Filters.eq;
+
+/**
+ * Collects inserts, replaces and deletes and sends them to MongoDB in a single bulkWrite round trip.
+ * <p>
+ * A batch is flushed when it reaches maxBatchSize operations, when the oldest pending operation is older
+ * than maxDelay, or when flush() / close() is called.
+ * <p>
+ * Ids for inserted people are generated client side, so insertPerson returns the hex id straight away and
+ * flush() returns the ids of the inserts it wrote in the order they were added.
+ * <p>
+ * Operations stay pending until MongoDB has accepted them. If MongoDB rejects individual operations, flush throws a
+ * BatchWriteException listing the inserted ids which were written and those which were rejected. Rejected operations
+ * are dropped, as sending them again would fail the same way. With ordered writes MongoDB stops at the first
+ * rejection, so the operations after it stay pending.
+ * <p>
+ * Flushes made because the batch is full or maxDelay has passed never throw from the call which triggered them, so
+ * insertPerson always returns the id. Their outcome is reported by the next flush(): the ids they wrote are returned
+ * along with its own, and the ids they had rejected are in the BatchWriteException it throws.
+ * <p>
+ * If a bulkWrite fails outright (a network error or timeout) the whole batch stays pending, and until a flush()
+ * succeeds every add throws rather than queueing more, so at most maxBatchSize operations are ever pending. Each
+ * flush() sends the pending batch again; an insert which had already landed then comes back as rejected with a
+ * duplicate key.
+ */
+public class PersonBatchWriter implements AutoCloseable {
+    static Logger log = LoggerFactory.getLogger(PersonBatchWriter.class);
+
+    private final MongoCollection<Person> collection;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BulkWriteOptions bulkWriteOptions;
+    private final ScheduledExecutorService flushScheduler;
+
+    private final boolean ordered;
+    private final List<PendingWrite> pendingWrites = new ArrayList<>();
+    private long oldestPendingNanos;
+    // outcomes of automatic flushes, reported by the next flush()
+    private final List<String> unreportedWrittenIds = new ArrayList<>();
+    private final List<String> unreportedRejectedIds = new ArrayList<>();
+    private MongoBulkWriteException unreportedRejection;
+    // the last outright bulkWrite failure, until a flush() succeeds
+    private RuntimeException writeFailure;
+    private boolean closed;
+
+    PersonBatchWriter(MongoCollection<Person> collection, int maxBatchSize, Duration maxDelay, boolean ordered) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.collection = collection;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.ordered = ordered;
+        this.bulkWriteOptions = new BulkWriteOptions().ordered(ordered);
+
+        if (maxDelayNanos > 0) {
+            this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "person-batch-writer-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long checkIntervalNanos = Math.max(maxDelayNanos / 2, TimeUnit.MILLISECONDS.toNanos(1));
+            this.flushScheduler.scheduleWithFixedDelay(this::flushIfExpired, checkIntervalNanos, checkIntervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            this.flushScheduler = null;
+        }
+    }
+
+    /**
+     * Queue a person to be inserted, returning the hex id which will be assigned to them.
+     */
+    public synchronized String insertPerson(Person person) {
+        String id = person.id() != null ? person.id() : new ObjectId().toHexString();
+        add(new InsertOneModel<>(new Person(id, person.name(), person.age(), person.job(), person.bio())), id);
+        flushIfFull();
+        return id;
+    }
+
+    public synchronized void updatePerson(Person person) {
+        add(new ReplaceOneModel<>(eq("_id", new ObjectId(person.id())), person), null);
+        flushIfFull();
+    }
+
+    public synchronized void deletePerson(String id) {
+        add(new DeleteOneModel<>(eq("_id", new ObjectId(id))), null);
+        flushIfFull();
+    }
+
+    public synchronized int pendingCount() {
+        return pendingWrites.size();
+    }
+
+    /**
+     * Write all pending operations in one bulkWrite.
+     *
+     * @return the hex ids of the people inserted since the last flush(), by this flush or automatic ones, in the order
+     * they were written.
+     * @throws BatchWriteException if MongoDB rejected some of the operations, here or in an automatic flush.
+     */
+    public synchronized List<String> flush() {
+        try {
+            unreportedWrittenIds.addAll(writePending());
+        } catch (BatchWriteException e) {
+            recordRejection(e);
+        } catch (RuntimeException e) {
+            writeFailure = e;
+            throw e;
+        }
+        writeFailure = null;
+
+        List<String> writtenIds = List.copyOf(unreportedWrittenIds);
+        unreportedWrittenIds.clear();
+        if (unreportedRejection != null) {
+            BatchWriteException rejected = new BatchWriteException(writtenIds, unreportedRejectedIds, unreportedRejection);
+            unreportedRejectedIds.clear();
+            unreportedRejection = null;
+            throw rejected;
+        }
+        return writtenIds;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (flushScheduler != null) {
+            flushScheduler.shutdownNow();
+        }
+        flush();
+    }
+
+    private void add(WriteModel<Person> writeModel, String insertedId) {
+        if (closed) {
+            throw new IllegalStateException("PersonBatchWriter is closed");
+        }
+        if (writeFailure != null) {
+            throw new IllegalStateException("Writing %d pending people failed, call flush() to retry".formatted(pendingWrites.size()), writeFailure);
+        }
+        if (pendingWrites.isEmpty()) {
+            oldestPendingNanos = System.nanoTime();
+        }
+        pendingWrites.add(new PendingWrite(writeModel, insertedId));
+    }
+
+    private void flushIfFull() {
+        if (pendingWrites.size() >= maxBatchSize) {
+            autoFlush();
+        }
+    }
+
+    private synchronized void flushIfExpired() {
+        if (pendingWrites.isEmpty() || writeFailure != null) {
+            return;
+        }
+        if (System.nanoTime() - oldestPendingNanos >= maxDelayNanos) {
+            autoFlush();
+        }
+    }
+
+    private void autoFlush() {
+        try {
+            unreportedWrittenIds.addAll(writePending());
+        } catch (BatchWriteException e) {
+            recordRejection(e);
+        } catch (RuntimeException e) {
+            log.error("Automatic flush of {} pending people failed, holding further writes until flush() is called", pendingWrites.size(), e);
+            writeFailure = e;
+        }
+    }
+
+    private void recordRejection(BatchWriteException e) {
+        unreportedWrittenIds.addAll(e.writtenIds());
+        unreportedRejectedIds.addAll(e.rejectedIds());
+        if (unreportedRejection == null) {
+            unreportedRejection = e.getCause();
+        } else {
+            unreportedRejection.addSuppressed(e.getCause());
+        }
+    }
+
+    private List<String> writePending() {
+        if (pendingWrites.isEmpty()) {
+            return List.of();
+        }
+        List<WriteModel<Person>> writes = pendingWrites.stream().map(PendingWrite::writeModel).toList();
+
+        BulkWriteResult result;
+        try {
+            result = collection.bulkWrite(writes, bulkWriteOptions);
+        } catch (MongoBulkWriteException e) {
+            throw dropRejectedWrites(e);
+        }
+
+        List<String> insertedIds = insertedIds(pendingWrites);
+        pendingWrites.clear();
+        if (log.isTraceEnabled()) {
+            log.trace("Flushed {} writes: {} inserted, {} modified, {} deleted", writes.size(), result.getInsertedCount(), result.getModifiedCount(), result.getDeletedCount());
+        }
+        return insertedIds;
+    }
+
+    /**
+     * Remove the writes which landed or were rejected from the pending list, keeping any an ordered bulkWrite didn't
+     * reach.
+     */
+    private BatchWriteException dropRejectedWrites(MongoBulkWriteException e) {
+        Set<Integer> rejected = new HashSet<>();
+        for (BulkWriteError error : e.getWriteErrors()) {
+            rejected.add(error.getIndex());
+        }
+        int attempted = ordered && !rejected.isEmpty() ? Collections.min(rejected) + 1 : pendingWrites.size();
+
+        List<String> writtenIds = new ArrayList<>();
+        List<String> rejectedIds = new ArrayList<>();
+        for (int i = 0; i < attempted; i++) {
+            String insertedId = pendingWrites.get(i).insertedId();
+            if (insertedId != null) {
+                (rejected.contains(i) ? rejectedIds : writtenIds).add(insertedId);
+            }
+        }
+        pendingWrites.subList(0, attempted).clear();
+        // the writes left behind get a full maxDelay before the next automatic flush
+        oldestPendingNanos = System.nanoTime();
+        log.warn("Person batch write rejected {} of {} writes, {} left pending", rejected.size(), attempted, pendingWrites.size());
+        return new BatchWriteException(writtenIds, rejectedIds, e);
+    }
+
+    private static List<String> insertedIds(List<PendingWrite> writes) {
+        List<String> insertedIds = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            if (write.insertedId() != null) {
+                insertedIds.add(write.insertedId());
+            }
+        }
+        return insertedIds;
+    }
+
+    private record PendingWrite(WriteModel<Person> writeModel, String insertedId) {
+    }
+
+    /**
+     * Thrown when MongoDB rejects some of the operations in a flush, for example an insert with an id which already
+     * exists.
+     */
+    public static class BatchWriteException extends RuntimeException {
+        private final List<String> writtenIds;
+        private final List<String> rejectedIds;
+
+        BatchWriteException(List<String> writtenIds, List<String> rejectedIds, MongoBulkWriteException cause) {
+            super("%d writes were rejected: %s".formatted(rejectedCount(cause), cause.getMessage()), cause);
+            this.writtenIds = List.copyOf(writtenIds);
+            this.rejectedIds = List.copyOf(rejectedIds);
+        }
+
+        private static int rejectedCount(MongoBulkWriteException cause) {
+            int count = cause.getWriteErrors().size();
+            for (Throwable suppressed : cause.getSuppressed()) {
+                if (suppressed instanceof MongoBulkWriteException earlier) {
+                    count += earlier.getWriteErrors().size();
+                }
+            }
+            return count;
+        }
+
+        /**
+         * @return the hex ids of the people this flush did insert, in the order they were written.
+         */
+        public List<String> writtenIds() {
+            return writtenIds;
+        }
+
+        /**
+         * @return the hex ids of the people MongoDB refused to insert, in the order they were added.
+         */
+        public List<String> rejectedIds() {
+            return rejectedIds;
+        }
+
+        @Override
+        public MongoBulkWriteException getCause() {
+            return (MongoBulkWriteException) super.getCause();
+        }
+    }
+}
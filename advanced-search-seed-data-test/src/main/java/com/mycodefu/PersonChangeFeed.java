@@ -0,0 +1,563 @@
+package com.mycodefu;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.cache.ObjectIdMap;
+import org.bson.BsonDocument;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-process read replica of the person collection, kept up to date by tailing its change stream, so getPerson
+ * is a local map lookup rather than a round trip.
+ * <p>
+ * On start the replica is restored from the last checkpoint and the change stream resumed from the checkpoint's
+ * resume token, so a restart only replays what changed while it was down. Without a checkpoint (or if the server no
+ * longer has the oplog to resume from) the collection is loaded in full, after opening the change stream so nothing
+ * changing during the load is missed. A background thread applies changes in batches of up to maxBatchSize (each
+ * batch under one write lock, so readers never see half of one) and checkpoints every checkpointInterval and on close.
+ * <p>
+ * Memory is bounded by maxEntries. Once a person has to be left out for lack of room the replica is partial, and
+ * lookups it can't answer go to the database. While it is partial and has room again, the collection is counted
+ * (at most once a second) and the replica is complete again once nobody is left out, or after the next full load.
+ * Reads are eventually consistent: a change is visible here shortly after it is committed, not as part of the write.
+ * <p>
+ * PersonDataAccess only writes ObjectId _ids, so documents with any other _id are left out of the replica, and changes
+ * to them are logged and skipped.
+ */
+public class PersonChangeFeed implements AutoCloseable {
+    static Logger log = LoggerFactory.getLogger(PersonChangeFeed.class);
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    public static final Duration DEFAULT_CHECKPOINT_INTERVAL = Duration.ofMinutes(1);
+    // how long a getMore waits on the server for changes, which is also how long close() can take
+    private static final long MAX_AWAIT_MILLIS = 250;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long PARTIAL_RECHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final Bson OBJECT_ID_FILTER = Filters.type("_id", BsonType.OBJECT_ID);
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    // the replica doesn't need the embedding, and reads the full document rather than the update description
+    private static final List<Bson> CHANGE_STREAM_PIPELINE = List.of(
+            Aggregates.project(Projections.exclude("fullDocument." + PersonDataAccess.BIO_EMBEDDING, "updateDescription"))
+    );
+
+    public enum StartMode {
+        RESUMED,
+        RELOADED
+    }
+
+    /**
+     * The replica's contents and the resume token of the last change applied to them.
+     */
+    public record Checkpoint(BsonDocument resumeToken, boolean partial, List<Person> people) { }
+
+    /**
+     * Where checkpoints are kept between restarts. save may be called from any thread.
+     */
+    public interface CheckpointStore {
+        /**
+         * @return the last checkpoint saved, or null if there isn't one.
+         */
+        Checkpoint load();
+
+        void save(Checkpoint checkpoint);
+
+        /**
+         * Checkpoints held in memory, to survive re-creating the feed but not the process.
+         */
+        static CheckpointStore inMemory() {
+            AtomicReference<Checkpoint> last = new AtomicReference<>();
+            return new CheckpointStore() {
+                @Override
+                public Checkpoint load() {
+                    return last.get();
+                }
+
+                @Override
+                public void save(Checkpoint checkpoint) {
+                    last.set(checkpoint);
+                }
+            };
+        }
+
+        /**
+         * Checkpoints written to a gzipped BSON file, replaced atomically on each save.
+         */
+        static CheckpointStore file(Path file) {
+            return new PersonCheckpointFile(file);
+        }
+    }
+
+    public record ChangeFeedStats(int size, boolean partial, long changesApplied, long batchesApplied, long reloads,
+                                  long checkpoints, long hits, long misses, long fallbacks) {
+        public void printResults() {
+            System.out.printf("Replica of %d people%s: %d changes applied in %d batches, %d reloads, %d checkpoints, %d hits, %d misses, %d database fallbacks%n",
+                    size, partial ? " (partial)" : "", changesApplied, batchesApplied, reloads, checkpoints, hits, misses, fallbacks);
+        }
+    }
+
+    private final PersonDataAccess personDataAccess;
+    private final MongoCollection<Person> collection;
+    private final CheckpointStore checkpointStore;
+    private final int maxEntries;
+    private final int maxBatchSize;
+    private final long checkpointIntervalNanos;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by lock, only written by the thread which started the feed and then the feed thread
+    private ObjectIdMap<Person> people = new ObjectIdMap<>();
+    private boolean partial;
+    private BsonDocument resumeToken;
+
+    private volatile boolean running;
+    private Thread feedThread;
+    private boolean reloadNeeded;
+    private long lastCheckpointNanos;
+    // set when a partial replica has room again, until a count shows whether anyone is still left out
+    private boolean recheckPartial;
+    private long lastPartialRecheckNanos;
+
+    private final LongAdder changesApplied = new LongAdder();
+    private final LongAdder batchesApplied = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public PersonChangeFeed(PersonDataAccess personDataAccess, CheckpointStore checkpointStore, int maxEntries) {
+        this(personDataAccess, checkpointStore, maxEntries, DEFAULT_MAX_BATCH_SIZE, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param checkpointInterval how often to checkpoint while running, or zero to only checkpoint on close.
+     */
+    public PersonChangeFeed(PersonDataAccess personDataAccess, CheckpointStore checkpointStore, int maxEntries, int maxBatchSize, Duration checkpointInterval) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.personDataAccess = personDataAccess;
+        this.collection = personDataAccess.collection;
+        this.checkpointStore = checkpointStore;
+        this.maxEntries = maxEntries;
+        this.maxBatchSize = maxBatchSize;
+        this.checkpointIntervalNanos = checkpointInterval.toNanos();
+    }
+
+    /**
+     * Restore from the last checkpoint (or load the collection), then start following the change stream.
+     * Returns once the replica is ready to serve reads.
+     */
+    public synchronized StartMode start() {
+        if (feedThread != null) {
+            throw new IllegalStateException("PersonChangeFeed has already been started");
+        }
+        MongoChangeStreamCursor<ChangeStreamDocument<Person>> cursor = null;
+        StartMode mode = StartMode.RELOADED;
+        Checkpoint checkpoint = checkpointStore.load();
+        if (checkpoint != null) {
+            try {
+                cursor = watch(checkpoint.resumeToken());
+                restore(checkpoint);
+                mode = StartMode.RESUMED;
+            } catch (MongoException e) {
+                if (e.getCode() != CHANGE_STREAM_HISTORY_LOST) {
+                    throw e;
+                }
+                log.warn("The checkpoint is older than the oplog, reloading the person replica");
+            }
+        }
+        if (cursor == null) {
+            cursor = reload();
+        }
+        lastCheckpointNanos = System.nanoTime();
+
+        running = true;
+        MongoChangeStreamCursor<ChangeStreamDocument<Person>> firstCursor = cursor;
+        feedThread = new Thread(() -> follow(firstCursor), "person-change-feed");
+        feedThread.setDaemon(true);
+        feedThread.start();
+        return mode;
+    }
+
+    /**
+     * The person from the replica, or from the database if the replica is partial and doesn't have them.
+     */
+    public Person getPerson(String id) {
+        Person person;
+        lock.readLock().lock();
+        boolean complete;
+        try {
+            person = people.get(id);
+            complete = !partial;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (person != null) {
+            hits.increment();
+            return person;
+        }
+        misses.increment();
+        if (complete) {
+            return null;
+        }
+        fallbacks.increment();
+        return personDataAccess.getPerson(id);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return people.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Save a checkpoint now. The people are copied under the read lock and written outside it.
+     */
+    public void checkpoint() {
+        Checkpoint checkpoint;
+        lock.readLock().lock();
+        try {
+            if (resumeToken == null) {
+                return;
+            }
+            checkpoint = new Checkpoint(resumeToken, partial, people.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+        checkpointStore.save(checkpoint);
+        checkpoints.increment();
+        if (log.isTraceEnabled()) {
+            log.trace("Checkpointed {} people at {}", checkpoint.people().size(), checkpoint.resumeToken().toJson());
+        }
+    }
+
+    public ChangeFeedStats stats() {
+        lock.readLock().lock();
+        int size;
+        boolean isPartial;
+        try {
+            size = people.size();
+            isPartial = partial;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ChangeFeedStats(size, isPartial, changesApplied.sum(), batchesApplied.sum(), reloads.sum(),
+                checkpoints.sum(), hits.sum(), misses.sum(), fallbacks.sum());
+    }
+
+    /**
+     * Stop following the change stream and save a final checkpoint. The PersonDataAccess is left open.
+     */
+    @Override
+    public synchronized void close() {
+        if (feedThread == null || !running) {
+            return;
+        }
+        running = false;
+        try {
+            feedThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the person change feed to stop", e);
+        }
+        checkpoint();
+    }
+
+    private void follow(MongoChangeStreamCursor<ChangeStreamDocument<Person>> firstCursor) {
+        MongoChangeStreamCursor<ChangeStreamDocument<Person>> cursor = firstCursor;
+        while (running) {
+            try {
+                if (cursor == null) {
+                    cursor = reloadNeeded ? reload() : watch(currentResumeToken());
+                    reloadNeeded = false;
+                }
+                tail(cursor);
+            } catch (RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                if (e instanceof MongoException mongoException && mongoException.getCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    log.warn("The person change stream can no longer be resumed, reloading the replica");
+                    reloadNeeded = true;
+                } else {
+                    log.warn("The person change stream failed, resuming in {}ms", RETRY_DELAY_MILLIS, e);
+                    sleep(RETRY_DELAY_MILLIS);
+                }
+            }
+            // tail only returns when closing or reloading, so whether it returned or failed this stream is done with
+            if (cursor != null) {
+                cursor.close();
+                cursor = null;
+            }
+        }
+    }
+
+    /**
+     * Apply changes until the feed is closed, the stream fails, or an event (a drop or rename) means the replica has
+     * to be reloaded.
+     */
+    private void tail(MongoChangeStreamCursor<ChangeStreamDocument<Person>> cursor) {
+        List<ChangeStreamDocument<Person>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running) {
+                // waits up to MAX_AWAIT_MILLIS on the server when there is nothing buffered
+                ChangeStreamDocument<Person> change = cursor.tryNext();
+                if (change != null) {
+                    if (isInvalidating(change.getOperationType())) {
+                        apply(batch, change.getResumeToken());
+                        batch.clear();
+                        log.info("Person change stream ended by a {}, reloading the replica", change.getOperationType().getValue());
+                        reloadNeeded = true;
+                        return;
+                    }
+                    batch.add(change);
+                }
+                // apply once nothing else is buffered rather than waiting on the server with changes in hand
+                if (change == null || batch.size() >= maxBatchSize || cursor.available() == 0) {
+                    apply(batch, cursor.getResumeToken());
+                    batch.clear();
+                    recheckPartialIfDue();
+                    checkpointIfDue();
+                }
+            }
+        } finally {
+            // applied in a batch of their own if the stream failed part way through, the token is theirs
+            if (!batch.isEmpty()) {
+                apply(batch, batch.getLast().getResumeToken());
+            }
+        }
+    }
+
+    private void apply(List<ChangeStreamDocument<Person>> batch, BsonDocument batchResumeToken) {
+        lock.writeLock().lock();
+        try {
+            for (ChangeStreamDocument<Person> change : batch) {
+                switch (change.getOperationType()) {
+                    case INSERT, UPDATE, REPLACE, DELETE -> {
+                        ObjectId id = documentId(change);
+                        if (id == null) {
+                            log.warn("Skipping a {} of person {}, the replica only holds people with ObjectId _ids",
+                                    change.getOperationType().getValue(), change.getDocumentKey().get("_id"));
+                        } else if (change.getOperationType() == OperationType.DELETE) {
+                            people.remove(id);
+                        } else {
+                            put(id, change.getFullDocument());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+            if (batchResumeToken != null) {
+                resumeToken = batchResumeToken;
+            }
+            if (partial && people.size() < maxEntries) {
+                recheckPartial = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!batch.isEmpty()) {
+            changesApplied.add(batch.size());
+            batchesApplied.increment();
+            if (log.isTraceEnabled()) {
+                log.trace("Applied {} person changes", batch.size());
+            }
+        }
+    }
+
+    /**
+     * Called with the write lock held.
+     *
+     * @param person null if the person was deleted before the full document was looked up.
+     */
+    private void put(ObjectId id, Person person) {
+        if (person == null) {
+            people.remove(id);
+        } else if (people.size() < maxEntries || people.get(id) != null) {
+            people.put(id, person);
+        } else {
+            partial = true;
+        }
+    }
+
+    /**
+     * Open a change stream, then load the whole collection (at most maxEntries people, with ObjectId _ids) into a new
+     * map and swap it in. Changes made during the load are in the returned stream, and applying them again is harmless.
+     */
+    private MongoChangeStreamCursor<ChangeStreamDocument<Person>> reload() {
+        long start = System.nanoTime();
+        MongoChangeStreamCursor<ChangeStreamDocument<Person>> cursor = watch(null);
+        try {
+            ObjectIdMap<Person> loaded = new ObjectIdMap<>();
+            boolean loadedPartial = false;
+            try (MongoCursor<Person> all = collection.find(OBJECT_ID_FILTER).projection(Projections.exclude(PersonDataAccess.BIO_EMBEDDING)).cursor()) {
+                while (all.hasNext()) {
+                    if (loaded.size() == maxEntries) {
+                        loadedPartial = true;
+                        break;
+                    }
+                    Person person = all.next();
+                    loaded.put(new ObjectId(person.id()), person);
+                }
+            }
+            swap(loaded, loadedPartial, cursor.getResumeToken());
+            reloads.increment();
+            log.info("Loaded {} people into the replica{} in {}ms", loaded.size(), loadedPartial ? " (partial)" : "", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return cursor;
+        } catch (RuntimeException e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    private void restore(Checkpoint checkpoint) {
+        ObjectIdMap<Person> restored = new ObjectIdMap<>(checkpoint.people().size());
+        for (Person person : checkpoint.people()) {
+            restored.put(new ObjectId(person.id()), person);
+        }
+        swap(restored, checkpoint.partial(), checkpoint.resumeToken());
+        log.info("Restored {} people into the replica from a checkpoint", restored.size());
+    }
+
+    private void swap(ObjectIdMap<Person> replacement, boolean replacementPartial, BsonDocument replacementResumeToken) {
+        lock.writeLock().lock();
+        try {
+            people = replacement;
+            partial = replacementPartial;
+            resumeToken = replacementResumeToken;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Person>> watch(BsonDocument resumeAfter) {
+        var changeStream = collection.watch(CHANGE_STREAM_PIPELINE)
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .batchSize(maxBatchSize)
+                .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+        if (resumeAfter != null) {
+            changeStream = changeStream.resumeAfter(resumeAfter);
+        }
+        return changeStream.cursor();
+    }
+
+    /**
+     * Mark a partial replica complete once every person in the collection is in it. The collection is counted first,
+     * and only when the replica could hold everyone are the ids read to check nobody is missing, as a delete not yet
+     * applied here would make the count alone look complete. Runs on the feed thread, which is the only writer of the
+     * map, so it reads it without the lock.
+     */
+    private void recheckPartialIfDue() {
+        if (!recheckPartial || System.nanoTime() - lastPartialRecheckNanos < PARTIAL_RECHECK_NANOS) {
+            return;
+        }
+        lastPartialRecheckNanos = System.nanoTime();
+        boolean complete;
+        try {
+            complete = collection.countDocuments(OBJECT_ID_FILTER) <= people.size() && holdsEveryPerson();
+        } catch (RuntimeException e) {
+            // still partial, so lookups stay correct, and the recheck is tried again once it is next due
+            log.warn("Failed to check whether the partial person replica holds everyone", e);
+            return;
+        }
+        recheckPartial = false;
+        if (complete) {
+            lock.writeLock().lock();
+            try {
+                partial = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("All {} people fit in the replica again, it is no longer partial", people.size());
+        }
+    }
+
+    private boolean holdsEveryPerson() {
+        try (MongoCursor<BsonDocument> ids = collection.withDocumentClass(BsonDocument.class)
+                .find(OBJECT_ID_FILTER)
+                .projection(Projections.include("_id"))
+                .cursor()) {
+            while (ids.hasNext()) {
+                if (people.get(ids.next().getObjectId("_id").getValue()) == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void checkpointIfDue() {
+        if (checkpointIntervalNanos > 0 && System.nanoTime() - lastCheckpointNanos >= checkpointIntervalNanos) {
+            lastCheckpointNanos = System.nanoTime();
+            try {
+                checkpoint();
+            } catch (RuntimeException e) {
+                // the replica is still up to date, the next checkpoint can catch up
+                log.error("Failed to checkpoint the person replica", e);
+            }
+        }
+    }
+
+    private BsonDocument currentResumeToken() {
+        lock.readLock().lock();
+        try {
+            return resumeToken;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isInvalidating(OperationType operationType) {
+        return switch (operationType) {
+            case DROP, DROP_DATABASE, RENAME, INVALIDATE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * @return null if the changed document's _id isn't an ObjectId.
+     */
+    private static ObjectId documentId(ChangeStreamDocument<Person> change) {
+        BsonValue id = change.getDocumentKey().get("_id");
+        return id != null && id.isObjectId() ? id.asObjectId().getValue() : null;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonChangeFeed.Checkpoint;
+import com.mycodefu.PersonChangeFeed.CheckpointStore;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.seed.SeedLoader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps a PersonChangeFeed checkpoint in a gzipped stream of BSON documents, like a mongodump file: a header with the
+ * resume token and the number of people, then each person as PersonCodec encodes them.
+ * <p>
+ * Each save writes a temporary file next to the checkpoint and moves it over the old one, so a crash part way through
+ * leaves the previous checkpoint in place. A checkpoint which can't be read is logged and treated as missing, which
+ * costs a full load of the collection rather than failing the start.
+ */
+class PersonCheckpointFile implements CheckpointStore {
+    static Logger log = LoggerFactory.getLogger(PersonCheckpointFile.class);
+
+    private static final int BUFFER_BYTES = 256 * 1024;
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private final Path file;
+    private final PersonCodec personCodec = new PersonCodec();
+
+    PersonCheckpointFile(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized Checkpoint load() {
+        try (InputStream in = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), BUFFER_BYTES), BUFFER_BYTES)) {
+            RawBsonDocument header = SeedLoader.readDocument(in);
+            if (header == null) {
+                throw new IOException("Checkpoint has no header");
+            }
+            int count = header.getInt32("people").getValue();
+            List<Person> people = new ArrayList<>(count);
+            RawBsonDocument document;
+            while ((document = SeedLoader.readDocument(in)) != null) {
+                people.add(personCodec.decode(document.asBsonReader(), DECODER_CONTEXT));
+            }
+            if (people.size() != count) {
+                throw new IOException("Checkpoint has %d of %d people".formatted(people.size(), count));
+            }
+            return new Checkpoint(header.getDocument("resumeToken").clone(), header.getBoolean("partial").getValue(), people);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable person checkpoint {}", file, e);
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void save(Checkpoint checkpoint) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), BUFFER_BYTES)) {
+                BasicOutputBuffer buffer = new BasicOutputBuffer(BUFFER_BYTES);
+                BsonDocument header = new BsonDocument()
+                        .append("resumeToken", checkpoint.resumeToken())
+                        .append("partial", BsonBoolean.valueOf(checkpoint.partial()))
+                        .append("people", new BsonInt32(checkpoint.people().size()));
+                try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                    new BsonDocumentCodec().encode(writer, header, ENCODER_CONTEXT);
+                }
+                for (Person person : checkpoint.people()) {
+                    // one writer per document, as a writer only writes a single top level document
+                    try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                        personCodec.encode(writer, person, ENCODER_CONTEXT);
+                    }
+                    if (buffer.getPosition() >= BUFFER_BYTES) {
+                        buffer.pipe(out);
+                        buffer.truncateToPosition(0);
+                    }
+                }
+                buffer.pipe(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the person checkpoint %s".formatted(file), e);
+        }
+    }
+}
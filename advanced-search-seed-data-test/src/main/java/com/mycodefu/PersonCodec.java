@@ -0,0 +1,89 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.Person;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+/**
+ * Encodes and decodes Person directly against the BSON reader / writer, in place of the reflective record codec.
+ * <p>
+ * Produces the same documents as the record codec: the id is stored as an ObjectId in _id and null fields are
+ * left out (so the driver generates an _id for new people). When decoding, missing fields are left null (age 0)
+ * and fields Person does not have are skipped, so documents from projections can be decoded too.
+ */
+public class PersonCodec implements Codec<Person> {
+
+    @Override
+    public void encode(BsonWriter writer, Person person, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        if (person.id() != null) {
+            writer.writeObjectId("_id", new ObjectId(person.id()));
+        }
+        if (person.name() != null) {
+            writer.writeString("name", person.name());
+        }
+        writer.writeInt32("age", person.age());
+        if (person.job() != null) {
+            writer.writeString("job", person.job());
+        }
+        if (person.bio() != null) {
+            writer.writeString("bio", person.bio());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Person decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String name = null;
+        int age = 0;
+        String job = null;
+        String bio = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String fieldName = reader.readName();
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.readNull();
+                continue;
+            }
+            switch (fieldName) {
+                case "_id" -> id = readId(reader);
+                case "name" -> name = reader.readString();
+                case "age" -> age = readAge(reader);
+                case "job" -> job = reader.readString();
+                case "bio" -> bio = reader.readString();
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new Person(id, name, age, job, bio);
+    }
+
+    @Override
+    public Class<Person> getEncoderClass() {
+        return Person.class;
+    }
+
+    private static String readId(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.STRING) {
+            return reader.readString();
+        }
+        return reader.readObjectId().toHexString();
+    }
+
+    private static int readAge(BsonReader reader) {
+        return switch (reader.getCurrentBsonType()) {
+            case INT32 -> reader.readInt32();
+            case INT64 -> (int) reader.readInt64();
+            case DOUBLE -> (int) reader.readDouble();
+            default -> throw new IllegalArgumentException("Unexpected BSON type for age: " + reader.getCurrentBsonType());
+        };
+    }
+}
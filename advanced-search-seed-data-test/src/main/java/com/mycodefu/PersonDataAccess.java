@@ -1,12 +1,36 @@
 package com.mycodefu;
 
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Facet;
+import com.mongodb.client.model.Field;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
 import com.mongodb.client.model.search.*;
 import com.mongodb.client.result.InsertOneResult;
+import com.mycodefu.config.MongoClientConfig;
+import com.mycodefu.embedding.TextEmbedder;
+import com.mycodefu.metrics.DataAccessMetrics;
+import com.mycodefu.metrics.DataAccessMetrics.Operation;
+import org.bson.BinaryVector;
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
 import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 import org.bson.codecs.pojo.annotations.BsonId;
 import org.bson.codecs.pojo.annotations.BsonRepresentation;
 import org.bson.conversions.Bson;
@@ -15,17 +39,65 @@ import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Filters.eq;
 import static com.mongodb.client.model.search.SearchPath.fieldPath;
 
 public class PersonDataAccess implements AutoCloseable {
     static Logger log = LoggerFactory.getLogger(PersonDataAccess.class);
+    public static final String DEFAULT_DATABASE = "examples";
+    public static final int DEFAULT_SEARCH_LIMIT = 50;
+    public static final String SEARCH_INDEX = "person_search";
+    public static final String AUTOCOMPLETE_INDEX = "person_autocomplete";
+    public static final String VECTOR_INDEX = "person_vector";
+    public static final String BIO_EMBEDDING = "bioEmbedding";
+    // the k in 1 / (k + rank) for reciprocal rank fusion, 60 as in the original paper
+    public static final int HYBRID_RANK_CONSTANT = 60;
+    // numCandidates for each result the vector side of a hybrid search returns
+    private static final int HYBRID_CANDIDATES_PER_RESULT = 10;
+    // aggregates findPersonByBioBatch runs at once, a small share of the default pool of 100 connections
+    public static final int DEFAULT_BATCH_CONCURRENCY = 8;
+    // tags each hit of a $unionWith batch with the index of its query
+    private static final String BATCH_QUERY_FIELD = "_batchQuery";
+    // Person doesn't have the embedding, so there's no need to send it over the wire
+    private static final Bson EXCLUDE_BIO_EMBEDDING = Aggregates.project(Projections.exclude(BIO_EMBEDDING));
+    private static final PersonSearchQuery BIO_SEARCH = PersonSearchQuery.prepare(false, DEFAULT_SEARCH_LIMIT, SEARCH_INDEX);
+    private static final PersonSearchQuery FUZZY_BIO_SEARCH = PersonSearchQuery.prepare(true, DEFAULT_SEARCH_LIMIT, SEARCH_INDEX);
+    private static final JsonWriterSettings TRACE_JSON_SETTINGS = JsonWriterSettings.builder().indent(true).build();
+    private static final String PAGE_TOKEN_FIELD = "paginationToken";
+    private static final String JOB_FACET = "jobs";
+    private static final String AGE_FACET = "ageRanges";
+
+    /**
+     * The default codecs with the hand-written PersonCodec in place of the reflective record codec for Person.
+     */
+    public static final CodecRegistry PERSON_CODEC_REGISTRY = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new PersonCodec()),
+            MongoClientSettings.getDefaultCodecRegistry()
+    );
 
     final MongoClient mongoClient;
+    private final boolean ownsMongoClient;
+    private final DataAccessMetrics metrics;
     final MongoCollection<Person> collection;
 
     public record Person(
@@ -42,55 +114,533 @@ public class PersonDataAccess implements AutoCloseable {
         }
     }
 
+    /**
+     * A lightweight search hit, without the bio, for result lists which only show names.
+     *
+     * @param highlights the matching passages of the bio, or null when highlights were not requested.
+     */
+    public record PersonSummary(
+            @BsonId
+            @BsonRepresentation(BsonType.OBJECT_ID)
+            String id,
+            String name,
+            String job,
+            double score,
+            List<Highlight> highlights
+    ) { }
+
+    public record Highlight(String path, double score, List<HighlightText> texts) { }
+
+    /**
+     * @param type "hit" for text which matched the query, "text" for the surrounding text.
+     */
+    public record HighlightText(String value, String type) { }
+
+    /**
+     * A type-ahead suggestion, with only what's needed to show it and look the person up.
+     */
+    public record NameSuggestion(
+            @BsonId
+            @BsonRepresentation(BsonType.OBJECT_ID)
+            String id,
+            String name
+    ) { }
+
+    /**
+     * Counts of matching people by job and by age range, for building search filters.
+     *
+     * @param count the number of matching people (a lower bound when the server counts lazily).
+     */
+    public record PersonFacets(long count, List<JobBucket> jobs, List<AgeRangeBucket> ageRanges) { }
+
+    public record JobBucket(String job, long count) { }
+
+    /**
+     * @param maxAge exclusive.
+     */
+    public record AgeRangeBucket(int minAge, int maxAge, long count) { }
+
+    public record PersonSearchResults(List<Person> people, PersonFacets facets) { }
+
+    public enum PageDirection { AFTER, BEFORE }
+
+    /**
+     * A page of search results. The tokens are null when there is no page in that direction.
+     */
+    public record PersonPage(List<Person> people, String nextPageToken, String previousPageToken) { }
+
+    /**
+     * How much a match on each field counts towards a person's score in findPersonByRelevance, as Atlas Search boosts.
+     */
+    public record SearchWeights(float name, float bio, float job) {
+        public static final SearchWeights DEFAULT = new SearchWeights(3, 1, 2);
+
+        public SearchWeights {
+            if (name <= 0 || bio <= 0 || job <= 0) {
+                throw new IllegalArgumentException("Search weights must be positive");
+            }
+        }
+    }
+
+    /**
+     * Restricts findPersonByRelevance without affecting scores. Null fields don't restrict anything.
+     *
+     * @param maxAge exclusive.
+     * @param job    the exact job, as indexed as a token.
+     */
+    public record PersonFilter(Integer minAge, Integer maxAge, String job) {
+        public static final PersonFilter NONE = new PersonFilter(null, null, null);
+
+        public PersonFilter {
+            if (minAge != null && maxAge != null && minAge >= maxAge) {
+                throw new IllegalArgumentException("minAge must be less than maxAge");
+            }
+        }
+    }
+
+    /**
+     * The hits for each distinct query of a findPersonByBioBatch, in the order the queries were given, and the error
+     * for each query which failed. Every query is in one or the other.
+     */
+    public record BioBatchResults(Map<String, List<Person>> hits, Map<String, RuntimeException> failures) {
+        public boolean complete() {
+            return failures.isEmpty();
+        }
+    }
+
     public PersonDataAccess(String connectionString) {
-        this.mongoClient = MongoClients.create(connectionString);
-        this.collection = this.mongoClient.getDatabase("examples").getCollection("person", Person.class);
+        this(connectionString, DEFAULT_DATABASE);
+    }
+
+    public PersonDataAccess(String connectionString, String databaseName) {
+        this(MongoClients.create(connectionString), true, databaseName, DataAccessMetrics.disabled());
+    }
+
+    public PersonDataAccess(MongoClientSettings mongoClientSettings) {
+        this(MongoClients.create(mongoClientSettings), true, DEFAULT_DATABASE, DataAccessMetrics.disabled());
+    }
+
+    public PersonDataAccess(MongoClientConfig mongoClientConfig) {
+        this(mongoClientConfig.toMongoClientSettings());
+    }
+
+    /**
+     * Record operation latencies in metrics, and register its command and connection pool listeners on the client.
+     */
+    public PersonDataAccess(MongoClientConfig mongoClientConfig, DataAccessMetrics metrics) {
+        this(MongoClients.create(metrics.register(mongoClientConfig.toMongoClientSettingsBuilder()).build()), true, DEFAULT_DATABASE, metrics);
+    }
+
+    /**
+     * Use a MongoClient shared with other data access instances, so they share one connection pool and set of
+     * monitoring threads. The shared client is not closed when this instance is closed.
+     */
+    public PersonDataAccess(MongoClient sharedMongoClient) {
+        this(sharedMongoClient, DEFAULT_DATABASE);
+    }
+
+    public PersonDataAccess(MongoClient sharedMongoClient, String databaseName) {
+        this(sharedMongoClient, false, databaseName, DataAccessMetrics.disabled());
+    }
+
+    /**
+     * Record operation latencies in metrics. Driver level metrics need its listeners registered (with
+     * DataAccessMetrics.register) in the settings the shared client was created with.
+     */
+    public PersonDataAccess(MongoClient sharedMongoClient, String databaseName, DataAccessMetrics metrics) {
+        this(sharedMongoClient, false, databaseName, metrics);
+    }
+
+    private PersonDataAccess(MongoClient mongoClient, boolean ownsMongoClient, String databaseName, DataAccessMetrics metrics) {
+        this.mongoClient = mongoClient;
+        this.ownsMongoClient = ownsMongoClient;
+        this.metrics = metrics;
+        this.collection = this.mongoClient.getDatabase(databaseName).getCollection("person", Person.class).withCodecRegistry(PERSON_CODEC_REGISTRY);
     }
 
     public String insertPerson(Person person) {
-        InsertOneResult insertOneResult = this.collection.insertOne(person);
-        return Objects.requireNonNull(insertOneResult.getInsertedId()).asObjectId().getValue().toHexString();
+        long start = metrics.start();
+        try {
+            InsertOneResult insertOneResult = this.collection.insertOne(person);
+            return Objects.requireNonNull(insertOneResult.getInsertedId()).asObjectId().getValue().toHexString();
+        } finally {
+            metrics.record(Operation.INSERT, start);
+        }
     }
 
     public Person getPerson(String id) {
-        return this.collection.find(eq("_id", new ObjectId(id))).first();
+        long start = metrics.start();
+        try {
+            return this.collection.find(eq("_id", new ObjectId(id))).projection(Projections.exclude(BIO_EMBEDDING)).first();
+        } finally {
+            metrics.record(Operation.GET, start);
+        }
     }
 
     public void updatePerson(Person person) {
-        this.collection.replaceOne(eq("_id", new ObjectId(person.id())), person);
+        long start = metrics.start();
+        try {
+            this.collection.replaceOne(eq("_id", new ObjectId(person.id())), person);
+        } finally {
+            metrics.record(Operation.UPDATE, start);
+        }
     }
 
     public void deletePerson(String id) {
-        this.collection.deleteOne(eq("_id", new ObjectId(id)));
+        long start = metrics.start();
+        try {
+            this.collection.deleteOne(eq("_id", new ObjectId(id)));
+        } finally {
+            metrics.record(Operation.DELETE, start);
+        }
+    }
+
+    /**
+     * The metrics this instance records into, disabled unless it was created with some.
+     */
+    public DataAccessMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Create a writer which batches inserts, updates and deletes into bulkWrite calls.
+     * Pending writes are sent when maxBatchSize is reached, after maxDelay (if positive), or on flush/close.
+     */
+    public PersonBatchWriter bulk(int maxBatchSize, Duration maxDelay, boolean ordered) {
+        return new PersonBatchWriter(this.collection, maxBatchSize, maxDelay, ordered);
     }
 
     public List<Person> findPersonByBio(String query, boolean fuzzy) {
-        //use Atlas Search to find a person by their bio
-        TextSearchOperator bioOperator = SearchOperator.text(fieldPath("bio"), query);
-        if (fuzzy) {
-            bioOperator = bioOperator
-                    .fuzzy(FuzzySearchOptions
-                            .fuzzySearchOptions()
-                            .maxEdits(2)
-                            .prefixLength(2)
-                            .maxExpansions(100)
-                    );
+        return findPersonByBio(query, fuzzy, DEFAULT_SEARCH_LIMIT);
+    }
+
+    /**
+     * Find people by their bio, returning at most limit results (no limit if limit is 0).
+     */
+    public List<Person> findPersonByBio(String query, boolean fuzzy, int limit) {
+        return findPersonByBio(bioSearch(fuzzy, limit), query);
+    }
+
+    /**
+     * Find people by their bio with a query prepared once up front, for callers searching with the same options
+     * (or a different index) many times.
+     */
+    public List<Person> findPersonByBio(PersonSearchQuery preparedQuery, String query) {
+        List<Bson> aggregateStages = preparedQuery.stages(query);
+        logStages(aggregateStages);
+
+        long start = metrics.start();
+        ArrayList<Person> results;
+        try {
+            results = collection.aggregate(aggregateStages, Person.class).into(new ArrayList<>());
+        } finally {
+            metrics.record(Operation.SEARCH, start);
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("Found {} results", results.size());
+            if (!results.isEmpty()) {
+                log.trace("First result: {}", results.getFirst());
+            }
+        }
+
+        return results;
+    }
+
+    public BioBatchResults findPersonByBioBatch(List<String> queries, boolean fuzzy) {
+        return findPersonByBioBatch(queries, fuzzy, DEFAULT_SEARCH_LIMIT, DEFAULT_BATCH_CONCURRENCY, 1);
+    }
+
+    /**
+     * Run many bio queries at once, each aggregate on its own virtual thread with at most maxConcurrency of them using
+     * a pooled connection at a time.
+     * <p>
+     * With queriesPerAggregate above 1, that many queries share an aggregate, the others joined to the first with
+     * $unionWith. That saves round trips, but the server runs a shared aggregate's searches one after another, so it
+     * pays off when the round trip is most of a query's time (a remote cluster, small limits) rather than the search.
+     * <p>
+     * Duplicate queries are run once. A failed aggregate fails each query in it, reported in BioBatchResults.failures,
+     * while the other queries still get their hits.
+     *
+     * @param limit the maximum number of results for each query, or 0 for no limit.
+     */
+    public BioBatchResults findPersonByBioBatch(List<String> queries, boolean fuzzy, int limit, int maxConcurrency, int queriesPerAggregate) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        if (queriesPerAggregate < 1) {
+            throw new IllegalArgumentException("queriesPerAggregate must be at least 1");
+        }
+        PersonSearchQuery preparedQuery = bioSearch(fuzzy, limit);
+        List<String> distinctQueries = List.copyOf(new LinkedHashSet<>(queries));
+        List<List<String>> groups = new ArrayList<>();
+        for (int from = 0; from < distinctQueries.size(); from += queriesPerAggregate) {
+            groups.add(distinctQueries.subList(from, Math.min(from + queriesPerAggregate, distinctQueries.size())));
+        }
+
+        Semaphore connections = new Semaphore(maxConcurrency);
+        List<Future<List<List<Person>>>> groupHits = new ArrayList<>(groups.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<String> group : groups) {
+                groupHits.add(executor.submit(() -> {
+                    connections.acquire();
+                    try {
+                        return group.size() == 1
+                                ? List.of(findPersonByBio(preparedQuery, group.getFirst()))
+                                : findPersonByBioUnion(preparedQuery, group);
+                    } finally {
+                        connections.release();
+                    }
+                }));
+            }
+        }
+
+        Map<String, List<Person>> hits = new LinkedHashMap<>();
+        Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        for (int i = 0; i < groups.size(); i++) {
+            List<String> group = groups.get(i);
+            try {
+                List<List<Person>> results = groupHits.get(i).get();
+                for (int query = 0; query < group.size(); query++) {
+                    hits.put(group.get(query), results.get(query));
+                }
+            } catch (ExecutionException e) {
+                RuntimeException failure = e.getCause() instanceof RuntimeException runtimeException ? runtimeException : new IllegalStateException(e.getCause());
+                group.forEach(query -> failures.put(query, failure));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted searching by bio", e);
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            log.warn("{} of {} bio queries failed, the first with: {}", failures.size(), distinctQueries.size(), failures.values().iterator().next().toString());
+        }
+        return new BioBatchResults(hits, failures);
+    }
+
+    /**
+     * One aggregate for several queries: the first query's pipeline, then each other query's in a $unionWith. Every
+     * hit is tagged with the index of its query, and $unionWith keeps each sub-pipeline's results in order.
+     */
+    private List<List<Person>> findPersonByBioUnion(PersonSearchQuery preparedQuery, List<String> queries) {
+        List<Bson> aggregateStages = new ArrayList<>(preparedQuery.stages(queries.getFirst()));
+        aggregateStages.add(Aggregates.addFields(new Field<>(BATCH_QUERY_FIELD, 0)));
+        for (int query = 1; query < queries.size(); query++) {
+            List<Bson> pipeline = new ArrayList<>(preparedQuery.stages(queries.get(query)));
+            pipeline.add(Aggregates.addFields(new Field<>(BATCH_QUERY_FIELD, query)));
+            aggregateStages.add(Aggregates.unionWith(collection.getNamespace().getCollectionName(), pipeline));
+        }
+        logStages(aggregateStages);
+
+        List<List<Person>> hits = new ArrayList<>(queries.size());
+        for (int query = 0; query < queries.size(); query++) {
+            hits.add(new ArrayList<>());
+        }
+        long start = metrics.start();
+        try {
+            AggregateIterable<BsonDocument> results = collection.aggregate(aggregateStages, BsonDocument.class);
+            if (preparedQuery.limit() > 0) {
+                // every hit in the first batch, rather than the default 101 and a getMore
+                results = results.batchSize(preparedQuery.limit() * queries.size());
+            }
+            for (BsonDocument result : results) {
+                int query = result.remove(BATCH_QUERY_FIELD).asInt32().getValue();
+                hits.get(query).add(decode(Person.class, result));
+            }
+        } finally {
+            metrics.record(Operation.SEARCH, start);
         }
-        List<Bson> aggregateStages = List.of(
-                Aggregates.search(
-                        bioOperator
-                , SearchOptions.searchOptions().index("person_search")),
-                Aggregates.limit(50)
 
+        if (log.isTraceEnabled()) {
+            log.trace("Found {} results for {} queries", hits.stream().mapToInt(List::size).sum(), queries.size());
+        }
+
+        return hits;
+    }
+
+    /**
+     * Stream people by their bio straight from the driver cursor, fetching batchSize results per round trip.
+     * Only one batch is held in memory at a time, so large result sets can be processed as they arrive.
+     * <p>
+     * The stream must be closed (e.g. with try-with-resources) to release the server cursor if it is not fully consumed.
+     *
+     * @param limit the maximum number of results, or 0 for no limit.
+     */
+    public Stream<Person> streamPersonByBio(String query, boolean fuzzy, int limit, int batchSize) {
+        List<Bson> aggregateStages = bioSearchStages(query, fuzzy, limit);
+
+        MongoCursor<Person> cursor = collection.aggregate(aggregateStages, Person.class).batchSize(batchSize).cursor();
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(cursor::close);
+    }
+
+    /**
+     * Find people by their bio, returning only their id, name, job and search score (and optionally the matching
+     * passages of their bio). Projecting in the pipeline means the full bio is never sent over the wire or decoded.
+     */
+    public List<PersonSummary> findPersonSummaryByBio(String query, boolean fuzzy, int limit, boolean highlights) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        SearchOptions searchOptions = SearchOptions.searchOptions().index("person_search");
+        List<Bson> projections = new ArrayList<>(List.of(
+                Projections.include("name", "job"),
+                Projections.metaSearchScore("score")
+        ));
+        if (highlights) {
+            searchOptions = searchOptions.highlight(SearchHighlight.paths(fieldPath("bio")));
+            projections.add(Projections.metaSearchHighlights("highlights"));
+        }
+        List<Bson> aggregateStages = List.of(
+                Aggregates.search(bioSearchOperator(query, fuzzy), searchOptions),
+                Aggregates.limit(limit),
+                Aggregates.project(Projections.fields(projections))
         );
+        logStages(aggregateStages);
+
+        long start = metrics.start();
+        ArrayList<PersonSummary> results;
+        try {
+            results = collection.aggregate(aggregateStages, PersonSummary.class).into(new ArrayList<>(limit));
+        } finally {
+            metrics.record(Operation.SEARCH, start);
+        }
 
         if (log.isTraceEnabled()) {
-            for (Bson aggregateStage : aggregateStages) {
-                log.trace(aggregateStage.toBsonDocument().toJson(JsonWriterSettings.builder().indent(true).build()));
+            log.trace("Found {} results", results.size());
+            if (!results.isEmpty()) {
+                log.trace("First result: {}", results.getFirst());
             }
         }
 
-        ArrayList<Person> results = collection.aggregate(aggregateStages, Person.class).into(new ArrayList<>());
+        return results;
+    }
+
+    /**
+     * Suggest people whose name has a word starting with the prefix, best matches first, for type-ahead.
+     * <p>
+     * Uses the edgeGram autocomplete mapping in the person_autocomplete index, so the prefix needs at least two
+     * characters (the index's minGrams). Only the id and name are projected.
+     */
+    public List<NameSuggestion> suggestPersonNames(String prefix, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        List<Bson> aggregateStages = List.of(
+                Aggregates.search(SearchOperator.autocomplete(fieldPath("name"), prefix), SearchOptions.searchOptions().index(AUTOCOMPLETE_INDEX)),
+                Aggregates.limit(limit),
+                Aggregates.project(Projections.include("name"))
+        );
+        logStages(aggregateStages);
+
+        long start = metrics.start();
+        ArrayList<NameSuggestion> results;
+        try {
+            results = collection.aggregate(aggregateStages, NameSuggestion.class).into(new ArrayList<>(limit));
+        } finally {
+            metrics.record(Operation.SEARCH, start);
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("Found {} suggestions for '{}'", results.size(), prefix);
+        }
+
+        return results;
+    }
+
+    /**
+     * Count the people matching a bio query by job (the maxJobs most common) and by age range in a single
+     * $searchMeta round trip.
+     *
+     * @param ageBoundaries ascending boundaries of the age ranges, e.g. [18, 30, 40] gives 18-29 and 30-39.
+     */
+    public PersonFacets facetPersonByBio(String query, boolean fuzzy, int maxJobs, List<Integer> ageBoundaries) {
+        List<Bson> aggregateStages = List.of(
+                Aggregates.searchMeta(
+                        personFacetCollector(bioSearchOperator(query, fuzzy), maxJobs, ageBoundaries),
+                        SearchOptions.searchOptions().index("person_search"))
+        );
+        logStages(aggregateStages);
+
+        long start = metrics.start();
+        Document searchMeta;
+        try {
+            searchMeta = collection.aggregate(aggregateStages, Document.class).first();
+        } finally {
+            metrics.record(Operation.SEARCH, start);
+        }
+        return toPersonFacets(Objects.requireNonNull(searchMeta), ageBoundaries);
+    }
+
+    /**
+     * Find people by their bio along with the job and age range facets of all the matches, in a single round trip.
+     * The hits and the facets come from the same $search stage, split with $facet and $$SEARCH_META.
+     */
+    public PersonSearchResults findPersonByBioWithFacets(String query, boolean fuzzy, int limit, int maxJobs, List<Integer> ageBoundaries) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        List<Bson> aggregateStages = List.of(
+                Aggregates.search(
+                        personFacetCollector(bioSearchOperator(query, fuzzy), maxJobs, ageBoundaries),
+                        SearchOptions.searchOptions().index("person_search")),
+                Aggregates.facet(
+                        new Facet("hits", Aggregates.limit(limit), EXCLUDE_BIO_EMBEDDING),
+                        new Facet("meta", Aggregates.replaceWith("$$SEARCH_META"), Aggregates.limit(1))
+                )
+        );
+        logStages(aggregateStages);
+
+        long start = metrics.start();
+        BsonDocument result;
+        try {
+            result = Objects.requireNonNull(collection.aggregate(aggregateStages, BsonDocument.class).first());
+        } finally {
+            metrics.record(Operation.SEARCH, start);
+        }
+        List<Person> people = new ArrayList<>(limit);
+        for (BsonValue hit : result.getArray("hits")) {
+            people.add(decode(Person.class, hit.asDocument()));
+        }
+        BsonArray meta = result.getArray("meta");
+        PersonFacets facets = meta.isEmpty()
+                ? new PersonFacets(0, List.of(), List.of())
+                : toPersonFacets(decode(Document.class, meta.getFirst().asDocument()), ageBoundaries);
+
+        if (log.isTraceEnabled()) {
+            log.trace("Found {} results of {}", people.size(), facets.count());
+        }
+
+        return new PersonSearchResults(people, facets);
+    }
+
+    /**
+     * Find people whose name, bio or job match the query, ranked with per-field weights. The name and bio are text
+     * searched, and the job (a token) scores only when it equals the query exactly.
+     * <p>
+     * The filter is applied inside the $search stage as compound filter clauses, which restrict the matches without
+     * scoring them. That keeps it in the search index rather than a $match over every hit afterwards.
+     */
+    public List<Person> findPersonByRelevance(String query, boolean fuzzy, PersonFilter filter, SearchWeights weights, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        List<Bson> aggregateStages = List.of(
+                Aggregates.search(relevanceSearchOperator(query, fuzzy, filter, weights), SearchOptions.searchOptions().index("person_search")),
+                Aggregates.limit(limit),
+                EXCLUDE_BIO_EMBEDDING
+        );
+        logStages(aggregateStages);
+
+        long start = metrics.start();
+        ArrayList<Person> results;
+        try {
+            results = collection.aggregate(aggregateStages, Person.class).into(new ArrayList<>(limit));
+        } finally {
+            metrics.record(Operation.SEARCH, start);
+        }
 
         if (log.isTraceEnabled()) {
             log.trace("Found {} results", results.size());
@@ -102,8 +652,311 @@ public class PersonDataAccess implements AutoCloseable {
         return results;
     }
 
+    static CompoundSearchOperator relevanceSearchOperator(String query, boolean fuzzy, PersonFilter filter, SearchWeights weights) {
+        ShouldCompoundSearchOperator operator = SearchOperator.compound()
+                .should(List.of(
+                        textSearchOperator("name", query, fuzzy).score(SearchScore.boost(weights.name())),
+                        textSearchOperator("bio", query, fuzzy).score(SearchScore.boost(weights.bio())),
+                        equalsSearchOperator("job", query).score(SearchScore.boost(weights.job()))
+                ))
+                .minimumShouldMatch(1);
+
+        List<SearchOperator> filters = new ArrayList<>();
+        if (filter.minAge() != null && filter.maxAge() != null) {
+            filters.add(SearchOperator.numberRange(fieldPath("age")).gteLt(filter.minAge(), filter.maxAge()));
+        } else if (filter.minAge() != null) {
+            filters.add(SearchOperator.numberRange(fieldPath("age")).gte(filter.minAge()));
+        } else if (filter.maxAge() != null) {
+            filters.add(SearchOperator.numberRange(fieldPath("age")).lt(filter.maxAge()));
+        }
+        if (filter.job() != null) {
+            filters.add(equalsSearchOperator("job", filter.job()));
+        }
+        return filters.isEmpty() ? operator : operator.filter(filters);
+    }
+
+    /**
+     * The driver has no builder for the equals operator, which is how token fields are matched exactly.
+     */
+    private static SearchOperator equalsSearchOperator(String path, String value) {
+        return SearchOperator.of(new Document("equals", new Document("path", path).append("value", value)));
+    }
+
+    private static SearchCollector personFacetCollector(SearchOperator operator, int maxJobs, List<Integer> ageBoundaries) {
+        if (ageBoundaries.size() < 2) {
+            throw new IllegalArgumentException("At least two age boundaries are needed to make an age range");
+        }
+        return SearchCollector.facet(operator, List.of(
+                SearchFacet.stringFacet(JOB_FACET, fieldPath("job")).numBuckets(maxJobs),
+                SearchFacet.numberFacet(AGE_FACET, fieldPath("age"), ageBoundaries)
+        ));
+    }
+
+    private static PersonFacets toPersonFacets(Document searchMeta, List<Integer> ageBoundaries) {
+        long count = searchMeta.get("count", Document.class).get("lowerBound", Number.class).longValue();
+        Document facet = searchMeta.get("facet", Document.class);
+
+        List<JobBucket> jobs = facet.get(JOB_FACET, Document.class).getList("buckets", Document.class).stream()
+                .map(bucket -> new JobBucket(bucket.getString("_id"), bucket.get("count", Number.class).longValue()))
+                .toList();
+
+        List<AgeRangeBucket> ageRanges = new ArrayList<>();
+        for (Document bucket : facet.get(AGE_FACET, Document.class).getList("buckets", Document.class)) {
+            int minAge = bucket.get("_id", Number.class).intValue();
+            int maxAge = ageBoundaries.get(ageBoundaries.indexOf(minAge) + 1);
+            ageRanges.add(new AgeRangeBucket(minAge, maxAge, bucket.get("count", Number.class).longValue()));
+        }
+        return new PersonFacets(count, jobs, ageRanges);
+    }
+
+    private <T> T decode(Class<T> type, BsonDocument document) {
+        return collection.getCodecRegistry().get(type).decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+    /**
+     * Find a page of people by their bio, using Atlas Search searchAfter / searchBefore so that the cost of
+     * fetching a page does not grow with how deep it is.
+     *
+     * @param pageToken null for the first page, otherwise PersonPage.nextPageToken or PersonPage.previousPageToken
+     *                  from a previous page of the same query.
+     * @param direction whether to fetch the page after or before pageToken.
+     */
+    public PersonPage findPersonByBioPage(String query, boolean fuzzy, int pageSize, String pageToken, PageDirection direction) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        if (pageToken == null) {
+            direction = PageDirection.AFTER;
+        }
+        SearchOptions searchOptions = SearchOptions.searchOptions().index("person_search");
+        if (pageToken != null) {
+            searchOptions = searchOptions.option(direction == PageDirection.AFTER ? "searchAfter" : "searchBefore", pageToken);
+        }
+        List<Bson> aggregateStages = List.of(
+                Aggregates.search(bioSearchOperator(query, fuzzy), searchOptions),
+                Aggregates.limit(pageSize),
+                EXCLUDE_BIO_EMBEDDING,
+                Aggregates.addFields(new Field<>(PAGE_TOKEN_FIELD, new Document("$meta", "searchSequenceToken")))
+        );
+        logStages(aggregateStages);
+
+        List<Person> people = new ArrayList<>(pageSize);
+        List<String> tokens = new ArrayList<>(pageSize);
+        long start = metrics.start();
+        try {
+            for (BsonDocument result : collection.aggregate(aggregateStages, BsonDocument.class)) {
+                tokens.add(result.remove(PAGE_TOKEN_FIELD).asString().getValue());
+                people.add(decode(Person.class, result));
+            }
+        } finally {
+            metrics.record(Operation.SEARCH, start);
+        }
+        if (direction == PageDirection.BEFORE) {
+            // searchBefore returns results in reverse order
+            Collections.reverse(people);
+            Collections.reverse(tokens);
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("Found {} results for page {} {}", people.size(), direction, pageToken);
+        }
+
+        if (people.isEmpty()) {
+            return new PersonPage(people, null, null);
+        }
+        boolean hasNext = direction == PageDirection.BEFORE || people.size() == pageSize;
+        boolean hasPrevious = pageToken != null && (direction == PageDirection.AFTER || people.size() == pageSize);
+        return new PersonPage(
+                people,
+                hasNext ? tokens.getLast() : null,
+                hasPrevious ? tokens.getFirst() : null
+        );
+    }
+
+    /**
+     * Store the embedding of a person's bio, as float32 BSON binary (the compact form the vector index reads).
+     * <p>
+     * The embedding isn't part of Person, so updatePerson (which replaces the whole document) drops it, as the bio may
+     * have changed. backfillBioEmbeddings fills in the missing ones.
+     */
+    public void setBioEmbedding(String id, float[] embedding) {
+        long start = metrics.start();
+        try {
+            this.collection.updateOne(eq("_id", new ObjectId(id)), Updates.set(BIO_EMBEDDING, new BsonBinary(BinaryVector.floatVector(embedding))));
+        } finally {
+            metrics.record(Operation.UPDATE, start);
+        }
+    }
+
+    /**
+     * Embed the bio of everyone without a bio embedding, writing them in unordered bulkWrite batches of batchSize.
+     * Only the id and bio are read.
+     *
+     * @return the number of people embedded.
+     */
+    public long backfillBioEmbeddings(TextEmbedder embedder, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        MongoCollection<BsonDocument> documents = this.collection.withDocumentClass(BsonDocument.class);
+        BulkWriteOptions bulkWriteOptions = new BulkWriteOptions().ordered(false);
+        List<UpdateOneModel<BsonDocument>> batch = new ArrayList<>(batchSize);
+        long embedded = 0;
+        for (BsonDocument person : documents.find(Filters.exists(BIO_EMBEDDING, false)).projection(Projections.include("bio")).batchSize(batchSize)) {
+            BsonValue bio = person.get("bio");
+            if (bio == null || !bio.isString()) {
+                continue;
+            }
+            float[] embedding = embedder.embed(bio.asString().getValue());
+            batch.add(new UpdateOneModel<>(eq("_id", person.get("_id")), Updates.set(BIO_EMBEDDING, new BsonBinary(BinaryVector.floatVector(embedding)))));
+            if (batch.size() == batchSize) {
+                documents.bulkWrite(batch, bulkWriteOptions);
+                embedded += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            documents.bulkWrite(batch, bulkWriteOptions);
+            embedded += batch.size();
+        }
+
+        log.debug("Embedded {} bios", embedded);
+        return embedded;
+    }
+
+    /**
+     * Find the people whose bio embedding is nearest the vector, nearest first, with an approximate (HNSW) $vectorSearch
+     * on the person_vector index.
+     *
+     * @param numCandidates how many nearest neighbours the search considers before returning the best limit of them.
+     *                      More candidates is slower but more accurate, 10-20 times the limit is typical.
+     */
+    public List<Person> findSimilarPeople(float[] vector, int limit, int numCandidates) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        if (numCandidates < limit) {
+            throw new IllegalArgumentException("numCandidates must be at least the limit");
+        }
+        List<Bson> aggregateStages = List.of(
+                Aggregates.vectorSearch(
+                        fieldPath(BIO_EMBEDDING),
+                        BinaryVector.floatVector(vector),
+                        VECTOR_INDEX,
+                        limit,
+                        VectorSearchOptions.approximateVectorSearchOptions(numCandidates)),
+                EXCLUDE_BIO_EMBEDDING
+        );
+        if (log.isTraceEnabled()) {
+            // the query vector is too long to be worth logging
+            log.trace("Vector search {} for {} of {} candidates", VECTOR_INDEX, limit, numCandidates);
+        }
+
+        long start = metrics.start();
+        ArrayList<Person> results;
+        try {
+            results = collection.aggregate(aggregateStages, Person.class).into(new ArrayList<>(limit));
+        } finally {
+            metrics.record(Operation.SEARCH, start);
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("Found {} similar people", results.size());
+        }
+
+        return results;
+    }
+
+    /**
+     * Find people by their bio with both a full text search and a vector search of the query's embedding, merging the
+     * two rankings with reciprocal rank fusion. Text search finds the exact words, the vector search finds bios like
+     * the query without them, and people ranked well by both come first.
+     * <p>
+     * The two searches run at the same time (the vector search on a virtual thread), so this takes about as long as
+     * the slower of them.
+     */
+    public List<Person> findPersonByHybrid(String query, boolean fuzzy, TextEmbedder embedder, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<List<Person>> similar = executor.submit(() -> findSimilarPeople(embedder.embed(query), limit, limit * HYBRID_CANDIDATES_PER_RESULT));
+            List<Person> matching = findPersonByBio(query, fuzzy, limit);
+            return reciprocalRankFusion(List.of(matching, similar.get()), HYBRID_RANK_CONSTANT, limit);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted searching by bio", e);
+        }
+    }
+
+    /**
+     * Merge rankings of people by summing 1 / (rankConstant + rank) for each ranking a person appears in (rank from 1),
+     * best first. Scores are only compared by rank, so rankings from searches with incomparable scores can be mixed.
+     * People with the same score keep the order they were first seen in.
+     */
+    static List<Person> reciprocalRankFusion(List<List<Person>> rankings, int rankConstant, int limit) {
+        Map<String, Person> people = new LinkedHashMap<>();
+        Map<String, Double> scores = new HashMap<>();
+        for (List<Person> ranking : rankings) {
+            for (int i = 0; i < ranking.size(); i++) {
+                Person person = ranking.get(i);
+                people.putIfAbsent(person.id(), person);
+                scores.merge(person.id(), 1.0 / (rankConstant + i + 1), Double::sum);
+            }
+        }
+        // a stable sort, so ties stay in first seen order
+        return people.values().stream()
+                .sorted(Comparator.comparingDouble((Person person) -> scores.get(person.id())).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    static List<Bson> bioSearchStages(String query, boolean fuzzy, int limit) {
+        List<Bson> aggregateStages = bioSearch(fuzzy, limit).stages(query);
+        logStages(aggregateStages);
+        return aggregateStages;
+    }
+
+    /**
+     * The prepared bio search, shared for the default limit and otherwise prepared for this call.
+     */
+    private static PersonSearchQuery bioSearch(boolean fuzzy, int limit) {
+        if (limit == DEFAULT_SEARCH_LIMIT) {
+            return fuzzy ? FUZZY_BIO_SEARCH : BIO_SEARCH;
+        }
+        return PersonSearchQuery.prepare(fuzzy, limit, SEARCH_INDEX);
+    }
+
+    private static TextSearchOperator bioSearchOperator(String query, boolean fuzzy) {
+        //use Atlas Search to find a person by their bio
+        return textSearchOperator("bio", query, fuzzy);
+    }
+
+    private static TextSearchOperator textSearchOperator(String path, String query, boolean fuzzy) {
+        TextSearchOperator textOperator = SearchOperator.text(fieldPath(path), query);
+        if (fuzzy) {
+            textOperator = textOperator.fuzzy(PersonSearchQuery.FUZZY_SEARCH_OPTIONS);
+        }
+        return textOperator;
+    }
+
+    private static void logStages(List<Bson> aggregateStages) {
+        if (log.isTraceEnabled()) {
+            for (Bson aggregateStage : aggregateStages) {
+                log.trace(aggregateStage.toBsonDocument().toJson(TRACE_JSON_SETTINGS));
+            }
+        }
+    }
+
     @Override
     public void close() {
-        this.mongoClient.close();
+        if (ownsMongoClient) {
+            this.mongoClient.close();
+        }
     }
 }
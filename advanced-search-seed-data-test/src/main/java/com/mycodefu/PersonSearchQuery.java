@@ -0,0 +1,86 @@
+package com.mycodefu;
+
+import com.mongodb.client.model.search.FuzzySearchOptions;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.conversions.Bson;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A bio search pipeline prepared once and reused for every query, as the same $search, $limit and $project stages the
+ * search builders produce. The $project leaves out the bio embedding, which Person doesn't read.
+ * <p>
+ * The builders allocate a tree of option objects per call, which the driver then renders to BSON when it sends the
+ * command. A prepared query is already BSON: the fuzzy options, the $limit and the $project stages are encoded once
+ * as immutable RawBsonDocuments (which the driver copies as bytes), and each call only wraps the query string in the
+ * two small documents of the $search stage. Prepared queries are immutable and can be shared between threads.
+ */
+public final class PersonSearchQuery {
+    static final FuzzySearchOptions FUZZY_SEARCH_OPTIONS = FuzzySearchOptions
+            .fuzzySearchOptions()
+            .maxEdits(2)
+            .prefixLength(2)
+            .maxExpansions(100);
+    private static final RawBsonDocument FUZZY_OPTIONS = new RawBsonDocument(FUZZY_SEARCH_OPTIONS.toBsonDocument(), new BsonDocumentCodec());
+    private static final BsonString BIO_PATH = new BsonString("bio");
+    private static final RawBsonDocument PROJECT_STAGE = new RawBsonDocument(
+            new BsonDocument("$project", new BsonDocument(PersonDataAccess.BIO_EMBEDDING, new BsonInt32(0))), new BsonDocumentCodec());
+
+    private final boolean fuzzy;
+    private final int limit;
+    private final BsonString index;
+    private final RawBsonDocument limitStage;
+
+    private PersonSearchQuery(boolean fuzzy, int limit, String index) {
+        this.fuzzy = fuzzy;
+        this.limit = limit;
+        this.index = new BsonString(index);
+        this.limitStage = limit > 0 ? new RawBsonDocument(new BsonDocument("$limit", new BsonInt32(limit)), new BsonDocumentCodec()) : null;
+    }
+
+    /**
+     * @param limit the maximum number of results, or 0 for no limit.
+     * @param index the search index, e.g. PersonDataAccess.SEARCH_INDEX.
+     */
+    public static PersonSearchQuery prepare(boolean fuzzy, int limit, String index) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative");
+        }
+        Objects.requireNonNull(index, "index");
+        return new PersonSearchQuery(fuzzy, limit, index);
+    }
+
+    /**
+     * The pipeline for a query. Everything except the query string is shared with every other call, so the stages
+     * must not be modified.
+     */
+    public List<Bson> stages(String query) {
+        BsonDocument text = new BsonDocument(3)
+                .append("query", new BsonString(query))
+                .append("path", BIO_PATH);
+        if (fuzzy) {
+            text.append("fuzzy", FUZZY_OPTIONS);
+        }
+        BsonDocument searchStage = new BsonDocument("$search", new BsonDocument(2)
+                .append("text", text)
+                .append("index", index));
+        return limitStage == null ? List.of(searchStage, PROJECT_STAGE) : List.of(searchStage, limitStage, PROJECT_STAGE);
+    }
+
+    public boolean fuzzy() {
+        return fuzzy;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public String index() {
+        return index.getValue();
+    }
+}
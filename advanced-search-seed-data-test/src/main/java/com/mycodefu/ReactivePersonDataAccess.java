@@ -0,0 +1,157 @@
+package com.mycodefu;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.Projections;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.config.MongoClientConfig;
+import org.bson.BsonValue;
+import org.bson.types.ObjectId;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.mongodb.client.model.Filters.eq;
+
+/**
+ * Non-blocking equivalent of PersonDataAccess built on the reactive streams driver.
+ * <p>
+ * No thread is held while a request is in flight, so a handful of driver threads can serve thousands of concurrent
+ * requests (bounded by the connection pool rather than by a thread per request).
+ * Single results are returned as CompletableFutures, search results as a Publisher which only fetches the next
+ * batch from the server when the subscriber has requested more.
+ */
+public class ReactivePersonDataAccess implements AutoCloseable {
+    final MongoClient mongoClient;
+    final MongoCollection<Person> collection;
+
+    public ReactivePersonDataAccess(String connectionString) {
+        this(connectionString, PersonDataAccess.DEFAULT_DATABASE);
+    }
+
+    public ReactivePersonDataAccess(String connectionString, String databaseName) {
+        this.mongoClient = MongoClients.create(connectionString);
+        this.collection = this.mongoClient.getDatabase(databaseName).getCollection("person", Person.class).withCodecRegistry(PersonDataAccess.PERSON_CODEC_REGISTRY);
+    }
+
+    public ReactivePersonDataAccess(MongoClientSettings mongoClientSettings, String databaseName) {
+        this.mongoClient = MongoClients.create(mongoClientSettings);
+        this.collection = this.mongoClient.getDatabase(databaseName).getCollection("person", Person.class).withCodecRegistry(PersonDataAccess.PERSON_CODEC_REGISTRY);
+    }
+
+    public ReactivePersonDataAccess(MongoClientConfig mongoClientConfig) {
+        this.mongoClient = MongoClients.create(mongoClientConfig.toMongoClientSettings());
+        this.collection = this.mongoClient.getDatabase(PersonDataAccess.DEFAULT_DATABASE).getCollection("person", Person.class).withCodecRegistry(PersonDataAccess.PERSON_CODEC_REGISTRY);
+    }
+
+    public CompletableFuture<String> insertPerson(Person person) {
+        return first(this.collection.insertOne(person))
+                .thenApply(insertOneResult -> {
+                    BsonValue insertedId = insertOneResult.getInsertedId();
+                    if (insertedId == null) {
+                        throw new IllegalStateException("No id returned for inserted person");
+                    }
+                    return insertedId.asObjectId().getValue().toHexString();
+                });
+    }
+
+    public CompletableFuture<Person> getPerson(String id) {
+        return first(this.collection.find(eq("_id", new ObjectId(id))).projection(Projections.exclude(PersonDataAccess.BIO_EMBEDDING)).first());
+    }
+
+    public CompletableFuture<Void> updatePerson(Person person) {
+        return first(this.collection.replaceOne(eq("_id", new ObjectId(person.id())), person)).thenApply(result -> null);
+    }
+
+    public CompletableFuture<Void> deletePerson(String id) {
+        return first(this.collection.deleteOne(eq("_id", new ObjectId(id)))).thenApply(result -> null);
+    }
+
+    public CompletableFuture<List<Person>> findPersonByBio(String query, boolean fuzzy) {
+        return all(streamPersonByBio(query, fuzzy, PersonDataAccess.DEFAULT_SEARCH_LIMIT, PersonDataAccess.DEFAULT_SEARCH_LIMIT));
+    }
+
+    /**
+     * Search results as a Publisher, fetching up to batchSize results per round trip as the subscriber requests them.
+     *
+     * @param limit the maximum number of results, or 0 for no limit.
+     */
+    public Publisher<Person> streamPersonByBio(String query, boolean fuzzy, int limit, int batchSize) {
+        return collection.aggregate(PersonDataAccess.bioSearchStages(query, fuzzy, limit), Person.class).batchSize(batchSize);
+    }
+
+    @Override
+    public void close() {
+        this.mongoClient.close();
+    }
+
+    /**
+     * Complete with the first item published, or null if there are none.
+     */
+    static <T> CompletableFuture<T> first(Publisher<T> publisher) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(T item) {
+                future.complete(item);
+                subscription.cancel();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Complete with every item published.
+     */
+    static <T> CompletableFuture<List<T>> all(Publisher<T> publisher) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        publisher.subscribe(new Subscriber<T>() {
+            private final List<T> items = new ArrayList<>();
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(T item) {
+                items.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(items);
+            }
+        });
+        return future;
+    }
+}
@@ -9,14 +9,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class IndexValidator {
     static Logger log = LoggerFactory.getLogger(IndexValidator.class);
 
-    // Only check the following keys for equality, ignoring other keys which may be added by MongoDB internally.
+    // The settings which tell the definitions of a multi-mapped field apart. Every setting of a field is compared, with
+    // any the server adds at their default values ignored (see SearchIndexManager.isServerDefault).
     public static final List<String> check_equality_of_keys = List.of("type", "normalizer", "representation", "analyzer", "indexDoubles", "indexIntegers");
 
     public record InvalidField(String fieldParent, String fieldName, String message) { }
@@ -37,30 +41,62 @@ public class IndexValidator {
         }
     }
 
+    /**
+     * Expected mappings prepared once for repeated validation. The type definitions of every multi-mapped field are
+     * sorted up front, so comparing them against a live index needs no sorting and no JSON.
+     */
+    public static final class CanonicalMapping {
+        private final Boolean dynamic;
+        private final Map<String, CanonicalField[]> fields;
+
+        private CanonicalMapping(Boolean dynamic, Map<String, CanonicalField[]> fields) {
+            this.dynamic = dynamic;
+            this.fields = fields;
+        }
+
+        public static CanonicalMapping of(Document mappings) {
+            return new CanonicalMapping(mappings.getBoolean("dynamic"), canonicalFields(mappings.get("fields", Document.class)));
+        }
+    }
+
+    private record CanonicalField(Document definition, Map<String, CanonicalField[]> fields) { }
+
+    // Multi-mapped fields are compared in this order, which only looks at the settings being checked so defaults the
+    // server adds to its copy of a definition can't change which definitions get paired up.
+    private static final Comparator<Document> FIELD_ORDER = (left, right) -> {
+        for (String key : check_equality_of_keys) {
+            int compared = Objects.toString(left.get(key), "").compareTo(Objects.toString(right.get(key), ""));
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return 0;
+    };
+
+    private static final Map<String, String> resources = new ConcurrentHashMap<>();
+    private static final Map<String, CanonicalMapping> expectedMappings = new ConcurrentHashMap<>();
+
     public static <T> IndexValidationResults validateIndexes(MongoCollection<T> collection, String indexName) {
-        String indexResource = readResourceAsString(
-                "atlas-search-indexes/%s/%s/%s.json"
-                        .formatted(
-                                collection.getNamespace().getDatabaseName(),
-                                collection.getNamespace().getCollectionName(),
-                                indexName
-                        )
-        );
-        Document expectedIndex = Document.parse(indexResource);
-
-        Optional<Document> actualIndexDocument = collection.listSearchIndexes().into(new ArrayList<>()).stream()
-                .filter(index -> index.getString("name").equals(indexName))
-                .findFirst();
-
-        if (actualIndexDocument.isEmpty()) {
+        String indexResourcePath = "atlas-search-indexes/%s/%s/%s.json"
+                .formatted(
+                        collection.getNamespace().getDatabaseName(),
+                        collection.getNamespace().getCollectionName(),
+                        indexName
+                );
+        CanonicalMapping expectedMapping = expectedMappings.computeIfAbsent(indexResourcePath,
+                path -> CanonicalMapping.of(Document.parse(readResourceAsString(path)).get("mappings", Document.class)));
+
+        Document actualIndexDocument = collection.listSearchIndexes().name(indexName).first();
+
+        if (actualIndexDocument == null) {
             return IndexValidationResults.error("Index not found: " + indexName);
         } else {
-            if (!actualIndexDocument.get().getString("status").equals("READY")) {
+            if (!actualIndexDocument.getString("status").equals("READY")) {
                 return IndexValidationResults.error("Index is not ready: " + indexName);
             }
-            Document actualIndex = actualIndexDocument.get().get("latestDefinition", Document.class);
+            Document actualIndex = actualIndexDocument.get("latestDefinition", Document.class);
             return compareAtlasSearchIndexMapping(
-                    expectedIndex.get("mappings", Document.class),
+                    expectedMapping,
                     actualIndex.get("mappings", Document.class),
                     new ArrayList<>()
             );
@@ -72,6 +108,17 @@ public class IndexValidator {
      * (recursively)
      */
     public static IndexValidationResults compareAtlasSearchIndexMapping(Document expectedMapping, Document actualMapping, List<InvalidField> invalidFieldsSoFar) {
+        if (expectedMapping == null || actualMapping == null) {
+            return IndexValidationResults.error("Expected or actual mappings are null");
+        }
+        return compareAtlasSearchIndexMapping(CanonicalMapping.of(expectedMapping), actualMapping, invalidFieldsSoFar);
+    }
+
+    /**
+     * Check if the given atlas mappings matches the expected mappings, prepared with CanonicalMapping.of.
+     * (in one pass over the expected fields)
+     */
+    public static IndexValidationResults compareAtlasSearchIndexMapping(CanonicalMapping expectedMapping, Document actualMapping, List<InvalidField> invalidFieldsSoFar) {
         if (expectedMapping == null || actualMapping == null) {
             return IndexValidationResults.error("Expected or actual mappings are null");
         }
@@ -79,13 +126,12 @@ public class IndexValidator {
             return IndexValidationResults.error("Actual mappings do not contain 'dynamic' key");
         }
 
-        if (expectedMapping.getBoolean("dynamic") != actualMapping.getBoolean("dynamic")) {
+        if (!Objects.equals(expectedMapping.dynamic, actualMapping.getBoolean("dynamic"))) {
             return IndexValidationResults.error("Dynamic mapping settings do not match");
         }
-        if (expectedMapping.containsKey("fields") && actualMapping.containsKey("fields")) {
-            Document expectedFields = expectedMapping.get("fields", Document.class);
-            Document actualFields = actualMapping.get("fields", Document.class);
-            compareFields(expectedFields, actualFields, "", invalidFieldsSoFar);
+        Document actualFields = actualMapping.get("fields", Document.class);
+        if (expectedMapping.fields != null || actualFields != null) {
+            compareFields(expectedMapping.fields != null ? expectedMapping.fields : Map.of(), actualFields != null ? actualFields : new Document(), "", invalidFieldsSoFar);
         }
         if (invalidFieldsSoFar != null && !invalidFieldsSoFar.isEmpty()) {
             return new IndexValidationResults(false, "Mappings do not match. Invalid fields found.", invalidFieldsSoFar);
@@ -94,57 +140,122 @@ public class IndexValidator {
         }
     }
 
-    private static void compareFields(Document expectedFields, Document actualFields, String fieldParent, List<InvalidField> invalidFieldsSoFar) {
-        for (String fieldName : expectedFields.keySet()) {
-            if (!actualFields.containsKey(fieldName)) {
+    private static void compareFields(Map<String, CanonicalField[]> expectedFields, Document actualFields, String fieldParent, List<InvalidField> invalidFieldsSoFar) {
+        for (String fieldName : actualFields.keySet()) {
+            if (!expectedFields.containsKey(fieldName)) {
+                invalidFieldsSoFar.add(new InvalidField(fieldParent, fieldName, "Field not expected in actual mappings"));
+            }
+        }
+        for (Map.Entry<String, CanonicalField[]> expectedEntry : expectedFields.entrySet()) {
+            String fieldName = expectedEntry.getKey();
+            CanonicalField[] expectedFieldsToCheck = expectedEntry.getValue();
+            Object actualValue = actualFields.get(fieldName);
+            if (actualValue == null) {
                 invalidFieldsSoFar.add(new InvalidField(fieldParent, fieldName, "Field not found in actual mappings"));
+            } else if (actualValue instanceof Document actualField) {
+                if (expectedFieldsToCheck.length != 1) {
+                    invalidFieldsSoFar.add(new InvalidField(fieldParent, fieldName, "Field count mismatch"));
+                } else {
+                    compareField(expectedFieldsToCheck[0], actualField, fieldParent, fieldName, invalidFieldsSoFar);
+                }
             } else {
-                List<Document> expectedFieldsToCheck = getFieldDocuments(expectedFields, fieldName);
-                List<Document> actualFieldsToCheck = getFieldDocuments(actualFields, fieldName);
-
-                if (expectedFieldsToCheck.size() != actualFieldsToCheck.size()) {
+                List<?> actualFieldsToCheck = (List<?>) actualValue;
+                if (expectedFieldsToCheck.length != actualFieldsToCheck.size()) {
                     invalidFieldsSoFar.add(new InvalidField(fieldParent, fieldName, "Field count mismatch"));
                 } else {
-                    for (int i = 0; i < expectedFieldsToCheck.size(); i++) {
-                        Document expectedField = expectedFieldsToCheck.get(i);
-                        Document actualField = actualFieldsToCheck.get(i);
-
-                        Optional<InvalidField> fieldIsInvalid = compareField(expectedField, actualField, fieldParent, fieldName, invalidFieldsSoFar);
-                        fieldIsInvalid.ifPresent(invalidFieldsSoFar::add);
+                    for (int i = 0; i < actualFieldsToCheck.size(); i++) {
+                        Document actualFieldToCheck = (Document) actualFieldsToCheck.get(i);
+                        CanonicalField expectedFieldToCheck = expectedFieldsToCheck[sortedPosition(actualFieldsToCheck, i)];
+                        compareField(expectedFieldToCheck, actualFieldToCheck, fieldParent, fieldName, invalidFieldsSoFar);
                     }
                 }
             }
         }
     }
 
-    private static Optional<InvalidField> compareField(Document expectedField, Document actualField, String fieldParent, String fieldName, List<InvalidField> invalidFieldsSoFar) {
-        for (String key : check_equality_of_keys) {
-            if (expectedField.containsKey(key)) {
-                if (!actualField.containsKey(key)) {
-                    return Optional.of(new InvalidField(fieldParent, fieldName, "Expected field not found in actual mappings"));
-                }
-                Object expectedValue = expectedField.get(key);
-                Object actualValue = actualField.get(key);
-                if (!expectedValue.equals(actualValue)) {
-                    return Optional.of(new InvalidField(fieldParent, fieldName, "Field value mismatch. Expected: '%s', actual: '%s'".formatted(expectedValue, actualValue)));
-                } else {
-                    if (log.isTraceEnabled()) {
-                        log.trace("Field '%s%s%s' matches for key '%s': expected '%s', actual '%s'".formatted(fieldParent, fieldParent.isEmpty() ? "" : ".", fieldName, key, expectedValue, actualValue));
-                    }
+    /**
+     * The position the definition at the given index would have if the list were sorted, found without sorting (or
+     * copying) the list. Multi-mapped fields only have a handful of definitions.
+     */
+    private static int sortedPosition(List<?> fields, int index) {
+        Document field = (Document) fields.get(index);
+        int position = 0;
+        for (int other = 0; other < fields.size(); other++) {
+            int compared = FIELD_ORDER.compare((Document) fields.get(other), field);
+            if (compared < 0 || (compared == 0 && other < index)) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    private static void compareField(CanonicalField expected, Document actualField, String fieldParent, String fieldName, List<InvalidField> invalidFieldsSoFar) {
+        Document expectedField = expected.definition();
+        for (String key : expectedField.keySet()) {
+            if (key.equals("fields")) {
+                continue;
+            }
+            Object expectedValue = expectedField.get(key);
+            Object actualValue = actualField.get(key);
+            if (actualValue == null) {
+                if (!isServerDefault(key, expectedField)) {
+                    invalidFieldsSoFar.add(new InvalidField(fieldParent, fieldName, "Expected field not found in actual mappings"));
+                    return;
                 }
+            } else if (!settingMatches(expectedValue, actualValue)) {
+                invalidFieldsSoFar.add(new InvalidField(fieldParent, fieldName, "Field value mismatch. Expected: '%s', actual: '%s'".formatted(expectedValue, actualValue)));
+                return;
+            } else if (log.isTraceEnabled()) {
+                log.trace("Field '{}{}{}' matches for key '{}': expected '{}', actual '{}'", fieldParent, fieldParent.isEmpty() ? "" : ".", fieldName, key, expectedValue, actualValue);
             }
         }
-        if (expectedField.containsKey("fields") && actualField.containsKey("fields")) {
-            Document expectedFields = expectedField.get("fields", Document.class);
-            Document actualFields = actualField.get("fields", Document.class);
+        for (String key : actualField.keySet()) {
+            if (!key.equals("fields") && !expectedField.containsKey(key) && !isServerDefault(key, actualField)) {
+                invalidFieldsSoFar.add(new InvalidField(fieldParent, fieldName, "Unexpected setting '%s' in actual mappings: '%s'".formatted(key, actualField.get(key))));
+                return;
+            }
+        }
+        Document actualFields = actualField.get("fields", Document.class);
+        if (expected.fields() != null || actualFields != null) {
             if (fieldParent.isEmpty()) {
                 fieldParent = fieldName;
             } else {
                 fieldParent = "%s.%s".formatted(fieldParent, fieldName);
             }
-            compareFields(expectedFields, actualFields, fieldParent, invalidFieldsSoFar);
+            compareFields(expected.fields() != null ? expected.fields() : Map.of(), actualFields != null ? actualFields : new Document(), fieldParent, invalidFieldsSoFar);
         }
-        return Optional.empty();
+    }
+
+    private static boolean settingMatches(Object expected, Object actual) {
+        // the server may hand a number back as a different numeric type
+        if (expected instanceof Number expectedNumber && actual instanceof Number actualNumber) {
+            return expectedNumber.doubleValue() == actualNumber.doubleValue();
+        }
+        return expected.equals(actual);
+    }
+
+    /**
+     * Only reached for a setting on one side of the comparison, usually a default the server added to its copy.
+     */
+    private static boolean isServerDefault(String key, Document field) {
+        return SearchIndexManager.isServerDefault(key, field.get(key), field);
+    }
+
+    private static Map<String, CanonicalField[]> canonicalFields(Document fields) {
+        if (fields == null) {
+            return null;
+        }
+        Map<String, CanonicalField[]> canonicalFields = new LinkedHashMap<>();
+        for (String fieldName : fields.keySet()) {
+            List<Document> fieldDocuments = getFieldDocuments(fields, fieldName);
+            CanonicalField[] canonicalField = new CanonicalField[fieldDocuments.size()];
+            for (int i = 0; i < canonicalField.length; i++) {
+                Document fieldDocument = fieldDocuments.get(i);
+                canonicalField[i] = new CanonicalField(fieldDocument, canonicalFields(fieldDocument.get("fields", Document.class)));
+            }
+            canonicalFields.put(fieldName, canonicalField);
+        }
+        return canonicalFields;
     }
 
     public static List<Document> getFieldDocuments(Document fields, String fieldName) {
@@ -152,13 +263,20 @@ public class IndexValidator {
         if (object instanceof List<?> objects) {
             return objects.stream()
                     .map(Document.class::cast)
-                    .sorted(Comparator.comparing(Document::toJson))
+                    .sorted(FIELD_ORDER)
                     .toList();
         }
         return List.of((Document) object);
     }
 
+    /**
+     * Read a classpath resource, caching it for later calls.
+     */
     public static String readResourceAsString(String resourcePath) {
+        return resources.computeIfAbsent(resourcePath, IndexValidator::readResource);
+    }
+
+    private static String readResource(String resourcePath) {
         try {
             try (InputStream is = IndexValidator.class.getClassLoader().getResourceAsStream(resourcePath)) {
                 if (is == null) {
@@ -0,0 +1,360 @@
+package com.mycodefu.atlassearch.util;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.SearchIndexModel;
+import com.mongodb.client.model.SearchIndexType;
+import org.bson.BsonArray;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates Atlas Search indexes and waits for them to become READY.
+ * <p>
+ * Each poll asks the server for just the index being waited on ($listSearchIndexes filtered by name), and the delay
+ * between polls starts small and backs off exponentially, so a fast build is noticed within milliseconds without
+ * hammering a slow one. The first delay adapts to how long earlier indexes on this manager took to become READY.
+ * <p>
+ * An index which already exists with the same definition is not rebuilt, and one with a different definition is
+ * updated in place. Definitions with a fields array and no mappings are created as vectorSearch indexes.
+ */
+public class SearchIndexManager {
+    static Logger log = LoggerFactory.getLogger(SearchIndexManager.class);
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(2);
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(20);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(1);
+    private static final double BACKOFF_MULTIPLIER = 1.5;
+    // the first poll waits for this fraction of the average time previous indexes took to become READY
+    private static final double ADAPTIVE_FIRST_POLL_FRACTION = 0.5;
+
+    private static final BsonString STANDARD_ANALYZER = new BsonString("lucene.standard");
+    // settings the server may add to the definitions it returns, or leave out, at their documented default values
+    private static final Map<String, BsonValue> SERVER_DEFAULTS = Map.ofEntries(
+            Map.entry("analyzer", STANDARD_ANALYZER),
+            Map.entry("dynamic", BsonBoolean.FALSE),
+            Map.entry("storedSource", BsonBoolean.FALSE),
+            Map.entry("numPartitions", new BsonInt32(1)),
+            Map.entry("analyzers", new BsonArray()),
+            Map.entry("synonyms", new BsonArray()),
+            // string fields
+            Map.entry("indexOptions", new BsonString("offsets")),
+            Map.entry("store", BsonBoolean.TRUE),
+            Map.entry("norms", new BsonString("include")),
+            // token fields
+            Map.entry("normalizer", new BsonString("none")),
+            // autocomplete fields
+            Map.entry("tokenization", new BsonString("edgeGram")),
+            Map.entry("minGrams", new BsonInt32(2)),
+            Map.entry("maxGrams", new BsonInt32(15)),
+            Map.entry("foldDiacritics", BsonBoolean.TRUE),
+            // number fields
+            Map.entry("representation", new BsonString("double")),
+            Map.entry("indexIntegers", BsonBoolean.TRUE),
+            Map.entry("indexDoubles", BsonBoolean.TRUE),
+            // vector fields
+            Map.entry("quantization", new BsonString("none")));
+
+    public static final String READY = "READY";
+    public static final String FAILED = "FAILED";
+
+    public enum IndexAction {CREATED, UPDATED, UNCHANGED}
+
+    public record IndexReadiness(String name, IndexAction action, long timeToReadyMillis, int polls) { }
+
+    /**
+     * An index to create, update or just wait for, as a caller which has already compared definitions decided.
+     */
+    public record IndexBuild(String name, BsonDocument definition, IndexAction action) { }
+
+    private final MongoCollection<?> collection;
+    private final long timeoutNanos;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final List<IndexReadiness> history = new CopyOnWriteArrayList<>();
+
+    public SearchIndexManager(MongoCollection<?> collection) {
+        this(collection, DEFAULT_TIMEOUT, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF);
+    }
+
+    public SearchIndexManager(MongoCollection<?> collection, Duration timeout, Duration initialBackoff, Duration maxBackoff) {
+        if (initialBackoff.isNegative() || initialBackoff.isZero() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Backoff must be positive and maxBackoff at least initialBackoff");
+        }
+        this.collection = collection;
+        this.timeoutNanos = timeout.toNanos();
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    /**
+     * Create (or update) the index unless an identical definition already exists, then wait for it to be READY.
+     */
+    public IndexReadiness createAndAwait(String name, BsonDocument definition) {
+        long start = System.nanoTime();
+        BsonDocument existing = findIndex(name);
+        IndexAction action;
+        if (existing == null) {
+            action = IndexAction.CREATED;
+        } else if (definitionMatches(definition, existing.getDocument("latestDefinition", new BsonDocument()))) {
+            action = IndexAction.UNCHANGED;
+        } else {
+            action = IndexAction.UPDATED;
+        }
+        return apply(new IndexBuild(name, definition, action), start);
+    }
+
+    /**
+     * Create (or update) several indexes and wait for them all to be READY, waiting on each concurrently.
+     *
+     * @return the readiness of each index, in the order of the definitions map.
+     */
+    public List<IndexReadiness> createAndAwait(Map<String, BsonDocument> definitions) {
+        List<Callable<IndexReadiness>> tasks = new ArrayList<>(definitions.size());
+        definitions.forEach((name, definition) -> tasks.add(() -> createAndAwait(name, definition)));
+        return awaitAll(tasks);
+    }
+
+    /**
+     * Create, update or leave each index as its build says, without comparing definitions again, and wait for them all
+     * to be READY with that definition, waiting on each concurrently.
+     *
+     * @return the readiness of each index, in the order of the builds.
+     */
+    public List<IndexReadiness> applyAndAwait(List<IndexBuild> builds) {
+        List<Callable<IndexReadiness>> tasks = new ArrayList<>(builds.size());
+        for (IndexBuild build : builds) {
+            tasks.add(() -> apply(build, System.nanoTime()));
+        }
+        return awaitAll(tasks);
+    }
+
+    /**
+     * Wait for an existing index to be READY, whatever its definition.
+     */
+    public IndexReadiness await(String name) {
+        return awaitReady(name, null, IndexAction.UNCHANGED, System.nanoTime());
+    }
+
+    /**
+     * vectorSearch for a vector index definition ({"fields": [{"type": "vector", ...}]}), otherwise search.
+     */
+    public static SearchIndexType indexType(BsonDocument definition) {
+        return definition.isArray("fields") && !definition.containsKey("mappings") ? SearchIndexType.vectorSearch() : SearchIndexType.search();
+    }
+
+    /**
+     * Every index this manager has waited for, oldest first.
+     */
+    public List<IndexReadiness> history() {
+        return List.copyOf(history);
+    }
+
+    private IndexReadiness apply(IndexBuild build, long start) {
+        switch (build.action()) {
+            case CREATED -> collection.createSearchIndexes(List.of(new SearchIndexModel(build.name(), build.definition(), indexType(build.definition()))));
+            case UPDATED -> collection.updateSearchIndex(build.name(), build.definition());
+            case UNCHANGED -> {
+            }
+        }
+        return awaitReady(build.name(), build.definition(), build.action(), start);
+    }
+
+    private static List<IndexReadiness> awaitAll(List<Callable<IndexReadiness>> tasks) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<IndexReadiness>> waits = new ArrayList<>(tasks.size());
+            for (Callable<IndexReadiness> task : tasks) {
+                waits.add(executor.submit(task));
+            }
+
+            List<IndexReadiness> results = new ArrayList<>(waits.size());
+            for (Future<IndexReadiness> wait : waits) {
+                results.add(wait.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for search indexes", e);
+        }
+    }
+
+    private IndexReadiness awaitReady(String name, BsonDocument definition, IndexAction action, long start) {
+        long deadline = start + timeoutNanos;
+        long backoffNanos = firstBackoffNanos();
+        int polls = 0;
+        while (true) {
+            BsonDocument index = findIndex(name);
+            polls++;
+            String status = index == null ? null : index.getString("status").getValue();
+            if (FAILED.equals(status)) {
+                throw new IllegalStateException("Search index %s failed to build: %s".formatted(name, index.getString("message", index.getString("status")).getValue()));
+            }
+            // after an update the status can still read READY for the old definition, so wait for the new one
+            if (READY.equals(status) && (definition == null || definitionMatches(definition, index.getDocument("latestDefinition", new BsonDocument())))) {
+                IndexReadiness readiness = new IndexReadiness(name, action, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), polls);
+                history.add(readiness);
+                log.info("Search index {} {} and READY in {}ms after {} polls", name, action.name().toLowerCase(), readiness.timeToReadyMillis(), polls);
+                return readiness;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException("Search index %s was not READY within %dms, last status %s".formatted(name, TimeUnit.NANOSECONDS.toMillis(timeoutNanos), status));
+            }
+            if (log.isTraceEnabled()) {
+                log.trace("Search index {} is {}, polling again in {}ms", name, status, TimeUnit.NANOSECONDS.toMillis(backoffNanos));
+            }
+            sleepNanos(Math.min(backoffNanos, remaining));
+            backoffNanos = Math.min(maxBackoffNanos, (long) (backoffNanos * BACKOFF_MULTIPLIER));
+        }
+    }
+
+    private BsonDocument findIndex(String name) {
+        return collection.listSearchIndexes(BsonDocument.class).name(name).first();
+    }
+
+    private long firstBackoffNanos() {
+        double averageMillis = history.stream()
+                .filter(readiness -> readiness.action() != IndexAction.UNCHANGED)
+                .mapToLong(IndexReadiness::timeToReadyMillis)
+                .average()
+                .orElse(0);
+        long adaptive = (long) (TimeUnit.MILLISECONDS.toNanos((long) averageMillis) * ADAPTIVE_FIRST_POLL_FRACTION);
+        return Math.clamp(adaptive, initialBackoffNanos, maxBackoffNanos);
+    }
+
+    /**
+     * True if the two definitions have the same settings and fields. A setting on only one side is allowed when it has
+     * its documented default value, as the server adds defaults of its own to the definitions it returns, but a field
+     * on only one side never matches. Arrays of field types may come back in any order, and numbers may come back as a
+     * different numeric type.
+     */
+    static boolean definitionMatches(BsonValue expected, BsonValue actual) {
+        return valueMatches(expected, actual, false);
+    }
+
+    private static boolean valueMatches(BsonValue expected, BsonValue actual, boolean fieldNames) {
+        if (expected.isDocument()) {
+            return actual.isDocument() && documentMatches(expected.asDocument(), actual.asDocument(), fieldNames);
+        }
+        if (expected.isArray()) {
+            return actual.isArray() && arrayMatches(expected.asArray(), actual.asArray());
+        }
+        if (expected.isNumber()) {
+            return actual.isNumber() && expected.asNumber().doubleValue() == actual.asNumber().doubleValue();
+        }
+        return expected.equals(actual);
+    }
+
+    /**
+     * @param fieldNames true when the keys are field names (mappings.fields or the fields of a document field), which
+     *                   must be the same on both sides.
+     */
+    private static boolean documentMatches(BsonDocument expected, BsonDocument actual, boolean fieldNames) {
+        Set<String> keys = new LinkedHashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+        for (String key : keys) {
+            BsonValue expectedValue = expected.get(key);
+            BsonValue actualValue = actual.get(key);
+            if (expectedValue == null || actualValue == null) {
+                BsonDocument settings = expectedValue == null ? actual : expected;
+                if (fieldNames || !isServerDefault(key, settings.get(key), settings)) {
+                    return false;
+                }
+            } else if (!valueMatches(expectedValue, actualValue, !fieldNames && key.equals("fields") && expectedValue.isDocument())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True if a setting found on only one side of a comparison has the value the server uses when it is left out.
+     *
+     * @param settings the document the setting is in, as searchAnalyzer defaults to its analyzer.
+     */
+    static boolean isServerDefault(String key, BsonValue value, BsonDocument settings) {
+        // searchAnalyzer defaults to the index analyzer
+        BsonValue serverDefault = key.equals("searchAnalyzer") ? settings.get("analyzer", STANDARD_ANALYZER) : SERVER_DEFAULTS.get(key);
+        return serverDefault != null && valueMatches(serverDefault, value, false);
+    }
+
+    /**
+     * isServerDefault for a setting read with the driver's Document codec, compared as it is rather than converted to
+     * BSON, for IndexValidator's single pass over the mappings.
+     */
+    static boolean isServerDefault(String key, Object value, Document settings) {
+        if (key.equals("searchAnalyzer")) {
+            return settings.getOrDefault("analyzer", STANDARD_ANALYZER.getValue()).equals(value);
+        }
+        BsonValue serverDefault = SERVER_DEFAULTS.get(key);
+        return serverDefault != null && defaultMatches(serverDefault, value);
+    }
+
+    private static boolean defaultMatches(BsonValue serverDefault, Object value) {
+        if (serverDefault.isNumber()) {
+            return value instanceof Number number && serverDefault.asNumber().doubleValue() == number.doubleValue();
+        }
+        if (serverDefault.isBoolean()) {
+            return value instanceof Boolean bool && serverDefault.asBoolean().getValue() == bool;
+        }
+        if (serverDefault.isString()) {
+            return serverDefault.asString().getValue().equals(value);
+        }
+        // the only array defaults are empty
+        return serverDefault.isArray() && serverDefault.asArray().isEmpty() && value instanceof List<?> list && list.isEmpty();
+    }
+
+    private static boolean arrayMatches(BsonArray expected, BsonArray actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        boolean[] matched = new boolean[actual.size()];
+        for (BsonValue expectedValue : expected) {
+            boolean found = false;
+            for (int i = 0; i < actual.size() && !found; i++) {
+                if (!matched[i] && valueMatches(expectedValue, actual.get(i), false)) {
+                    matched[i] = true;
+                    found = true;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for search index", e);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.mycodefu.atlassearch.util;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mycodefu.atlassearch.util.IndexValidator.IndexValidationResults;
+import com.mycodefu.atlassearch.util.IndexValidator.InvalidField;
+import com.mycodefu.atlassearch.util.SearchIndexManager.IndexAction;
+import com.mycodefu.atlassearch.util.SearchIndexManager.IndexBuild;
+import com.mycodefu.atlassearch.util.SearchIndexManager.IndexReadiness;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static com.mongodb.client.model.Filters.eq;
+
+/**
+ * Makes the live Atlas Search indexes match the atlas-search-indexes/&lt;db&gt;/&lt;coll&gt;/&lt;index&gt;.json
+ * definitions on the classpath.
+ * <p>
+ * Each definition is compared with its index from listSearchIndexes by differences(), every setting in both
+ * directions apart from defaults the server adds. An index is created when it is missing and updated when there is
+ * any difference, so reconcile() makes exactly the changes plan() reports. Rebuilding a large index leaves search
+ * degraded until it is READY again, so an index which matches is always left alone. Collections are reconciled in
+ * parallel, and reconcile() returns once every index it touched is READY.
+ */
+public class SearchIndexReconciler {
+    static Logger log = LoggerFactory.getLogger(SearchIndexReconciler.class);
+
+    public static final String DEFAULT_RESOURCE_ROOT = "atlas-search-indexes";
+
+    public record IndexDefinition(String database, String collection, String name, Document definition) { }
+
+    public enum ChangeType {CREATE, UPDATE, UNCHANGED}
+
+    public record IndexChange(IndexDefinition index, ChangeType type, String status, List<InvalidField> differences) { }
+
+    public record ReconcileResult(List<IndexChange> changes, List<IndexReadiness> readiness, long elapsedMillis) {
+        public long count(ChangeType type) {
+            return changes.stream().filter(change -> change.type() == type).count();
+        }
+
+        public void printResults() {
+            System.out.printf("Reconciled %d search indexes in %dms: %d created, %d updated, %d unchanged%n",
+                    changes.size(), elapsedMillis, count(ChangeType.CREATE), count(ChangeType.UPDATE), count(ChangeType.UNCHANGED));
+            for (IndexChange change : changes) {
+                IndexDefinition index = change.index();
+                System.out.printf("  %s.%s %s: %s%n", index.database(), index.collection(), index.name(), change.type());
+                for (InvalidField difference : change.differences()) {
+                    String fieldPrefix = difference.fieldParent().isEmpty() ? "" : difference.fieldParent() + ".";
+                    System.out.printf("    %s%s: %s%n", fieldPrefix, difference.fieldName(), difference.message());
+                }
+            }
+        }
+    }
+
+    private final MongoClient mongoClient;
+    private final String resourceRoot;
+    private final UnaryOperator<String> databaseNames;
+
+    public SearchIndexReconciler(MongoClient mongoClient) {
+        this(mongoClient, DEFAULT_RESOURCE_ROOT, UnaryOperator.identity());
+    }
+
+    /**
+     * @param databaseNames maps the database directory of each definition to the database to reconcile, for example to
+     *                      add a per-environment suffix.
+     */
+    public SearchIndexReconciler(MongoClient mongoClient, String resourceRoot, UnaryOperator<String> databaseNames) {
+        this.mongoClient = mongoClient;
+        this.resourceRoot = resourceRoot;
+        this.databaseNames = databaseNames;
+    }
+
+    /**
+     * Work out what reconcile() would change, without changing anything.
+     */
+    public List<IndexChange> plan() {
+        return forEachCollection(SearchIndexReconciler::diff);
+    }
+
+    /**
+     * Create or update every index which is missing or different, and wait for them all to be READY.
+     */
+    public ReconcileResult reconcile() {
+        long start = System.nanoTime();
+        List<IndexReadiness> readiness = new CopyOnWriteArrayList<>();
+        List<IndexChange> changes = forEachCollection((database, collectionName, definitions) -> {
+            List<IndexChange> collectionChanges = diff(database, collectionName, definitions);
+            readiness.addAll(apply(database, collectionName, collectionChanges));
+            return collectionChanges;
+        });
+        ReconcileResult result = new ReconcileResult(List.copyOf(changes), List.copyOf(readiness), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Reconciled {} search indexes in {}ms: {} created, {} updated, {} unchanged", changes.size(), result.elapsedMillis(),
+                result.count(ChangeType.CREATE), result.count(ChangeType.UPDATE), result.count(ChangeType.UNCHANGED));
+        return result;
+    }
+
+    /**
+     * Every index definition under the resource root, in database, collection, index name order.
+     */
+    public List<IndexDefinition> scan() {
+        Map<String, IndexDefinition> definitions = new TreeMap<>();
+        try {
+            Enumeration<URL> roots = Thread.currentThread().getContextClassLoader().getResources(resourceRoot);
+            for (URL root : Collections.list(roots)) {
+                scan(root, definitions);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan %s for search index definitions".formatted(resourceRoot), e);
+        }
+        return List.copyOf(definitions.values());
+    }
+
+    private interface CollectionTask {
+        List<IndexChange> run(MongoDatabase database, String collectionName, List<IndexDefinition> definitions);
+    }
+
+    private List<IndexChange> forEachCollection(CollectionTask task) {
+        Map<String, List<IndexDefinition>> byNamespace = new LinkedHashMap<>();
+        for (IndexDefinition definition : scan()) {
+            String namespace = databaseNames.apply(definition.database()) + "." + definition.collection();
+            byNamespace.computeIfAbsent(namespace, key -> new ArrayList<>()).add(definition);
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<IndexChange>>> tasks = new ArrayList<>();
+            for (List<IndexDefinition> definitions : byNamespace.values()) {
+                IndexDefinition first = definitions.getFirst();
+                MongoDatabase database = mongoClient.getDatabase(databaseNames.apply(first.database()));
+                tasks.add(executor.submit(() -> task.run(database, first.collection(), definitions)));
+            }
+            List<IndexChange> changes = new ArrayList<>();
+            for (Future<List<IndexChange>> collectionTask : tasks) {
+                changes.addAll(collectionTask.get());
+            }
+            return changes;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted reconciling search indexes", e);
+        }
+    }
+
+    private static boolean collectionExists(MongoDatabase database, String collectionName) {
+        return database.listCollectionNames().filter(eq("name", collectionName)).first() != null;
+    }
+
+    private static List<IndexChange> diff(MongoDatabase database, String collectionName, List<IndexDefinition> definitions) {
+        Map<String, Document> existing = new LinkedHashMap<>();
+        if (collectionExists(database, collectionName)) {
+            for (Document index : database.getCollection(collectionName).listSearchIndexes()) {
+                existing.put(index.getString("name"), index);
+            }
+        }
+
+        List<IndexChange> changes = new ArrayList<>(definitions.size());
+        for (IndexDefinition definition : definitions) {
+            Document actual = existing.get(definition.name());
+            if (actual == null) {
+                changes.add(new IndexChange(definition, ChangeType.CREATE, null, List.of()));
+                continue;
+            }
+            String status = actual.getString("status");
+            Document latestDefinition = actual.get("latestDefinition", new Document());
+            List<InvalidField> differences = differences(definition.definition(), latestDefinition);
+            ChangeType type = differences.isEmpty() ? ChangeType.UNCHANGED : ChangeType.UPDATE;
+            changes.add(new IndexChange(definition, type, status, differences));
+        }
+        return changes;
+    }
+
+    /**
+     * Compare the mappings as IndexValidator does, and any other top level settings (analyzers, storedSource, the
+     * fields of a vector index, ...) by value, in both directions. No differences means the index is left alone.
+     */
+    static List<InvalidField> differences(Document expected, Document actual) {
+        List<InvalidField> differences = new ArrayList<>();
+        if (expected.containsKey("mappings") || actual.containsKey("mappings")) {
+            IndexValidationResults mappings = IndexValidator.compareAtlasSearchIndexMapping(
+                    expected.get("mappings", Document.class),
+                    actual.get("mappings", Document.class),
+                    differences
+            );
+            if (!mappings.valid() && differences.isEmpty()) {
+                differences.add(new InvalidField("", "mappings", mappings.message()));
+            }
+        }
+
+        BsonDocument expectedDocument = expected.toBsonDocument();
+        BsonDocument actualDocument = actual.toBsonDocument();
+        for (String key : expectedDocument.keySet()) {
+            if (key.equals("mappings")) {
+                continue;
+            }
+            if (!actualDocument.containsKey(key)) {
+                if (!SearchIndexManager.isServerDefault(key, expectedDocument.get(key), expectedDocument)) {
+                    differences.add(new InvalidField("", key, "Setting not found in actual index"));
+                }
+            } else if (!SearchIndexManager.definitionMatches(expectedDocument.get(key), actualDocument.get(key))) {
+                differences.add(new InvalidField("", key, "Setting value mismatch"));
+            }
+        }
+        for (String key : actualDocument.keySet()) {
+            if (!key.equals("mappings") && !expectedDocument.containsKey(key) && !SearchIndexManager.isServerDefault(key, actualDocument.get(key), actualDocument)) {
+                differences.add(new InvalidField("", key, "Setting not expected in actual index"));
+            }
+        }
+        return differences;
+    }
+
+    private static List<IndexReadiness> apply(MongoDatabase database, String collectionName, List<IndexChange> changes) {
+        // search indexes can only be created on a collection which exists
+        if (changes.stream().anyMatch(change -> change.type() == ChangeType.CREATE) && !collectionExists(database, collectionName)) {
+            database.createCollection(collectionName);
+        }
+        List<IndexBuild> builds = new ArrayList<>();
+        for (IndexChange change : changes) {
+            // an identical definition which is READY is left alone, one still building (perhaps from an earlier
+            // deploy) is waited for
+            if (change.type() != ChangeType.UNCHANGED || !SearchIndexManager.READY.equals(change.status())) {
+                builds.add(new IndexBuild(change.index().name(), change.index().definition().toBsonDocument(), action(change.type())));
+            }
+        }
+        if (builds.isEmpty()) {
+            return List.of();
+        }
+        return new SearchIndexManager(database.getCollection(collectionName)).applyAndAwait(builds);
+    }
+
+    private static IndexAction action(ChangeType type) {
+        return switch (type) {
+            case CREATE -> IndexAction.CREATED;
+            case UPDATE -> IndexAction.UPDATED;
+            case UNCHANGED -> IndexAction.UNCHANGED;
+        };
+    }
+
+    private void scan(URL root, Map<String, IndexDefinition> definitions) throws IOException {
+        URI uri;
+        try {
+            uri = root.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid resource location " + root, e);
+        }
+        if (uri.getScheme().equals("jar")) {
+            FileSystem fileSystem;
+            try {
+                fileSystem = FileSystems.newFileSystem(uri, Map.of());
+            } catch (FileSystemAlreadyExistsException e) {
+                fileSystem = FileSystems.getFileSystem(uri);
+            }
+            scan(fileSystem.getPath(resourceRoot), definitions);
+        } else {
+            scan(Path.of(uri), definitions);
+        }
+    }
+
+    private static void scan(Path root, Map<String, IndexDefinition> definitions) throws IOException {
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            for (Path file : files.filter(path -> path.getNameCount() - root.getNameCount() == 3).toList()) {
+                String fileName = file.getFileName().toString();
+                if (!Files.isRegularFile(file) || !fileName.endsWith(".json")) {
+                    continue;
+                }
+                String database = file.getParent().getParent().getFileName().toString();
+                String collection = file.getParent().getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - ".json".length());
+                Document definition = Document.parse(Files.readString(file));
+                // the first definition on the classpath wins, as it would for a single resource lookup
+                definitions.putIfAbsent("%s/%s/%s".formatted(database, collection, name), new IndexDefinition(database, collection, name, definition));
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.mycodefu.cache;
+
+/**
+ * A point in time snapshot of the counters kept by a ReadThroughCache.
+ */
+public record CacheStats(long hits, long misses, long evictions, long loads, long loadFailures, long totalLoadNanos) {
+    public long requests() {
+        return hits + misses;
+    }
+
+    public double hitRatio() {
+        long requests = requests();
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    public double averageLoadMillis() {
+        return loads == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    /**
+     * Estimated load time avoided by hits, assuming each would have taken the average load time.
+     */
+    public double savedMillis() {
+        return hits * averageLoadMillis();
+    }
+
+    @Override
+    public String toString() {
+        return "hits=%d misses=%d hitRatio=%.3f evictions=%d loads=%d loadFailures=%d averageLoad=%.3fms saved=%.1fms"
+                .formatted(hits, misses, hitRatio(), evictions, loads, loadFailures, averageLoadMillis(), savedMillis());
+    }
+}
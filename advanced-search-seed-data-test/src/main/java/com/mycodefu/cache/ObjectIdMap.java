@@ -0,0 +1,253 @@
+package com.mycodefu.cache;
+
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hash map from ObjectId to value, keyed on the 12 bytes of the id held as two longs in a primitive array.
+ * <p>
+ * There's no key object per entry (a HashMap&lt;String, V&gt; keeps a hex String and a node for each, about 70 bytes an
+ * entry at a million ids against about 40 here), and lookups by hex id parse the string in place rather than creating
+ * an ObjectId, so a get doesn't allocate.
+ * Open addressing with linear probing, removals shift later entries back rather than leaving tombstones. The two
+ * halves of each key sit next to each other, so a probe reads one cache line of keys and then the value.
+ * <p>
+ * Not thread safe, callers must synchronise access.
+ */
+public class ObjectIdMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    // kept at most half full, so probe sequences stay short
+    private static final int MAX_LOAD_PERCENT = 50;
+    private static final byte[] HEX_DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(HEX_DIGITS, (byte) -1);
+        for (int i = 0; i < 16; i++) {
+            HEX_DIGITS[Character.forDigit(i, 16)] = (byte) i;
+            HEX_DIGITS[Character.toUpperCase(Character.forDigit(i, 16))] = (byte) i;
+        }
+    }
+
+    // the high 8 bytes of the id at 2 * slot, the low 4 at 2 * slot + 1
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public ObjectIdMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public ObjectIdMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        allocate(capacityFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(ObjectId id) {
+        byte[] bytes = id.toByteArray();
+        return get(high(bytes), low(bytes));
+    }
+
+    /**
+     * Look up a 24 character hex id, as PersonDataAccess uses for Person.id.
+     *
+     * @throws IllegalArgumentException if the id is not a valid hex ObjectId.
+     */
+    public V get(String hexId) {
+        if (hexId.length() != 24) {
+            throw new IllegalArgumentException("invalid hexadecimal representation of an ObjectId: [%s]".formatted(hexId));
+        }
+        return get(parseHex(hexId, 0, 16), (int) parseHex(hexId, 16, 24));
+    }
+
+    /**
+     * @return the previous value for the id, or null if there wasn't one.
+     */
+    public V put(ObjectId id, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        byte[] bytes = id.toByteArray();
+        long high = high(bytes);
+        int low = low(bytes);
+        int mask = values.length - 1;
+        int slot = slot(high, low, mask);
+        while (values[slot] != null) {
+            if (keys[2 * slot] == high && keys[2 * slot + 1] == low) {
+                V previous = value(slot);
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[2 * slot] = high;
+        keys[2 * slot + 1] = low;
+        values[slot] = value;
+        size++;
+        if (size * 100L > (long) values.length * MAX_LOAD_PERCENT) {
+            resize(values.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return the removed value, or null if the id wasn't in the map.
+     */
+    public V remove(ObjectId id) {
+        byte[] bytes = id.toByteArray();
+        int slot = find(high(bytes), low(bytes));
+        if (slot < 0) {
+            return null;
+        }
+        V removed = value(slot);
+        shiftBack(slot);
+        size--;
+        return removed;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                @SuppressWarnings("unchecked")
+                V typed = (V) value;
+                action.accept(typed);
+            }
+        }
+    }
+
+    /**
+     * A copy of the values, in no particular order.
+     */
+    public List<V> values() {
+        List<V> copy = new ArrayList<>(size);
+        forEachValue(copy::add);
+        return copy;
+    }
+
+    private V get(long high, int low) {
+        int slot = find(high, low);
+        return slot < 0 ? null : value(slot);
+    }
+
+    private int find(long high, int low) {
+        int mask = values.length - 1;
+        int slot = slot(high, low, mask);
+        while (values[slot] != null) {
+            if (keys[2 * slot] == high && keys[2 * slot + 1] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Fill the gap left at slot by moving back any later entry in the same run which can't be reached from its home
+     * slot without passing through the gap.
+     */
+    private void shiftBack(int gap) {
+        int mask = values.length - 1;
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = slot(keys[2 * slot], (int) keys[2 * slot + 1], mask);
+            // the entry can move to the gap unless its home is (cyclically) after the gap and at or before its slot
+            boolean reachableWithoutGap = gap <= slot ? gap < home && home <= slot : gap < home || home <= slot;
+            if (!reachableWithoutGap) {
+                keys[2 * gap] = keys[2 * slot];
+                keys[2 * gap + 1] = keys[2 * slot + 1];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[2 * i], (int) oldKeys[2 * i + 1], mask);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[2 * slot] = oldKeys[2 * i];
+                keys[2 * slot + 1] = oldKeys[2 * i + 1];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * 2];
+        values = new Object[capacity];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int slot) {
+        return (V) values[slot];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long minimum = Math.max(MIN_CAPACITY, expectedSize * 100L / MAX_LOAD_PERCENT + 1);
+        if (minimum > 1 << 30) {
+            throw new IllegalArgumentException("expectedSize %d is too large".formatted(expectedSize));
+        }
+        return Integer.highestOneBit((int) minimum - 1) << 1;
+    }
+
+    private static int slot(long high, int low, int mask) {
+        // the timestamp at the start of an ObjectId barely varies, so mix every bit into the slot
+        long hash = (high ^ low * 0x9E3779B97F4A7C15L) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ hash >>> 32) & mask;
+    }
+
+    private static long high(byte[] bytes) {
+        long high = 0;
+        for (int i = 0; i < 8; i++) {
+            high = high << 8 | bytes[i] & 0xFF;
+        }
+        return high;
+    }
+
+    private static int low(byte[] bytes) {
+        return (bytes[8] & 0xFF) << 24 | (bytes[9] & 0xFF) << 16 | (bytes[10] & 0xFF) << 8 | bytes[11] & 0xFF;
+    }
+
+    private static long parseHex(String hex, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = hex.charAt(i);
+            int digit = c < HEX_DIGITS.length ? HEX_DIGITS[c] : -1;
+            if (digit < 0) {
+                throw new IllegalArgumentException("invalid hexadecimal representation of an ObjectId: [%s]".formatted(hex));
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+}
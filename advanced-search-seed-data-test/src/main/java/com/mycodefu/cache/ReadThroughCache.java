@@ -0,0 +1,196 @@
+package com.mycodefu.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A bounded, read-through LRU cache with a per-entry time to live.
+ * <p>
+ * Entries are weighed on insert and the least recently used entries are evicted once the total weight
+ * exceeds maxWeight (with the default weigher every entry weighs 1, so maxWeight is a size bound).
+ * Concurrent misses on the same key are collapsed into a single call to the loader.
+ * Null values returned by the loader are passed back to the caller but not cached.
+ */
+public class ReadThroughCache<K, V> {
+    private record Entry<V>(V value, long weight, long expiresAtNanos) { }
+
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final ToLongBiFunction<K, V> weigher;
+    private final LongSupplier nanoClock;
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loadsInFlight = new ConcurrentHashMap<>();
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+
+    public ReadThroughCache(long maxWeight, Duration ttl, ToLongBiFunction<K, V> weigher) {
+        this(maxWeight, ttl, weigher, System::nanoTime);
+    }
+
+    ReadThroughCache(long maxWeight, Duration ttl, ToLongBiFunction<K, V> weigher, LongSupplier nanoClock) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be at least 1");
+        }
+        this.maxWeight = maxWeight;
+        this.ttlNanos = ttl.toNanos();
+        this.weigher = weigher;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * A cache holding at most maxSize entries.
+     */
+    public static <K, V> ReadThroughCache<K, V> bounded(int maxSize, Duration ttl) {
+        return new ReadThroughCache<>(maxSize, ttl, (key, value) -> 1);
+    }
+
+    /**
+     * Return the cached value for key, or load, cache and return it.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<V> newLoad = new CompletableFuture<>();
+        CompletableFuture<V> existingLoad = loadsInFlight.putIfAbsent(key, newLoad);
+        if (existingLoad != null) {
+            return join(existingLoad);
+        }
+
+        long start = nanoClock.getAsLong();
+        try {
+            V value = loader.apply(key);
+            loads.increment();
+            totalLoadNanos.add(nanoClock.getAsLong() - start);
+            long weight = value != null ? weigher.applyAsLong(key, value) : 0;
+            synchronized (entries) {
+                // only cache the value if the key was not invalidated while it was loading, checked under the same
+                // lock as invalidate so an invalidate can't land between the check and the store
+                if (loadsInFlight.remove(key, newLoad) && value != null) {
+                    store(key, value, weight);
+                }
+            }
+            newLoad.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            loadsInFlight.remove(key, newLoad);
+            newLoad.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Return the cached value for key, or null if it is not cached or has expired. Counts as a hit when found.
+     */
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (nanoClock.getAsLong() - entry.expiresAtNanos >= 0) {
+                remove(key);
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    public void put(K key, V value) {
+        long weight = weigher.applyAsLong(key, value);
+        synchronized (entries) {
+            store(key, value, weight);
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            loadsInFlight.remove(key);
+            remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            loadsInFlight.clear();
+            entries.clear();
+            totalWeight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long weight() {
+        synchronized (entries) {
+            return totalWeight;
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), loads.sum(), loadFailures.sum(), totalLoadNanos.sum());
+    }
+
+    private void store(K key, V value, long weight) {
+        Entry<V> previous = entries.put(key, new Entry<>(value, weight, nanoClock.getAsLong() + ttlNanos));
+        if (previous != null) {
+            totalWeight -= previous.weight;
+        }
+        totalWeight += weight;
+        evictToMaxWeight();
+    }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    private void evictToMaxWeight() {
+        Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            totalWeight -= eldest.next().getValue().weight;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mycodefu.concurrency;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks how close a connection pool came to saturation: the most connections checked out at once, the most
+ * requests waiting for a connection, the longest wait and how many checkouts timed out.
+ */
+public class ConnectionPoolSaturationListener implements ConnectionPoolListener {
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private final AtomicInteger maxCheckedOut = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger maxWaiting = new AtomicInteger();
+    private final AtomicLong maxCheckoutWaitNanos = new AtomicLong();
+    private final LongAdder totalCheckoutWaitNanos = new LongAdder();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder checkoutTimeouts = new LongAdder();
+    private final LongAdder connectionsCreated = new LongAdder();
+
+    public record PoolReport(int maxCheckedOut, int maxWaiting, long checkouts, long checkoutTimeouts, long connectionsCreated,
+                             double averageCheckoutWaitMillis, double maxCheckoutWaitMillis) { }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        maxWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waiting.decrementAndGet();
+        maxCheckedOut.accumulateAndGet(checkedOut.incrementAndGet(), Math::max);
+        long waitNanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        totalCheckoutWaitNanos.add(waitNanos);
+        maxCheckoutWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        checkouts.increment();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waiting.decrementAndGet();
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            checkoutTimeouts.increment();
+        }
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        connectionsCreated.increment();
+    }
+
+    public void reset() {
+        maxCheckedOut.set(checkedOut.get());
+        maxWaiting.set(waiting.get());
+        maxCheckoutWaitNanos.set(0);
+        totalCheckoutWaitNanos.reset();
+        checkouts.reset();
+        checkoutTimeouts.reset();
+        connectionsCreated.reset();
+    }
+
+    public PoolReport report() {
+        long checkoutCount = checkouts.sum();
+        return new PoolReport(
+                maxCheckedOut.get(),
+                maxWaiting.get(),
+                checkoutCount,
+                checkoutTimeouts.sum(),
+                connectionsCreated.sum(),
+                checkoutCount == 0 ? 0.0 : totalCheckoutWaitNanos.sum() / 1_000_000.0 / checkoutCount,
+                maxCheckoutWaitNanos.get() / 1_000_000.0
+        );
+    }
+}
@@ -0,0 +1,221 @@
+package com.mycodefu.concurrency;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.concurrency.ConnectionPoolSaturationListener.PoolReport;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the sync PersonDataAccess from thousands of virtual threads at once to check it is thread-safe and to find
+ * the limits of the connection pool.
+ * <p>
+ * Each virtual thread inserts a person, reads them back (checking it gets back exactly what it wrote) and optionally
+ * searches by bio. The report includes latency percentiles, how saturated the connection pool became, and any
+ * virtual thread pinning (a virtual thread blocking while holding its carrier thread) captured with JFR.
+ */
+public class VirtualThreadLoadHarness implements AutoCloseable {
+    static Logger log = LoggerFactory.getLogger(VirtualThreadLoadHarness.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final PersonDataAccess personDataAccess;
+    private final ConnectionPoolSaturationListener poolListener = new ConnectionPoolSaturationListener();
+
+    public record LoadReport(int virtualThreads, int operations, int errors, int mismatchedReads, long durationMillis,
+                             double p50Millis, double p99Millis, double maxMillis,
+                             PoolReport pool, long pinnedEvents, Map<String, Long> pinnedAt) {
+        public double operationsPerSecond() {
+            return durationMillis == 0 ? 0.0 : operations * 1000.0 / durationMillis;
+        }
+
+        public void printResults() {
+            System.out.printf("%d virtual threads ran %d operations in %dms (%.0f ops/s), %d errors, %d mismatched reads%n",
+                    virtualThreads, operations, durationMillis, operationsPerSecond(), errors, mismatchedReads);
+            System.out.printf("Latency p50 %.2fms, p99 %.2fms, max %.2fms%n", p50Millis, p99Millis, maxMillis);
+            System.out.printf("Pool: max checked out %d, max waiting %d, average wait %.2fms, max wait %.2fms, %d connections created, %d checkout timeouts%n",
+                    pool.maxCheckedOut(), pool.maxWaiting(), pool.averageCheckoutWaitMillis(), pool.maxCheckoutWaitMillis(), pool.connectionsCreated(), pool.checkoutTimeouts());
+            System.out.printf("Virtual thread pinned %d times%n", pinnedEvents);
+            pinnedAt.forEach((frame, count) -> System.out.printf("  %d x %s%n", count, frame));
+        }
+    }
+
+    public VirtualThreadLoadHarness(String connectionString) {
+        this.personDataAccess = new PersonDataAccess(virtualThreadSettings(connectionString)
+                .applyToConnectionPoolSettings(builder -> builder.addConnectionPoolListener(poolListener))
+                .build());
+    }
+
+    /**
+     * Client settings for serving around 10k concurrent requests from virtual threads in one JVM.
+     * <p>
+     * Virtual threads waiting for a connection do not hold a carrier thread, so the pool can stay far smaller than
+     * the number of in-flight requests. It bounds the load on the server, and the wait queue absorbs the rest:
+     * <ul>
+     *     <li>maxSize 200 - enough connections to keep the server busy without thousands of idle sockets</li>
+     *     <li>minSize 20 - opened up front so the first burst does not pay for connection handshakes</li>
+     *     <li>maxConnecting 8 - open connections faster than the default 2 when a burst arrives</li>
+     *     <li>maxWaitTime 30s - must exceed (in-flight requests / maxSize) x operation latency, or queued requests time out</li>
+     * </ul>
+     */
+    public static MongoClientSettings.Builder virtualThreadSettings(String connectionString) {
+        return MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .applyToConnectionPoolSettings(builder -> builder
+                        .maxSize(200)
+                        .minSize(20)
+                        .maxConnecting(8)
+                        .maxWaitTime(30, TimeUnit.SECONDS))
+                .applyToSocketSettings(builder -> builder
+                        .connectTimeout(10, TimeUnit.SECONDS)
+                        .readTimeout(30, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Start virtualThreads threads together, each running operationsPerThread rounds of insert + get (+ search).
+     *
+     * @param searchQuery a bio query to search for in each round, or null to skip searching.
+     */
+    public LoadReport run(int virtualThreads, int operationsPerThread, String searchQuery) throws InterruptedException {
+        int operationsPerRound = searchQuery == null ? 2 : 3;
+        int totalOperations = virtualThreads * operationsPerThread * operationsPerRound;
+        long[] latencies = new long[totalOperations];
+        AtomicInteger latencyCount = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+        LongAdder mismatchedReads = new LongAdder();
+        Map<String, Long> pinnedAt = new ConcurrentHashMap<>();
+        LongAdder pinnedEvents = new LongAdder();
+
+        poolListener.reset();
+        CountDownLatch start = new CountDownLatch(1);
+        long durationNanos;
+        try (RecordingStream pinnedEventStream = new RecordingStream()) {
+            pinnedEventStream.enable(PINNED_EVENT).withStackTrace().withThreshold(Duration.ofMillis(1));
+            pinnedEventStream.onEvent(PINNED_EVENT, event -> {
+                pinnedEvents.increment();
+                pinnedAt.merge(pinnedFrame(event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames()), 1L, Long::sum);
+            });
+            pinnedEventStream.startAsync();
+
+            long startNanos;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int thread = 0; thread < virtualThreads; thread++) {
+                    int threadNumber = thread;
+                    executor.submit(() -> {
+                        await(start);
+                        for (int round = 0; round < operationsPerThread; round++) {
+                            try {
+                                Person person = Person.of("Virtual Thread %d".formatted(threadNumber), 18 + round % 40, "load tester",
+                                        "Virtual thread %d round %d is checking the data access is thread-safe.".formatted(threadNumber, round));
+
+                                long insertStart = System.nanoTime();
+                                String id = personDataAccess.insertPerson(person);
+                                latencies[latencyCount.getAndIncrement()] = System.nanoTime() - insertStart;
+
+                                long getStart = System.nanoTime();
+                                Person read = personDataAccess.getPerson(id);
+                                latencies[latencyCount.getAndIncrement()] = System.nanoTime() - getStart;
+                                if (!new Person(id, person.name(), person.age(), person.job(), person.bio()).equals(read)) {
+                                    mismatchedReads.increment();
+                                }
+
+                                if (searchQuery != null) {
+                                    long searchStart = System.nanoTime();
+                                    personDataAccess.findPersonByBio(searchQuery, true);
+                                    latencies[latencyCount.getAndIncrement()] = System.nanoTime() - searchStart;
+                                }
+                            } catch (RuntimeException e) {
+                                if (errors.sum() == 0) {
+                                    log.error("First load harness error", e);
+                                }
+                                errors.increment();
+                            }
+                        }
+                    });
+                }
+                startNanos = System.nanoTime();
+                start.countDown();
+            }
+            durationNanos = System.nanoTime() - startNanos;
+            pinnedEventStream.stop();
+        }
+
+        long[] recorded = Arrays.copyOf(latencies, latencyCount.get());
+        Arrays.sort(recorded);
+        return new LoadReport(
+                virtualThreads,
+                recorded.length,
+                (int) errors.sum(),
+                (int) mismatchedReads.sum(),
+                TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                percentileMillis(recorded, 0.50),
+                percentileMillis(recorded, 0.99),
+                percentileMillis(recorded, 1.0),
+                poolListener.report(),
+                pinnedEvents.sum(),
+                topFrames(pinnedAt)
+        );
+    }
+
+    @Override
+    public void close() {
+        personDataAccess.close();
+    }
+
+    /**
+     * The first frame outside the JDK, which is where the pinning monitor was taken or the blocking call was made.
+     */
+    private static String pinnedFrame(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return "%s.%s line %d".formatted(type, frame.getMethod().getName(), frame.getLineNumber());
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.getFirst().getMethod().getType().getName() + "." + frames.getFirst().getMethod().getName();
+    }
+
+    private static Map<String, Long> topFrames(Map<String, Long> pinnedAt) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(pinnedAt.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        Map<String, Long> top = new LinkedHashMap<>();
+        entries.stream().limit(10).forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
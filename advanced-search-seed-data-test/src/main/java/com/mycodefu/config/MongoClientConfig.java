@@ -0,0 +1,229 @@
+package com.mycodefu.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Connection pool, timeout, read preference and wire compression settings for a MongoClient,
+ * which can be loaded from properties or environment variables.
+ * <p>
+ * Settings which are not set fall back to the connection string, then to the driver defaults.
+ * <pre>
+ * property                        environment variable
+ * mongodb.uri                     MONGODB_URI
+ * mongodb.pool.minSize            MONGODB_POOL_MIN_SIZE
+ * mongodb.pool.maxSize            MONGODB_POOL_MAX_SIZE
+ * mongodb.pool.maxConnecting      MONGODB_POOL_MAX_CONNECTING
+ * mongodb.pool.maxWaitTimeMs      MONGODB_POOL_MAX_WAIT_TIME_MS
+ * mongodb.socket.connectTimeoutMs MONGODB_SOCKET_CONNECT_TIMEOUT_MS
+ * mongodb.socket.readTimeoutMs    MONGODB_SOCKET_READ_TIMEOUT_MS
+ * mongodb.readPreference          MONGODB_READ_PREFERENCE          (e.g. primary, secondaryPreferred, nearest)
+ * mongodb.compressors             MONGODB_COMPRESSORS              (comma separated, in order of preference: zstd, snappy, zlib)
+ * </pre>
+ */
+public record MongoClientConfig(
+        String connectionString,
+        Integer minPoolSize,
+        Integer maxPoolSize,
+        Integer maxConnecting,
+        Long maxWaitTimeMs,
+        Integer connectTimeoutMs,
+        Integer readTimeoutMs,
+        String readPreference,
+        List<String> compressors
+) {
+    public static final String URI = "mongodb.uri";
+    public static final String POOL_MIN_SIZE = "mongodb.pool.minSize";
+    public static final String POOL_MAX_SIZE = "mongodb.pool.maxSize";
+    public static final String POOL_MAX_CONNECTING = "mongodb.pool.maxConnecting";
+    public static final String POOL_MAX_WAIT_TIME_MS = "mongodb.pool.maxWaitTimeMs";
+    public static final String SOCKET_CONNECT_TIMEOUT_MS = "mongodb.socket.connectTimeoutMs";
+    public static final String SOCKET_READ_TIMEOUT_MS = "mongodb.socket.readTimeoutMs";
+    public static final String READ_PREFERENCE = "mongodb.readPreference";
+    public static final String COMPRESSORS = "mongodb.compressors";
+
+    public MongoClientConfig {
+        if (connectionString == null || connectionString.isBlank()) {
+            throw new IllegalArgumentException("A connection string is required (%s / %s)".formatted(URI, environmentVariable(URI)));
+        }
+        compressors = compressors == null ? List.of() : List.copyOf(compressors);
+    }
+
+    public static Builder builder(String connectionString) {
+        return new Builder(connectionString);
+    }
+
+    public static MongoClientConfig fromProperties(Properties properties) {
+        return from(properties::getProperty);
+    }
+
+    /**
+     * Load from environment variables, e.g. fromEnvironment(System.getenv()).
+     */
+    public static MongoClientConfig fromEnvironment(Map<String, String> environment) {
+        return from(property -> environment.get(environmentVariable(property)));
+    }
+
+    /**
+     * The environment variable for a property, e.g. mongodb.pool.maxSize is MONGODB_POOL_MAX_SIZE.
+     */
+    public static String environmentVariable(String property) {
+        return property
+                .replaceAll("([a-z])([A-Z])", "$1_$2")
+                .replace('.', '_')
+                .toUpperCase(Locale.ROOT);
+    }
+
+    private static MongoClientConfig from(Function<String, String> settings) {
+        return new MongoClientConfig(
+                settings.apply(URI),
+                number(settings, POOL_MIN_SIZE, Integer::valueOf),
+                number(settings, POOL_MAX_SIZE, Integer::valueOf),
+                number(settings, POOL_MAX_CONNECTING, Integer::valueOf),
+                number(settings, POOL_MAX_WAIT_TIME_MS, Long::valueOf),
+                number(settings, SOCKET_CONNECT_TIMEOUT_MS, Integer::valueOf),
+                number(settings, SOCKET_READ_TIMEOUT_MS, Integer::valueOf),
+                blankToNull(settings.apply(READ_PREFERENCE)),
+                blankToNull(settings.apply(COMPRESSORS)) == null
+                        ? List.of()
+                        : Arrays.stream(settings.apply(COMPRESSORS).split(",")).map(String::trim).filter(name -> !name.isEmpty()).toList()
+        );
+    }
+
+    public MongoClientSettings toMongoClientSettings() {
+        return toMongoClientSettingsBuilder().build();
+    }
+
+    /**
+     * The settings as a builder, for callers which need to add listeners or other settings.
+     */
+    public MongoClientSettings.Builder toMongoClientSettingsBuilder() {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(connectionString))
+                .applyToConnectionPoolSettings(pool -> {
+                    if (minPoolSize != null) {
+                        pool.minSize(minPoolSize);
+                    }
+                    if (maxPoolSize != null) {
+                        pool.maxSize(maxPoolSize);
+                    }
+                    if (maxConnecting != null) {
+                        pool.maxConnecting(maxConnecting);
+                    }
+                    if (maxWaitTimeMs != null) {
+                        pool.maxWaitTime(maxWaitTimeMs, TimeUnit.MILLISECONDS);
+                    }
+                })
+                .applyToSocketSettings(socket -> {
+                    if (connectTimeoutMs != null) {
+                        socket.connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS);
+                    }
+                    if (readTimeoutMs != null) {
+                        socket.readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS);
+                    }
+                });
+        if (readPreference != null) {
+            builder.readPreference(ReadPreference.valueOf(readPreference));
+        }
+        if (!compressors.isEmpty()) {
+            List<MongoCompressor> mongoCompressors = new ArrayList<>();
+            for (String compressor : compressors) {
+                mongoCompressors.add(switch (compressor.toLowerCase(Locale.ROOT)) {
+                    case "zstd" -> MongoCompressor.createZstdCompressor();
+                    case "snappy" -> MongoCompressor.createSnappyCompressor();
+                    case "zlib" -> MongoCompressor.createZlibCompressor();
+                    default -> throw new IllegalArgumentException("Unknown compressor '%s', expected zstd, snappy or zlib".formatted(compressor));
+                });
+            }
+            builder.compressorList(mongoCompressors);
+        }
+        return builder;
+    }
+
+    private static <T extends Number> T number(Function<String, String> settings, String name, Function<String, T> parser) {
+        String value = blankToNull(settings.apply(name));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("%s must be a whole number but was '%s'".formatted(name, value), e);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    public static class Builder {
+        private final String connectionString;
+        private Integer minPoolSize;
+        private Integer maxPoolSize;
+        private Integer maxConnecting;
+        private Long maxWaitTimeMs;
+        private Integer connectTimeoutMs;
+        private Integer readTimeoutMs;
+        private String readPreference;
+        private List<String> compressors = List.of();
+
+        private Builder(String connectionString) {
+            this.connectionString = connectionString;
+        }
+
+        public Builder minPoolSize(int minPoolSize) {
+            this.minPoolSize = minPoolSize;
+            return this;
+        }
+
+        public Builder maxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        public Builder maxConnecting(int maxConnecting) {
+            this.maxConnecting = maxConnecting;
+            return this;
+        }
+
+        public Builder maxWaitTimeMs(long maxWaitTimeMs) {
+            this.maxWaitTimeMs = maxWaitTimeMs;
+            return this;
+        }
+
+        public Builder connectTimeoutMs(int connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+            return this;
+        }
+
+        public Builder readTimeoutMs(int readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+            return this;
+        }
+
+        public Builder readPreference(String readPreference) {
+            this.readPreference = readPreference;
+            return this;
+        }
+
+        public Builder compressors(String... compressors) {
+            this.compressors = List.of(compressors);
+            return this;
+        }
+
+        public MongoClientConfig build() {
+            return new MongoClientConfig(connectionString, minPoolSize, maxPoolSize, maxConnecting, maxWaitTimeMs, connectTimeoutMs, readTimeoutMs, readPreference, compressors);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.mycodefu.embedding;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * A deterministic embedder using the hashing trick: each word and pair of adjacent words is hashed to a dimension
+ * and a sign, and the counts are normalised to unit length.
+ * <p>
+ * Texts sharing words end up with a high cosine similarity, so it behaves like a (weak) bag of words model without
+ * any model files or network access, and the same text always gets the same vector on every JVM. Good for tests and
+ * benchmarks, not for semantic similarity (synonyms share nothing).
+ */
+public class HashingTextEmbedder implements TextEmbedder {
+    public static final int DEFAULT_DIMENSIONS = 256;
+
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float BIGRAM_WEIGHT = 0.5f;
+
+    private final int dimensions;
+
+    public HashingTextEmbedder() {
+        this(DEFAULT_DIMENSIONS);
+    }
+
+    public HashingTextEmbedder(int dimensions) {
+        if (dimensions < 1) {
+            throw new IllegalArgumentException("dimensions must be at least 1");
+        }
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        String previous = null;
+        for (String token : TOKEN_SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            add(vector, mix(token.hashCode()), 1f);
+            if (previous != null) {
+                add(vector, mix(previous.hashCode() * 31 + token.hashCode()), BIGRAM_WEIGHT);
+            }
+            previous = token;
+        }
+        normalise(vector);
+        return vector;
+    }
+
+    private void add(float[] vector, int hash, float weight) {
+        // the low bits pick the dimension, the top bit the sign, so collisions tend to cancel out rather than add up
+        vector[Math.floorMod(hash, dimensions)] += hash < 0 ? -weight : weight;
+    }
+
+    private static void normalise(float[] vector) {
+        double sumOfSquares = 0;
+        for (float value : vector) {
+            sumOfSquares += value * value;
+        }
+        if (sumOfSquares == 0) {
+            return;
+        }
+        float scale = (float) (1 / Math.sqrt(sumOfSquares));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+    }
+
+    /**
+     * The murmur3 finaliser, spreading String.hashCode (which is the same on every JVM) over all the bits.
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
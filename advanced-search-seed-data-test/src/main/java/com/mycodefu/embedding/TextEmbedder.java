@@ -0,0 +1,13 @@
+package com.mycodefu.embedding;
+
+/**
+ * Turns text into a fixed length vector for vector search, e.g. a local model or HashingTextEmbedder.
+ * <p>
+ * The vectors must have as many dimensions as the vector index (numDimensions in person_vector.json), and the same
+ * embedder must be used for the stored documents and the queries.
+ */
+public interface TextEmbedder {
+    int dimensions();
+
+    float[] embed(String text);
+}
@@ -0,0 +1,226 @@
+package com.mycodefu.metrics;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import com.mycodefu.metrics.LatencyHistogram.HistogramSnapshot;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonReader;
+import org.bson.RawBsonDocument;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms for each data access operation, plus driver level metrics from a CommandListener and
+ * ConnectionPoolListener: server round trip time per command, connection pool checkout wait, and bytes sent and
+ * received.
+ * <p>
+ * Timing an operation only reads the clock and increments counters, without allocating or locking, so metrics can be
+ * left on in production. Read them with snapshot() whenever they're needed, e.g. from a scheduled reporter or a metrics
+ * endpoint.
+ * <p>
+ * The driver's command events don't carry message sizes, so bytes are read from the BSON length of command and reply
+ * documents which are still backed by their encoded bytes. Replies always are, and so are most commands, but write
+ * commands whose documents are sent as OP_MSG document sequences reach the listener already decoded. Those are counted
+ * in unsizedCommands rather than re-encoded. The driver only exposes those bytes through a buffer or reader it creates
+ * on each call, so sizing a command or reply allocates a few short-lived objects; timing operations never does.
+ * Round trips for the commands data access sends are recorded in histograms registered up front, other commands get
+ * theirs the first time they're seen.
+ */
+public class DataAccessMetrics implements CommandListener, ConnectionPoolListener {
+
+    public enum Operation {INSERT, GET, UPDATE, DELETE, SEARCH}
+
+    public record MetricsSnapshot(
+            Map<Operation, HistogramSnapshot> operations,
+            Map<String, HistogramSnapshot> commands,
+            HistogramSnapshot checkoutWait,
+            long commandFailures,
+            long checkoutFailures,
+            long bytesSent,
+            long bytesReceived,
+            long unsizedCommands
+    ) {
+        public void printResults() {
+            System.out.println("Operations:");
+            operations.forEach((operation, histogram) -> System.out.printf("  %-8s %s%n", operation, histogram));
+            System.out.println("Server round trips:");
+            commands.forEach((command, histogram) -> System.out.printf("  %-8s %s%n", command, histogram));
+            System.out.printf("Pool checkout wait: %s%n", checkoutWait);
+            System.out.printf("Command failures: %d, checkout failures: %d%n", commandFailures, checkoutFailures);
+            System.out.printf("Bytes sent: %d, received: %d (%d commands unsized)%n", bytesSent, bytesReceived, unsizedCommands);
+        }
+    }
+
+    // the commands data access sends, whose round trips are recorded without touching the concurrent map
+    private static final List<String> KNOWN_COMMANDS = List.of(
+            "find", "getMore", "aggregate", "killCursors", "insert", "update", "delete", "findAndModify", "count",
+            "listCollections", "create", "drop", "createSearchIndexes", "updateSearchIndex", "dropSearchIndex", "endSessions"
+    );
+    private static final DataAccessMetrics DISABLED = new DataAccessMetrics(false);
+
+    private final boolean enabled;
+    private final LatencyHistogram[] operations = new LatencyHistogram[Operation.values().length];
+    private final Map<String, LatencyHistogram> knownCommands;
+    private final ConcurrentHashMap<String, LatencyHistogram> otherCommands = new ConcurrentHashMap<>();
+    private final LatencyHistogram checkoutWait = new LatencyHistogram();
+    private final LongAdder commandFailures = new LongAdder();
+    private final LongAdder checkoutFailures = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder unsizedCommands = new LongAdder();
+
+    public DataAccessMetrics() {
+        this(true);
+    }
+
+    private DataAccessMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new LatencyHistogram();
+        }
+        Map<String, LatencyHistogram> knownCommands = new HashMap<>();
+        for (String command : KNOWN_COMMANDS) {
+            knownCommands.put(command, new LatencyHistogram());
+        }
+        this.knownCommands = Map.copyOf(knownCommands);
+    }
+
+    /**
+     * Metrics which record nothing, for data access created without metrics.
+     */
+    public static DataAccessMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Add the command and connection pool listeners to a client's settings.
+     */
+    public MongoClientSettings.Builder register(MongoClientSettings.Builder settings) {
+        return settings
+                .addCommandListener(this)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(this));
+    }
+
+    /**
+     * The start time to pass to record() once the operation has finished.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void record(Operation operation, long startNanos) {
+        if (enabled) {
+            operations[operation.ordinal()].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<Operation, HistogramSnapshot> operationSnapshots = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            operationSnapshots.put(operation, operations[operation.ordinal()].snapshot());
+        }
+        Map<String, HistogramSnapshot> commandSnapshots = new TreeMap<>();
+        for (Map<String, LatencyHistogram> commands : List.of(knownCommands, otherCommands)) {
+            commands.forEach((command, histogram) -> {
+                HistogramSnapshot snapshot = histogram.snapshot();
+                // the known commands which haven't been sent are left out
+                if (snapshot.count() > 0) {
+                    commandSnapshots.put(command, snapshot);
+                }
+            });
+        }
+        return new MetricsSnapshot(
+                Collections.unmodifiableMap(operationSnapshots),
+                Collections.unmodifiableMap(commandSnapshots),
+                checkoutWait.snapshot(),
+                commandFailures.sum(),
+                checkoutFailures.sum(),
+                bytesSent.sum(),
+                bytesReceived.sum(),
+                unsizedCommands.sum()
+        );
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long size = encodedSize(event.getCommand());
+        if (size < 0) {
+            unsizedCommands.increment();
+        } else {
+            bytesSent.add(size);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!enabled) {
+            return;
+        }
+        commandHistogram(event.getCommandName()).record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+        long size = encodedSize(event.getResponse());
+        if (size > 0) {
+            bytesReceived.add(size);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        if (enabled) {
+            commandFailures.increment();
+        }
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        if (enabled) {
+            checkoutWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        if (enabled) {
+            checkoutFailures.increment();
+            checkoutWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private LatencyHistogram commandHistogram(String command) {
+        LatencyHistogram histogram = knownCommands.get(command);
+        return histogram != null ? histogram : otherCommands.computeIfAbsent(command, name -> new LatencyHistogram());
+    }
+
+    /**
+     * The length of a document backed by its encoded bytes (from its int32 length prefix), or -1 when the driver has
+     * already decoded it. Allocates the buffer view or reader the document hands out over its bytes.
+     */
+    static long encodedSize(BsonDocument document) {
+        if (document == null || document.getClass() == BsonDocument.class) {
+            return -1;
+        }
+        if (document instanceof RawBsonDocument raw) {
+            return raw.getByteBuffer().remaining();
+        }
+        try (BsonReader reader = document.asBsonReader()) {
+            return reader instanceof BsonBinaryReader binaryReader ? binaryReader.getBsonInput().readInt32() : -1;
+        }
+    }
+}
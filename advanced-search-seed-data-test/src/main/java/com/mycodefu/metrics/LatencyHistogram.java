@@ -0,0 +1,128 @@
+package com.mycodefu.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram in the style of HdrHistogram, with log-linear buckets.
+ * <p>
+ * Each power of two range of nanoseconds is split into 16 linear buckets, so a recorded value lands in a bucket no
+ * more than 1/16th (6.25%) wider than it, from 1ns up to Long.MAX_VALUE, in under 8KB. record() only increments
+ * counters, it doesn't allocate or lock, so histograms can be left on in the hot path.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values below SUB_BUCKETS have a bucket each, then SUB_BUCKETS per power of two from 2^SUB_BUCKET_BITS to 2^62
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    public record HistogramSnapshot(long count, long totalNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos, long p999Nanos) {
+        public static final HistogramSnapshot EMPTY = new HistogramSnapshot(0, 0, 0, 0, 0, 0, 0);
+
+        public double meanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return "count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms".formatted(
+                    count, meanNanos() / 1_000_000, millis(p50Nanos), millis(p90Nanos), millis(p99Nanos), millis(p999Nanos), millis(maxNanos));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long duration, TimeUnit unit) {
+        record(unit.toNanos(duration));
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(value));
+        totalNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Counts and percentiles as of now. Values recorded while the snapshot is taken may or may not be included.
+     */
+    public HistogramSnapshot snapshot() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        if (count == 0) {
+            return HistogramSnapshot.EMPTY;
+        }
+        long max = maxNanos.get();
+        long p50 = -1, p90 = -1, p99 = -1, p999 = -1;
+        long p50Rank = rank(count, 0.5), p90Rank = rank(count, 0.9), p99Rank = rank(count, 0.99), p999Rank = rank(count, 0.999);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS && p999 < 0; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount == 0) {
+                continue;
+            }
+            seen += bucketCount;
+            long value = Math.min(highestValue(i), max);
+            if (p50 < 0 && seen >= p50Rank) {
+                p50 = value;
+            }
+            if (p90 < 0 && seen >= p90Rank) {
+                p90 = value;
+            }
+            if (p99 < 0 && seen >= p99Rank) {
+                p99 = value;
+            }
+            if (seen >= p999Rank) {
+                p999 = value;
+            }
+        }
+        return new HistogramSnapshot(count, totalNanos.sum(), max, p50, p90, p99, p999);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * The largest value which falls in the bucket, reported for percentiles so they never understate latency.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowest = (1L << exponent) | (subBucket << (exponent - SUB_BUCKET_BITS));
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static long rank(long count, double percentile) {
+        return Math.max(1, (long) Math.ceil(count * percentile));
+    }
+}
@@ -0,0 +1,244 @@
+package com.mycodefu.seed;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mycodefu.config.MongoClientConfig;
+import org.bson.RawBsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loads a mongodump .bson.gz file into a collection without needing mongorestore, so it works against any connection
+ * string including remote clusters.
+ * <p>
+ * The dump is streamed and split into raw BSON documents one at a time, which are inserted as they are without being
+ * decoded. Batches are written with unordered insertMany calls on several threads, each using its own pooled
+ * connection. Only the documents are loaded; indexes in the dump's metadata file are left to the caller.
+ */
+public class SeedLoader implements AutoCloseable {
+    static Logger log = LoggerFactory.getLogger(SeedLoader.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    // well under the 48MB message limit, so the driver sends each batch as a single insert command
+    private static final int MAX_BATCH_BYTES = 8 * 1024 * 1024;
+    private static final int MAX_DOCUMENT_BYTES = 16 * 1024 * 1024;
+    private static final int READ_BUFFER_BYTES = 256 * 1024;
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    public record SeedLoadResult(long documents, long bytes, int batches, int threads, long elapsedMillis) {
+        public double documentsPerSecond() {
+            return documents * 1000.0 / Math.max(1, elapsedMillis);
+        }
+
+        public double megabytesPerSecond() {
+            return bytes / (1024.0 * 1024.0) * 1000.0 / Math.max(1, elapsedMillis);
+        }
+
+        public void printResults() {
+            System.out.printf("Loaded %d documents (%.1fMB) in %d batches on %d threads in %dms: %.0f docs/s, %.1fMB/s%n",
+                    documents, bytes / (1024.0 * 1024.0), batches, threads, elapsedMillis, documentsPerSecond(), megabytesPerSecond());
+        }
+    }
+
+    private final MongoClient mongoClient;
+    private final boolean ownsMongoClient;
+    private final int threads;
+    private final int batchSize;
+
+    /**
+     * Creates a client with a connection for every loader thread.
+     */
+    public SeedLoader(String connectionString, int threads) {
+        this(MongoClients.create(MongoClientConfig.builder(connectionString)
+                        .maxPoolSize(threads)
+                        .maxConnecting(threads)
+                        .build()
+                        .toMongoClientSettings()),
+                true, threads, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Uses a shared client, which should allow at least as many connections as there are threads.
+     */
+    public SeedLoader(MongoClient mongoClient, int threads, int batchSize) {
+        this(mongoClient, false, threads, batchSize);
+    }
+
+    private SeedLoader(MongoClient mongoClient, boolean ownsMongoClient, int threads, int batchSize) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        this.mongoClient = mongoClient;
+        this.ownsMongoClient = ownsMongoClient;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    public static int defaultThreads() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    public SeedLoadResult load(Path bsonGz, String databaseName, String collectionName) throws IOException {
+        try (InputStream in = new GZIPInputStream(Channels.newInputStream(FileChannel.open(bsonGz, StandardOpenOption.READ)), READ_BUFFER_BYTES)) {
+            return load(in, databaseName, collectionName);
+        }
+    }
+
+    /**
+     * Load from an uncompressed BSON stream, for example a gzip stream over a classpath resource.
+     */
+    public SeedLoadResult load(InputStream bson, String databaseName, String collectionName) throws IOException {
+        MongoCollection<RawBsonDocument> collection = mongoClient.getDatabase(databaseName).getCollection(collectionName, RawBsonDocument.class);
+        InsertManyOptions unordered = new InsertManyOptions().ordered(false);
+
+        LongAdder documents = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        AtomicInteger batches = new AtomicInteger();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        // the reader stays at most one batch per thread ahead of the writers
+        Semaphore inFlight = new Semaphore(threads * 2);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService writers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "seed-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        long lastProgress = start;
+        try {
+            InputStream in = new BufferedInputStream(bson, READ_BUFFER_BYTES);
+            List<RawBsonDocument> batch = new ArrayList<>(batchSize);
+            int batchBytes = 0;
+            RawBsonDocument document;
+            while (failure.get() == null && (document = readDocument(in)) != null) {
+                int documentBytes = document.getByteBuffer().remaining();
+                if (!batch.isEmpty() && (batch.size() >= batchSize || batchBytes + documentBytes > MAX_BATCH_BYTES)) {
+                    submit(writers, inFlight, collection, unordered, batch, batchBytes, documents, bytes, batches, failure);
+                    batch = new ArrayList<>(batchSize);
+                    batchBytes = 0;
+                }
+                batch.add(document);
+                batchBytes += documentBytes;
+
+                long now = System.nanoTime();
+                if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgress = now;
+                    logProgress(collectionName, documents.sum(), bytes.sum(), now - start);
+                }
+            }
+            if (!batch.isEmpty() && failure.get() == null) {
+                submit(writers, inFlight, collection, unordered, batch, batchBytes, documents, bytes, batches, failure);
+            }
+        } finally {
+            writers.shutdown();
+            awaitTermination(writers);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        SeedLoadResult result = new SeedLoadResult(documents.sum(), bytes.sum(), batches.get(), threads, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("Loaded {}.{}: {} documents in {}ms ({} docs/s)", databaseName, collectionName, result.documents(), result.elapsedMillis(), Math.round(result.documentsPerSecond()));
+        return result;
+    }
+
+    @Override
+    public void close() {
+        if (ownsMongoClient) {
+            mongoClient.close();
+        }
+    }
+
+    private static void submit(ExecutorService writers, Semaphore inFlight, MongoCollection<RawBsonDocument> collection, InsertManyOptions options,
+                               List<RawBsonDocument> batch, int batchBytes, LongAdder documents, LongAdder bytes, AtomicInteger batches,
+                               AtomicReference<RuntimeException> failure) {
+        inFlight.acquireUninterruptibly();
+        batches.incrementAndGet();
+        writers.execute(() -> {
+            try {
+                collection.insertMany(batch, options);
+                documents.add(batch.size());
+                bytes.add(batchBytes);
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Read the next document of a dump, using the little endian int32 length which starts every BSON document.
+     *
+     * @return the document, or null at the end of the stream.
+     */
+    public static RawBsonDocument readDocument(InputStream in) throws IOException {
+        int b0 = in.read();
+        if (b0 < 0) {
+            return null;
+        }
+        int length = b0 | readByte(in) << 8 | readByte(in) << 16 | readByte(in) << 24;
+        if (length < 5 || length > MAX_DOCUMENT_BYTES) {
+            throw new IOException("Invalid BSON document length %d".formatted(length));
+        }
+        byte[] document = new byte[length];
+        document[0] = (byte) length;
+        document[1] = (byte) (length >> 8);
+        document[2] = (byte) (length >> 16);
+        document[3] = (byte) (length >> 24);
+        if (in.readNBytes(document, 4, length - 4) != length - 4) {
+            throw new EOFException("BSON dump ended part way through a document");
+        }
+        return new RawBsonDocument(document);
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("BSON dump ended part way through a document length");
+        }
+        return b;
+    }
+
+    private static void logProgress(String collectionName, long documents, long bytes, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        log.info("Loading {}: {} documents, {} docs/s, {} MB/s", collectionName, documents, Math.round(documents / seconds), "%.1f".formatted(bytes / (1024.0 * 1024.0) / seconds));
+    }
+
+    private static void awaitTermination(ExecutorService writers) {
+        try {
+            if (!writers.awaitTermination(10, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Timed out waiting for seed batches to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for seed batches to be written", e);
+        }
+    }
+}
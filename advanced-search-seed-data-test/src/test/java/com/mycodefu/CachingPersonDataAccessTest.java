@@ -0,0 +1,214 @@
+package com.mycodefu;
+
+import com.mongodb.client.MongoClient;
+import com.mycodefu.CachingPersonDataAccess.SearchKey;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.cache.CacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingPersonDataAccessTest {
+
+    private final FakeSearchDataAccess personDataAccess = new FakeSearchDataAccess();
+
+    @Test
+    void shouldReadAPersonOnceThenFromTheCache() {
+        try (CachingPersonDataAccess caching = new CachingPersonDataAccess(personDataAccess, 100, Duration.ofMinutes(1))) {
+            // Given
+            String id = caching.insertPerson(Person.of("Peter Gibbons", 30, "programmer", "Peter works at Initech."));
+
+            // When
+            Person first = caching.getPerson(id);
+            Person second = caching.getPerson(id);
+
+            // Then
+            assertSame(first, second);
+            assertEquals(1, personDataAccess.reads.get());
+            assertEquals(1, caching.stats().hits());
+        }
+    }
+
+    @Test
+    void shouldReadTheNewStateAfterAnUpdate() {
+        try (CachingPersonDataAccess caching = new CachingPersonDataAccess(personDataAccess, 100, Duration.ofMinutes(1))) {
+            // Given
+            String id = caching.insertPerson(Person.of("Bill Lumbergh", 40, "Manager", "Bill is a manager of tech teams."));
+            caching.getPerson(id);
+
+            // When
+            caching.updatePerson(new Person(id, "Bill Lumbergh", 41, "Vice President", "Bill is a vice president of tech teams."));
+            Person updated = caching.getPerson(id);
+
+            // Then
+            assertEquals("Vice President", updated.job());
+            assertEquals(2, personDataAccess.reads.get());
+        }
+    }
+
+    @Test
+    void shouldReadNullAfterADelete() {
+        try (CachingPersonDataAccess caching = new CachingPersonDataAccess(personDataAccess, 100, Duration.ofMinutes(1))) {
+            // Given
+            String id = caching.insertPerson(Person.of("Milton Waddams", 50, "collator", "Milton would like his stapler back."));
+            assertNotNull(caching.getPerson(id));
+
+            // When
+            caching.deletePerson(id);
+
+            // Then
+            assertNull(caching.getPerson(id));
+            assertEquals(2, personDataAccess.reads.get());
+        }
+    }
+
+    @Test
+    void shouldShareResultsBetweenQueriesTheAnalyzerSeesAsTheSame() {
+        try (CachingPersonDataAccess caching = new CachingPersonDataAccess(personDataAccess, 100, Duration.ofMinutes(1))) {
+            // When
+            List<Person> first = caching.findPersonByBio("Dedicated  Engineer", true);
+            List<Person> second = caching.findPersonByBio(" dedicated\tengineer ", true);
+            caching.findPersonByBio("dedicated engineer", false);
+
+            // Then
+            assertSame(first, second);
+            assertEquals(List.of("Dedicated  Engineer", "dedicated engineer"), personDataAccess.searches);
+            CacheStats stats = caching.searchStats();
+            assertEquals(1, stats.hits());
+            assertEquals(0.333, stats.hitRatio(), 0.001);
+            assertTrue(stats.savedMillis() > 0);
+        }
+    }
+
+    @Test
+    void shouldClearSearchResultsOnWrites() {
+        try (CachingPersonDataAccess caching = new CachingPersonDataAccess(personDataAccess, 100, Duration.ofMinutes(1))) {
+            // When
+            caching.findPersonByBio("dedicated", false);
+            caching.insertPerson(Person.of("Raymon Wehner", 30, "tailor", "A dedicated tailor."));
+            caching.findPersonByBio("dedicated", false);
+            caching.updatePerson(new Person("1", "Raymon Wehner", 31, "tailor", "A dedicated tailor."));
+            caching.findPersonByBio("dedicated", false);
+            caching.deletePerson("1");
+            caching.findPersonByBio("dedicated", false);
+
+            // Then
+            assertEquals(4, personDataAccess.searches.size());
+            assertEquals(0, caching.searchStats().hits());
+        }
+    }
+
+    @Test
+    void shouldEvictSearchResultsByEstimatedSize() {
+        // Given room for about two result lists
+        long resultBytes = CachingPersonDataAccess.estimatedBytes(new SearchKey("a", false, 50), personDataAccess.findPersonByBio("a", false, 50));
+        personDataAccess.searches.clear();
+        try (CachingPersonDataAccess caching = new CachingPersonDataAccess(personDataAccess, 100, Duration.ofMinutes(1), resultBytes * 2 + resultBytes / 2, Duration.ofMinutes(1))) {
+            // When
+            caching.findPersonByBio("a", false);
+            caching.findPersonByBio("b", false);
+            caching.findPersonByBio("c", false);
+            caching.findPersonByBio("a", false);
+
+            // Then
+            assertEquals(List.of("a", "b", "c", "a"), personDataAccess.searches);
+            assertEquals(2, caching.searchStats().evictions());
+            assertTrue(caching.searchResultBytes() <= resultBytes * 2 + resultBytes / 2);
+        }
+    }
+
+    @Test
+    void shouldSearchWithTheCallersQueryAndKeepPunctuationInTheKey() {
+        try (CachingPersonDataAccess caching = new CachingPersonDataAccess(personDataAccess, 100, Duration.ofMinutes(1))) {
+            // Given
+            String query = "Don't stop!";
+            List<Person> uncached = personDataAccess.findPersonByBio(query, false, PersonDataAccess.DEFAULT_SEARCH_LIMIT);
+
+            // When
+            List<Person> cached = caching.findPersonByBio(query, false);
+            List<Person> withoutApostrophe = caching.findPersonByBio("don t stop", false);
+
+            // Then
+            assertEquals(uncached, cached);
+            assertNotEquals(cached, withoutApostrophe);
+            assertEquals(List.of(query, query, "don t stop"), personDataAccess.searches);
+            assertEquals(0, caching.searchStats().hits());
+        }
+    }
+
+    @Test
+    void shouldNormaliseCaseAndWhitespaceInSearchKeys() {
+        assertEquals(new SearchKey("years, dédié; a1", true, 10), CachingPersonDataAccess.searchKey("  YEARS,  dédié;\nA1 ", true, 10));
+    }
+
+    /**
+     * Keeps people in a map and answers bio searches with made up people. It never reaches a server: the client it is
+     * built with only hands out a collection, and fails any call which would need one.
+     */
+    private static class FakeSearchDataAccess extends PersonDataAccess {
+        private final List<String> searches = new CopyOnWriteArrayList<>();
+        private final Map<String, Person> people = new ConcurrentHashMap<>();
+        private final AtomicInteger reads = new AtomicInteger();
+        private final AtomicInteger nextId = new AtomicInteger();
+
+        FakeSearchDataAccess() {
+            super(stub(MongoClient.class));
+        }
+
+        @Override
+        public List<Person> findPersonByBio(String query, boolean fuzzy, int limit) {
+            searches.add(query);
+            List<Person> people = new ArrayList<>();
+            for (int i = 0; i < limit; i++) {
+                people.add(new Person(Integer.toString(i), "Person " + i, 30, "tailor", "A bio mentioning " + query + "."));
+            }
+            return people;
+        }
+
+        @Override
+        public String insertPerson(Person person) {
+            String id = Integer.toString(nextId.incrementAndGet());
+            people.put(id, new Person(id, person.name(), person.age(), person.job(), person.bio()));
+            return id;
+        }
+
+        @Override
+        public Person getPerson(String id) {
+            reads.incrementAndGet();
+            return people.get(id);
+        }
+
+        @Override
+        public void updatePerson(Person person) {
+            people.replace(person.id(), person);
+        }
+
+        @Override
+        public void deletePerson(String id) {
+            people.remove(id);
+        }
+
+        /**
+         * A driver interface whose methods return further stubs for driver interfaces (client to database to
+         * collection), and throw for anything else.
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T stub(Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getReturnType().isInterface() && method.getReturnType().getPackageName().equals("com.mongodb.client")) {
+                    return stub(method.getReturnType());
+                }
+                throw new UnsupportedOperationException("%s.%s needs a server".formatted(type.getSimpleName(), method.getName()));
+            });
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonAutocomplete.AutocompleteStats;
+import com.mycodefu.PersonDataAccess.NameSuggestion;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonAutocompleteTest {
+
+    @AutoClose
+    private final FakeSuggestionDataAccess personDataAccess = new FakeSuggestionDataAccess(List.of(
+            "Richard Ortiz", "Rich Wehner", "Ricky Grady", "Mrs. Richelle Ríos", "Ric Milton", "Erich Richards", "Milton Rice"
+    ));
+
+    @Test
+    void shouldWorkOutLongerPrefixesFromCompleteSuggestions() {
+        try (PersonAutocomplete autocomplete = new PersonAutocomplete(personDataAccess, 10, Duration.ZERO)) {
+            // When
+            List<NameSuggestion> ric = autocomplete.suggest("ric");
+            List<NameSuggestion> richa = autocomplete.suggest("Richa");
+
+            // Then
+            assertEquals(7, ric.size());
+            assertEquals(List.of("Richard Ortiz", "Erich Richards"), richa.stream().map(NameSuggestion::name).toList());
+            assertEquals(List.of("ric"), personDataAccess.queries);
+            assertEquals(1, autocomplete.stats().prefixReuses());
+        }
+    }
+
+    @Test
+    void shouldQueryAgainWhenSuggestionsWereCutOffAtTheLimit() {
+        try (PersonAutocomplete autocomplete = new PersonAutocomplete(personDataAccess, 3, Duration.ZERO)) {
+            // When
+            autocomplete.suggest("ric");
+            autocomplete.suggest("rich");
+            autocomplete.suggest("rich ");
+
+            // Then
+            assertEquals(List.of("ric", "rich"), personDataAccess.queries);
+            assertEquals(1, autocomplete.stats().cacheHits());
+        }
+    }
+
+    @Test
+    void shouldQueryForPrefixesLongerThanTheIndexedGrams() {
+        try (FakeSuggestionDataAccess longNames = new FakeSuggestionDataAccess(List.of("Hubert Wolfeschlegelsteinhausenbergerdorff", "Milton Wolfe"));
+             PersonAutocomplete autocomplete = new PersonAutocomplete(longNames, 10, Duration.ZERO)) {
+            // When
+            autocomplete.suggest("wolfe");
+            List<NameSuggestion> twentyCharacters = autocomplete.suggest("wolfeschlegelsteinha");
+            autocomplete.suggest("wolfeschlegelsteinhau");
+
+            // Then the 20 character prefix is worked out from "wolfe", the 21 character one goes to the server
+            assertEquals(List.of("Hubert Wolfeschlegelsteinhausenbergerdorff"), twentyCharacters.stream().map(NameSuggestion::name).toList());
+            assertEquals(List.of("wolfe", "wolfeschlegelsteinhau"), longNames.queries);
+            assertEquals(1, autocomplete.stats().prefixReuses());
+        }
+    }
+
+    @Test
+    void shouldFoldCaseAccentsAndSpaces() {
+        assertEquals("richelle rios", PersonAutocomplete.normalize("  RICHÉLLE   Ríos "));
+    }
+
+    @Test
+    void shouldOnlyQueryForTheLastKeystrokeOnceTypingPauses() throws Exception {
+        try (PersonAutocomplete autocomplete = new PersonAutocomplete(personDataAccess, 10, Duration.ofMillis(200))) {
+            // When typed faster than the debounce delay
+            CompletableFuture<List<NameSuggestion>> mi = autocomplete.suggestAsync("mi");
+            CompletableFuture<List<NameSuggestion>> mil = autocomplete.suggestAsync("mil");
+            CompletableFuture<List<NameSuggestion>> milt = autocomplete.suggestAsync("milt");
+
+            // Then
+            assertEquals(2, milt.get(5, TimeUnit.SECONDS).size());
+            assertTrue(mi.isCancelled());
+            assertTrue(mil.isCancelled());
+            assertEquals(List.of("milt"), personDataAccess.queries);
+            AutocompleteStats stats = autocomplete.stats();
+            assertEquals(2, stats.debounced());
+            assertEquals(1, stats.serverQueries());
+        }
+    }
+
+    @Test
+    void shouldNotQueryForSingleCharacters() {
+        try (PersonAutocomplete autocomplete = new PersonAutocomplete(personDataAccess, 10, Duration.ZERO)) {
+            assertEquals(List.of(), autocomplete.suggest("r"));
+            assertEquals(List.of(), autocomplete.suggestAsync(" m ").join());
+            assertTrue(personDataAccess.queries.isEmpty());
+        }
+    }
+
+    /**
+     * Answers suggestPersonNames from a list of names, without a server (the client never connects).
+     */
+    private static class FakeSuggestionDataAccess extends PersonDataAccess {
+        private final List<String> names;
+        private final List<String> queries = new CopyOnWriteArrayList<>();
+
+        FakeSuggestionDataAccess(List<String> names) {
+            super("mongodb://localhost:27017");
+            this.names = names;
+        }
+
+        @Override
+        public List<NameSuggestion> suggestPersonNames(String prefix, int limit) {
+            queries.add(prefix);
+            return names.stream()
+                    .filter(name -> List.of(PersonAutocomplete.normalize(name).split("[^a-z]+")).stream().anyMatch(word -> word.startsWith(prefix)))
+                    .limit(limit)
+                    .map(name -> new NameSuggestion(Integer.toHexString(name.hashCode()), name))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.mycodefu;
+
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mycodefu.PersonDataAccess.Person;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonBatchWriterFailureTest {
+
+    private final AtomicBoolean failing = new AtomicBoolean(true);
+    private final AtomicInteger bulkWrites = new AtomicInteger();
+
+    @Test
+    void shouldHoldWritesAfterAnAutomaticFlushFailsUntilFlushIsCalled() {
+        try (PersonBatchWriter writer = new PersonBatchWriter(collection(), 2, Duration.ZERO, false)) {
+            // Given an automatic flush which fails outright
+            String firstId = writer.insertPerson(Person.of("Peter Gibbons", 30, "programmer", "Peter works at Initech."));
+            String secondId = writer.insertPerson(Person.of("Michael Bolton", 34, "programmer", "Michael works at Initech."));
+
+            // When
+            IllegalStateException held = assertThrows(IllegalStateException.class,
+                    () -> writer.insertPerson(Person.of("Samir", 32, "programmer", "Samir works at Initech.")));
+            assertThrows(MongoSocketReadException.class, writer::flush);
+            failing.set(false);
+            List<String> flushedIds = writer.flush();
+            String laterId = writer.insertPerson(Person.of("Samir", 32, "programmer", "Samir works at Initech."));
+
+            // Then
+            assertInstanceOf(MongoSocketReadException.class, held.getCause());
+            assertEquals(3, bulkWrites.get());
+            assertEquals(List.of(firstId, secondId), flushedIds);
+            assertEquals(1, writer.pendingCount());
+            assertNotNull(laterId);
+        }
+    }
+
+    /**
+     * A collection whose bulkWrite fails with a network error while failing is set, and only counts writes otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private MongoCollection<Person> collection() {
+        return (MongoCollection<Person>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{MongoCollection.class}, (proxy, method, args) -> {
+            if (!method.getName().equals("bulkWrite")) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            bulkWrites.incrementAndGet();
+            if (failing.get()) {
+                throw new MongoSocketReadException("Connection reset", new ServerAddress());
+            }
+            return BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of());
+        });
+    }
+}
@@ -0,0 +1,202 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AtlasLocal
+class PersonBatchWriterTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+
+    @BeforeAll
+    static void beforeAll(AtlasLocalDatabase database) {
+        System.out.println("Initializing data access with MongoDB connection string: " + database.connectionString() + ", database: " + database.databaseName());
+        personDataAccess = new PersonDataAccess(database.connectionString(), database.databaseName());
+    }
+
+    @Test
+    void shouldReturnInsertedIdsInInputOrder() {
+        // Given
+        List<String> names = List.of("Peter Gibbons", "Michael Bolton", "Samir Nagheenanajar");
+
+        // When
+        List<String> ids = new ArrayList<>();
+        List<String> flushedIds;
+        try (PersonBatchWriter writer = personDataAccess.bulk(100, Duration.ZERO, true)) {
+            for (String name : names) {
+                ids.add(writer.insertPerson(Person.of(name, 30, "programmer", "%s works at Initech.".formatted(name))));
+            }
+            assertEquals(3, writer.pendingCount());
+            flushedIds = writer.flush();
+        }
+
+        // Then
+        assertEquals(ids, flushedIds);
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals(names.get(i), personDataAccess.getPerson(ids.get(i)).name());
+        }
+    }
+
+    @Test
+    void shouldFlushWhenBatchIsFull() {
+        // Given
+        try (PersonBatchWriter writer = personDataAccess.bulk(2, Duration.ZERO, false)) {
+
+            // When
+            String firstId = writer.insertPerson(Person.of("Milton Waddams", 50, "collator", "Milton would like his stapler back."));
+            assertNull(personDataAccess.getPerson(firstId));
+            String secondId = writer.insertPerson(Person.of("Tom Smykowski", 55, "liaison", "Tom takes the specifications from the customers to the engineers."));
+
+            // Then
+            assertEquals(0, writer.pendingCount());
+            assertNotNull(personDataAccess.getPerson(firstId));
+            assertNotNull(personDataAccess.getPerson(secondId));
+        }
+    }
+
+    @Test
+    void shouldFlushAfterMaxDelay() {
+        // Given
+        try (PersonBatchWriter writer = personDataAccess.bulk(1000, Duration.ofMillis(50), false)) {
+
+            // When
+            String id = writer.insertPerson(Person.of("Joanna", 28, "waitress", "Joanna wears the minimum fifteen pieces of flair."));
+
+            // Then
+            Awaitility.await()
+                    .atMost(5, TimeUnit.SECONDS)
+                    .until(() -> personDataAccess.getPerson(id) != null);
+            assertEquals(0, writer.pendingCount());
+        }
+    }
+
+    @Test
+    void shouldApplyUpdatesAndDeletesInOrder() {
+        // Given
+        String id = personDataAccess.insertPerson(Person.of("Bill Lumbergh", 40, "Manager", "Bill is a manager of tech teams."));
+        String deletedId = personDataAccess.insertPerson(Person.of("Bob Slydell", 45, "consultant", "Bob asks what you would say you do here."));
+
+        // When
+        try (PersonBatchWriter writer = personDataAccess.bulk(100, Duration.ZERO, true)) {
+            writer.updatePerson(new Person(id, "Bill Lumbergh", 41, "Vice President", "Bill is a vice president of tech teams."));
+            writer.deletePerson(deletedId);
+        }
+
+        // Then
+        assertEquals("Vice President", personDataAccess.getPerson(id).job());
+        assertNull(personDataAccess.getPerson(deletedId));
+    }
+
+    @Test
+    void shouldWriteTheRestOfAnUnorderedBatchWhenAnInsertIsRejected() {
+        // Given
+        String existingId = personDataAccess.insertPerson(Person.of("Lawrence", 35, "construction worker", "Lawrence lives next door to Peter."));
+
+        // When
+        try (PersonBatchWriter writer = personDataAccess.bulk(100, Duration.ZERO, false)) {
+            String firstId = writer.insertPerson(Person.of("Drew", 33, "programmer", "Drew talks about the weekend."));
+            writer.insertPerson(new Person(existingId, "Lawrence", 36, "construction worker", "A second Lawrence with the same id."));
+            String lastId = writer.insertPerson(Person.of("Nina", 30, "receptionist", "Nina answers the phones at Initech."));
+            PersonBatchWriter.BatchWriteException failure = assertThrows(PersonBatchWriter.BatchWriteException.class, writer::flush);
+
+            // Then
+            assertEquals(List.of(firstId, lastId), failure.writtenIds());
+            assertEquals(List.of(existingId), failure.rejectedIds());
+            assertEquals(0, writer.pendingCount());
+            assertNotNull(personDataAccess.getPerson(firstId));
+            assertNotNull(personDataAccess.getPerson(lastId));
+            assertEquals(35, personDataAccess.getPerson(existingId).age());
+        }
+    }
+
+    @Test
+    void shouldKeepWritesAfterARejectedInsertPendingWhenOrdered() {
+        // Given
+        String existingId = personDataAccess.insertPerson(Person.of("Anne", 45, "secretary", "Anne works on the same floor as Peter."));
+
+        // When
+        try (PersonBatchWriter writer = personDataAccess.bulk(100, Duration.ZERO, true)) {
+            String firstId = writer.insertPerson(Person.of("Dom Portwood", 50, "executive", "Dom runs the Initech meetings."));
+            writer.insertPerson(new Person(existingId, "Anne", 46, "secretary", "A second Anne with the same id."));
+            String lastId = writer.insertPerson(Person.of("Brian", 25, "waiter", "Brian wears thirty seven pieces of flair."));
+            PersonBatchWriter.BatchWriteException failure = assertThrows(PersonBatchWriter.BatchWriteException.class, writer::flush);
+
+            // Then
+            assertEquals(List.of(firstId), failure.writtenIds());
+            assertEquals(List.of(existingId), failure.rejectedIds());
+            assertEquals(1, writer.pendingCount());
+            assertNull(personDataAccess.getPerson(lastId));
+
+            assertEquals(List.of(lastId), writer.flush());
+            assertNotNull(personDataAccess.getPerson(lastId));
+        }
+    }
+
+    @Test
+    void shouldReportAnAutomaticFlushFromTheNextFlush() {
+        // Given
+        String existingId = personDataAccess.insertPerson(Person.of("Michael Bolton", 34, "programmer", "Michael doesn't see why he should change his name."));
+
+        // When the batch fills up with an insert MongoDB will reject
+        try (PersonBatchWriter writer = personDataAccess.bulk(2, Duration.ZERO, false)) {
+            String writtenId = writer.insertPerson(Person.of("Bob Porter", 46, "consultant", "Bob is the other Bob."));
+            String rejectedId = writer.insertPerson(new Person(existingId, "Michael Bolton", 35, "programmer", "A second Michael with the same id."));
+            String laterId = writer.insertPerson(Person.of("Stan", 50, "manager", "Stan counts pieces of flair."));
+            PersonBatchWriter.BatchWriteException failure = assertThrows(PersonBatchWriter.BatchWriteException.class, writer::flush);
+
+            // Then
+            assertEquals(existingId, rejectedId);
+            assertEquals(List.of(writtenId, laterId), failure.writtenIds());
+            assertEquals(List.of(existingId), failure.rejectedIds());
+            assertEquals(List.of(), writer.flush());
+            assertNotNull(personDataAccess.getPerson(laterId));
+        }
+    }
+
+    @Test
+    void compareThroughputWithPerCallInserts() {
+        // Given
+        int count = 2_000;
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            people.add(Person.of("Person " + i, 20 + i % 50, "tester", "Person %d is used to compare insert throughput.".formatted(i)));
+        }
+
+        // When
+        long startPerCall = System.nanoTime();
+        for (Person person : people) {
+            personDataAccess.insertPerson(person);
+        }
+        long perCallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startPerCall);
+
+        long startBatched = System.nanoTime();
+        List<String> batchedIds = new ArrayList<>();
+        try (PersonBatchWriter writer = personDataAccess.bulk(500, Duration.ZERO, false)) {
+            for (Person person : people) {
+                batchedIds.add(writer.insertPerson(person));
+            }
+        }
+        long batchedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startBatched);
+
+        // Then
+        System.out.printf("Inserted %d people: per-call %dms (%.0f/s), batched %dms (%.0f/s)%n",
+                count,
+                perCallMillis, count * 1000.0 / Math.max(1, perCallMillis),
+                batchedMillis, count * 1000.0 / Math.max(1, batchedMillis));
+        assertEquals(count, batchedIds.size());
+        assertNotNull(personDataAccess.getPerson(batchedIds.getLast()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.BioBatchResults;
+import com.mycodefu.PersonDataAccess.Person;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonBioBatchSearchTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+
+    @BeforeAll
+    static void beforeAll() {
+        personDataAccess = new PersonDataAccess(SeededPersonSearch.connectionString());
+    }
+
+    @Test
+    void shouldFindPersonByBioBatchInUnionedAggregates() {
+        // Given
+        List<String> queries = List.of("dedicated", "yesr", "engineer", "dedicated", "xyzzyplugh");
+
+        // When three queries share each aggregate
+        BioBatchResults results = personDataAccess.findPersonByBioBatch(queries, true, 20, 2, 3);
+
+        // Then each distinct query gets the same hits as searching for it alone
+        assertTrue(results.complete());
+        assertEquals(List.of("dedicated", "yesr", "engineer", "xyzzyplugh"), List.copyOf(results.hits().keySet()));
+        for (String query : results.hits().keySet()) {
+            assertEquals(
+                    personDataAccess.findPersonByBio(query, true, 20).stream().map(Person::id).toList(),
+                    results.hits().get(query).stream().map(Person::id).toList(),
+                    query
+            );
+        }
+        assertTrue(results.hits().get("xyzzyplugh").isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.BioBatchResults;
+import com.mycodefu.PersonDataAccess.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonBioBatchTest {
+
+    private final FakeSearchDataAccess personDataAccess = new FakeSearchDataAccess();
+
+    @Test
+    void shouldReturnHitsForEachDistinctQueryInOrder() {
+        // When
+        BioBatchResults results = personDataAccess.findPersonByBioBatch(List.of("tailor", "chef", "tailor", "pilot"), false);
+
+        // Then
+        assertTrue(results.complete());
+        assertEquals(List.of("tailor", "chef", "pilot"), List.copyOf(results.hits().keySet()));
+        assertEquals("A tailor", results.hits().get("tailor").getFirst().bio());
+        assertEquals(3, personDataAccess.searches.size());
+    }
+
+    @Test
+    void shouldReportFailuresPerQuery() {
+        // When
+        BioBatchResults results = personDataAccess.findPersonByBioBatch(List.of("tailor", "fail", "chef"), true);
+
+        // Then
+        assertFalse(results.complete());
+        assertEquals(List.of("tailor", "chef"), List.copyOf(results.hits().keySet()));
+        assertEquals("Search for fail failed", results.failures().get("fail").getMessage());
+    }
+
+    @Test
+    void shouldRunAtMostMaxConcurrencyQueriesAtOnce() {
+        // Given
+        List<String> queries = IntStream.range(0, 40).mapToObj("query %d"::formatted).toList();
+
+        // When
+        BioBatchResults results = personDataAccess.findPersonByBioBatch(queries, false, 10, 3, 1);
+
+        // Then
+        assertEquals(40, results.hits().size());
+        assertTrue(personDataAccess.maxInFlight.get() <= 3, "max in flight " + personDataAccess.maxInFlight.get());
+        assertTrue(personDataAccess.maxInFlight.get() > 1, "queries should run in parallel");
+    }
+
+    @Test
+    void shouldRejectInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> personDataAccess.findPersonByBioBatch(List.of("a"), false, 10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> personDataAccess.findPersonByBioBatch(List.of("a"), false, 10, 1, 0));
+    }
+
+    /**
+     * Answers single query searches without a server (the client never connects), slowly enough to overlap.
+     */
+    private static class FakeSearchDataAccess extends PersonDataAccess {
+        final List<String> searches = new CopyOnWriteArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        FakeSearchDataAccess() {
+            super("mongodb://localhost:27017");
+        }
+
+        @Override
+        public List<Person> findPersonByBio(PersonSearchQuery preparedQuery, String query) {
+            searches.add(query);
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+                if (query.equals("fail")) {
+                    throw new IllegalStateException("Search for fail failed");
+                }
+                return List.of(new Person("1", "Searched Person", 30, query, "A " + query));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.mycodefu;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mycodefu.PersonChangeFeed.ChangeFeedStats;
+import com.mycodefu.PersonChangeFeed.CheckpointStore;
+import com.mycodefu.PersonChangeFeed.StartMode;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AtlasLocal
+class PersonChangeFeedTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void beforeAll(AtlasLocalDatabase database) {
+        personDataAccess = new PersonDataAccess(database.connectionString(), database.databaseName());
+    }
+
+    @Test
+    void shouldLoadTheCollectionAndFollowChanges() {
+        // Given
+        String existingId = personDataAccess.insertPerson(Person.of("Ada Existing", 36, "Mathematician", "Ada was here first."));
+
+        try (PersonChangeFeed feed = new PersonChangeFeed(personDataAccess, CheckpointStore.inMemory(), 10_000)) {
+            // When
+            StartMode mode = feed.start();
+            String insertedId = personDataAccess.insertPerson(Person.of("Grace Inserted", 45, "Admiral", "Grace arrived later."));
+            personDataAccess.updatePerson(new Person(existingId, "Ada Updated", 37, "Mathematician", "Ada was here first."));
+
+            // Then
+            assertEquals(StartMode.RELOADED, mode);
+            awaitReplica(() -> feed.getPerson(insertedId) != null && "Ada Updated".equals(feed.getPerson(existingId).name()));
+            assertEquals(45, feed.getPerson(insertedId).age());
+
+            personDataAccess.deletePerson(insertedId);
+            awaitReplica(() -> feed.getPerson(insertedId) == null);
+            ChangeFeedStats stats = feed.stats();
+            stats.printResults();
+            assertEquals(0, stats.fallbacks());
+            assertTrue(stats.changesApplied() >= 3);
+        }
+    }
+
+    @Test
+    void shouldResumeFromACheckpointAfterARestart() {
+        // Given a replica checkpointed to a file when it stops
+        CheckpointStore store = CheckpointStore.file(directory.resolve("person.checkpoint.bson.gz"));
+        String id = personDataAccess.insertPerson(Person.of("Alan Before", 41, "Cryptanalyst", "Alan broke codes."));
+        try (PersonChangeFeed feed = new PersonChangeFeed(personDataAccess, store, 10_000)) {
+            feed.start();
+        }
+
+        // When people change while it is down
+        personDataAccess.updatePerson(new Person(id, "Alan While Down", 42, "Cryptanalyst", "Alan broke codes."));
+        String insertedId = personDataAccess.insertPerson(Person.of("Joan While Down", 38, "Cryptanalyst", "Joan broke codes too."));
+
+        try (PersonChangeFeed restarted = new PersonChangeFeed(personDataAccess, store, 10_000)) {
+            StartMode mode = restarted.start();
+
+            // Then it catches up from the checkpoint rather than reloading
+            assertEquals(StartMode.RESUMED, mode);
+            awaitReplica(() -> restarted.getPerson(insertedId) != null && "Alan While Down".equals(restarted.getPerson(id).name()));
+            assertEquals(0, restarted.stats().reloads());
+        }
+    }
+
+    @Test
+    void shouldReadFromTheDatabaseWhenThePeopleDoNotFit() {
+        // Given
+        String firstId = personDataAccess.insertPerson(Person.of("Hedy First", 30, "Inventor", "Hedy invented things."));
+        String secondId = personDataAccess.insertPerson(Person.of("Katherine Second", 33, "Mathematician", "Katherine calculated orbits."));
+
+        try (PersonChangeFeed feed = new PersonChangeFeed(personDataAccess, CheckpointStore.inMemory(), 1)) {
+            // When
+            feed.start();
+
+            // Then
+            assertEquals(1, feed.size());
+            assertEquals("Hedy First", feed.getPerson(firstId).name());
+            assertEquals("Katherine Second", feed.getPerson(secondId).name());
+            ChangeFeedStats stats = feed.stats();
+            assertTrue(stats.partial());
+            assertTrue(stats.fallbacks() >= 1);
+        }
+    }
+
+    @Test
+    void shouldBeCompleteAgainOnceEveryoneFits() {
+        // Given a replica with room for one of two people
+        personDataAccess.collection.deleteMany(Filters.empty());
+        String firstId = personDataAccess.insertPerson(Person.of("Mary First", 29, "Astronomer", "Mary mapped the stars."));
+        String secondId = personDataAccess.insertPerson(Person.of("Annie Second", 31, "Astronomer", "Annie classified the stars."));
+
+        try (PersonChangeFeed feed = new PersonChangeFeed(personDataAccess, CheckpointStore.inMemory(), 1)) {
+            feed.start();
+            assertTrue(feed.stats().partial());
+
+            // When both leave and someone new arrives
+            personDataAccess.deletePerson(firstId);
+            personDataAccess.deletePerson(secondId);
+            String newId = personDataAccess.insertPerson(Person.of("Vera New", 40, "Astronomer", "Vera measured galaxies."));
+
+            // Then the new person is in the replica, and misses no longer go to the database
+            awaitReplica(() -> feed.getPerson(newId) != null && !feed.stats().partial());
+            long fallbacks = feed.stats().fallbacks();
+            assertNull(feed.getPerson(new ObjectId().toHexString()));
+            assertEquals(fallbacks, feed.stats().fallbacks());
+        }
+    }
+
+    @Test
+    void shouldSkipPeopleWithoutAnObjectIdAndKeepFollowingChanges() {
+        // Given a person whose _id PersonDataAccess would never write
+        MongoCollection<Document> documents = personDataAccess.collection.withDocumentClass(Document.class);
+        documents.insertOne(new Document("_id", "loaded-with-a-string-id").append("name", "Rosalind Loaded"));
+
+        try (PersonChangeFeed feed = new PersonChangeFeed(personDataAccess, CheckpointStore.inMemory(), 10_000)) {
+            // When
+            feed.start();
+            documents.insertOne(new Document("_id", "inserted-with-a-string-id").append("name", "Rosalind Inserted"));
+            documents.deleteOne(Filters.eq("_id", "loaded-with-a-string-id"));
+            String insertedId = personDataAccess.insertPerson(Person.of("Barbara After", 52, "Geneticist", "Barbara found jumping genes."));
+
+            // Then
+            awaitReplica(() -> feed.getPerson(insertedId) != null);
+            assertTrue(feed.stats().changesApplied() >= 3);
+        }
+    }
+
+    private static void awaitReplica(Callable<Boolean> condition) {
+        Awaitility.await().atMost(Duration.ofSeconds(10)).pollInterval(Duration.ofMillis(20)).until(condition);
+    }
+}
@@ -0,0 +1,55 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonChangeFeed.Checkpoint;
+import com.mycodefu.PersonChangeFeed.CheckpointStore;
+import com.mycodefu.PersonDataAccess.Person;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonCheckpointFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldLoadTheLastCheckpointSaved() {
+        // Given
+        CheckpointStore store = CheckpointStore.file(directory.resolve("person.checkpoint.bson.gz"));
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            people.add(new Person(new ObjectId().toHexString(), "Person " + i, 20 + i % 50, "tailor", "Bio number " + i));
+        }
+        store.save(new Checkpoint(BsonDocument.parse("{_data: 'first'}"), false, List.of()));
+
+        // When
+        store.save(new Checkpoint(BsonDocument.parse("{_data: 'second'}"), true, people));
+        Checkpoint loaded = store.load();
+
+        // Then
+        assertEquals(BsonDocument.parse("{_data: 'second'}"), loaded.resumeToken());
+        assertTrue(loaded.partial());
+        assertEquals(people, loaded.people());
+    }
+
+    @Test
+    void shouldTreatAMissingOrUnreadableCheckpointAsNone() throws IOException {
+        // Given
+        Path file = directory.resolve("person.checkpoint.bson.gz");
+        CheckpointStore store = CheckpointStore.file(file);
+
+        // Then
+        assertNull(store.load());
+        Files.writeString(file, "not a checkpoint");
+        assertNull(store.load());
+    }
+}
@@ -0,0 +1,91 @@
+package com.mycodefu;
+
+import com.mongodb.MongoClientSettings;
+import com.mycodefu.PersonDataAccess.Person;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonCodecTest {
+    private final PersonCodec personCodec = new PersonCodec();
+    private final Codec<Person> recordCodec = MongoClientSettings.getDefaultCodecRegistry().get(Person.class);
+
+    @Test
+    void shouldEncodeTheSameDocumentAsTheRecordCodec() {
+        // Given
+        Person person = new Person(new ObjectId().toHexString(), "John Doe", 30, "Software Developer", "John is a software developer who loves to code.");
+
+        // When
+        BsonDocument encoded = encode(personCodec, person);
+
+        // Then
+        assertEquals(encode(recordCodec, person), encoded);
+        assertTrue(encoded.get("_id").isObjectId());
+    }
+
+    @Test
+    void shouldLeaveOutNullFieldsLikeTheRecordCodec() {
+        // Given
+        Person person = Person.of("Jane Smith", 25, null, "Jane is a data scientist who loves to analyze data.");
+
+        // When
+        BsonDocument encoded = encode(personCodec, person);
+
+        // Then
+        assertEquals(encode(recordCodec, person), encoded);
+        assertFalse(encoded.containsKey("_id"));
+        assertFalse(encoded.containsKey("job"));
+    }
+
+    @Test
+    void shouldDecodeWhatTheRecordCodecDecodes() {
+        // Given
+        BsonDocument document = BsonDocument.parse("""
+                {"_id": {"$oid": "67e89d9ed3ac4a20cf0c00c0"}, "name": "Mrs. Charolette Grady", "age": 55, "job": "tailor", "bio": "At 55, Mrs. Charlotte Grady is a renowned tailor."}
+                """);
+
+        // When
+        Person decoded = decode(personCodec, document);
+
+        // Then
+        assertEquals(decode(recordCodec, document), decoded);
+        assertEquals("67e89d9ed3ac4a20cf0c00c0", decoded.id());
+    }
+
+    @Test
+    void shouldDecodePartialDocumentsFromProjections() {
+        // Given
+        BsonDocument document = BsonDocument.parse("""
+                {"_id": {"$oid": "67e89d9ed3ac4a20cf0c00c0"}, "name": "Mrs. Charolette Grady", "score": 1.5, "highlights": [{"path": "bio"}], "bio": null}
+                """);
+
+        // When
+        Person decoded = decode(personCodec, document);
+
+        // Then
+        assertEquals(new Person("67e89d9ed3ac4a20cf0c00c0", "Mrs. Charolette Grady", 0, null, null), decoded);
+    }
+
+    @Test
+    void shouldDecodeNumericAgeTypes() {
+        assertEquals(40, decode(personCodec, BsonDocument.parse("{\"age\": {\"$numberLong\": \"40\"}}")).age());
+        assertEquals(41, decode(personCodec, BsonDocument.parse("{\"age\": 41.0}")).age());
+    }
+
+    private static BsonDocument encode(Codec<Person> codec, Person person) {
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), person, EncoderContext.builder().build());
+        return document;
+    }
+
+    private static Person decode(Codec<Person> codec, BsonDocument document) {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+}
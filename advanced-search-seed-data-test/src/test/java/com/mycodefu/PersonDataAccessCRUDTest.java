@@ -1,27 +1,33 @@
 package com.mycodefu;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
 import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.metrics.DataAccessMetrics;
+import com.mycodefu.metrics.DataAccessMetrics.MetricsSnapshot;
+import com.mycodefu.metrics.DataAccessMetrics.Operation;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
 import org.junit.jupiter.api.AutoClose;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
-import org.testcontainers.junit.jupiter.Container;
-import org.testcontainers.junit.jupiter.Testcontainers;
-import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@Testcontainers
+@AtlasLocal
 class PersonDataAccessCRUDTest {
 
-    @Container
-    private static final MongoDBAtlasLocalContainer mongoDBContainer = new MongoDBAtlasLocalContainer("mongodb/mongodb-atlas-local:8.0.5");
+    private static AtlasLocalDatabase atlasLocalDatabase;
     @AutoClose
     private static PersonDataAccess personDataAccess;
 
     @BeforeAll
-    static void beforeAll() {
-        System.out.println("Initializing data access with MongoDB connection string: " + mongoDBContainer.getConnectionString());
-        personDataAccess = new PersonDataAccess(mongoDBContainer.getConnectionString());
+    static void beforeAll(AtlasLocalDatabase database) {
+        atlasLocalDatabase = database;
+        System.out.println("Initializing data access with MongoDB connection string: " + database.connectionString() + ", database: " + database.databaseName());
+        personDataAccess = new PersonDataAccess(database.connectionString(), database.databaseName());
     }
 
     @Test
@@ -96,4 +102,48 @@ class PersonDataAccessCRUDTest {
         // Then
         assertNull(retrievedPerson);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldShareOneMongoClientAcrossInstances() {
+        // Given
+        try (MongoClient sharedMongoClient = MongoClients.create(atlasLocalDatabase.connectionString())) {
+            PersonDataAccess writer = new PersonDataAccess(sharedMongoClient, atlasLocalDatabase.databaseName());
+            PersonDataAccess reader = new PersonDataAccess(sharedMongoClient, atlasLocalDatabase.databaseName());
+
+            // When
+            String id = writer.insertPerson(Person.of("Michael Bolton", 31, "programmer", "Michael is no relation to the singer."));
+            writer.close();
+
+            // Then closing one instance leaves the shared client open for the others
+            assertEquals("Michael Bolton", reader.getPerson(id).name());
+            reader.close();
+        }
+    }
+
+    @Test
+    void shouldRecordOperationAndDriverMetrics() {
+        // Given
+        DataAccessMetrics metrics = new DataAccessMetrics();
+        MongoClientSettings settings = metrics.register(MongoClientSettings.builder().applyConnectionString(new ConnectionString(atlasLocalDatabase.connectionString()))).build();
+        try (MongoClient mongoClient = MongoClients.create(settings);
+             PersonDataAccess instrumented = new PersonDataAccess(mongoClient, atlasLocalDatabase.databaseName(), metrics)) {
+
+            // When
+            String id = instrumented.insertPerson(Person.of("Peter Gibbons", 32, "programmer", "Peter would rather do nothing."));
+            instrumented.getPerson(id);
+            instrumented.deletePerson(id);
+
+            // Then
+            MetricsSnapshot snapshot = metrics.snapshot();
+            snapshot.printResults();
+            assertEquals(1, snapshot.operations().get(Operation.INSERT).count());
+            assertEquals(1, snapshot.operations().get(Operation.GET).count());
+            assertEquals(1, snapshot.operations().get(Operation.DELETE).count());
+            assertEquals(0, snapshot.operations().get(Operation.UPDATE).count());
+            assertEquals(1, snapshot.commands().get("find").count());
+            assertTrue(snapshot.checkoutWait().count() >= 3);
+            assertTrue(snapshot.bytesSent() > 0);
+            assertTrue(snapshot.bytesReceived() > 0);
+        }
+    }
+}
@@ -1,67 +1,26 @@
 package com.mycodefu;
 
-import com.mongodb.client.ListSearchIndexesIterable;
 import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.PersonDataAccess.PersonSummary;
 import com.mycodefu.atlassearch.util.IndexValidator;
 import com.mycodefu.atlassearch.util.IndexValidator.IndexValidationResults;
-import org.bson.BsonDocument;
-import org.bson.Document;
-import org.junit.jupiter.api.*;
-import org.testcontainers.containers.BindMode;
-import org.testcontainers.containers.ExecConfig;
-import org.testcontainers.junit.jupiter.Container;
-import org.testcontainers.junit.jupiter.Testcontainers;
-import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
-import org.testcontainers.shaded.com.google.common.io.Resources;
-import org.testcontainers.shaded.org.awaitility.Awaitility;
-
-import java.io.IOException;
-import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayList;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.testcontainers.shaded.org.apache.commons.lang3.ArrayUtils.toArray;
 
-@Testcontainers
 class PersonDataAccessSearchTest {
 
-    @Container
-    private static final MongoDBAtlasLocalContainer mongoDBContainer = new MongoDBAtlasLocalContainer("mongodb/mongodb-atlas-local:8.0.5")
-            .withClasspathResourceMapping(
-                    "/seed-data",
-                    "/tmp/seed-data",
-                    BindMode.READ_WRITE
-            );
     @AutoClose
     private static PersonDataAccess personDataAccess;
 
     @BeforeAll
-    static void beforeAll() throws IOException, InterruptedException {
-        System.out.println("Initializing data access with MongoDB connection string: " + mongoDBContainer.getConnectionString());
-        personDataAccess = new PersonDataAccess(mongoDBContainer.getConnectionString());
-
-        Instant startSeedDataRestore = Instant.now();
-        mongoDBContainer.execInContainer(ExecConfig.builder()
-                .workDir("/tmp/seed-data")
-                .command(toArray("mongorestore", "--gzip"))
-                .build());
-        System.out.println("Loading seed data took: " + Instant.now().minusMillis(startSeedDataRestore.toEpochMilli()).toEpochMilli() + "ms");
-
-        Instant startIndex = Instant.now();
-        String personSearchMappings = Resources.toString(Resources.getResource("atlas-search-indexes/examples/person/person_search.json"), UTF_8);
-        personDataAccess.collection.createSearchIndex("person_search", BsonDocument.parse(personSearchMappings));
-        Awaitility.await()
-                .atMost(10, TimeUnit.SECONDS)
-                .until(() -> {
-                    ListSearchIndexesIterable<Document> searchIndexes = personDataAccess.collection.listSearchIndexes();
-                    Document personIndex = searchIndexes.into(new ArrayList<>()).stream().filter(index -> index.getString("name").equals("person_search")).findFirst().orElseThrow();
-                    return personIndex.getString("status").equals("READY");
-                });
-        System.out.printf("Index created and ready in %dms%n", Duration.between(startIndex, Instant.now()).toMillis());
+    static void beforeAll() {
+        personDataAccess = new PersonDataAccess(SeededPersonSearch.connectionString());
     }
 
     @Test
@@ -100,6 +59,89 @@ class PersonDataAccessSearchTest {
         });
     }
 
+    @Test
+    void shouldFindPersonByBioWithCallerSuppliedLimit() {
+        // Given
+        String word = "dedicated";
+
+        // When
+        List<Person> dedicatedPeople = personDataAccess.findPersonByBio(word, false, 120);
+
+        // Then
+        assertEquals(120, dedicatedPeople.size());
+        assertTrue(dedicatedPeople.stream().allMatch(person -> person.bio().toLowerCase().contains(word)));
+    }
+
+    @Test
+    void shouldStreamPersonByBioInBatches() {
+        // Given
+        String word = "dedicated";
+
+        // When
+        List<Person> streamedPeople;
+        try (Stream<Person> people = personDataAccess.streamPersonByBio(word, false, 0, 100)) {
+            streamedPeople = people.toList();
+        }
+
+        // Then the whole result set is returned, not just the default 50
+        assertTrue(streamedPeople.size() > 500);
+        assertTrue(streamedPeople.stream().allMatch(person -> person.bio().toLowerCase().contains(word)));
+        assertEquals(personDataAccess.findPersonByBio(word, false), streamedPeople.subList(0, PersonDataAccess.DEFAULT_SEARCH_LIMIT));
+    }
+
+    @Test
+    void shouldStopStreamingEarlyWhenClosed() {
+        // Given
+        String word = "yesr";
+
+        // When only the first few results are read
+        List<Person> firstPeople;
+        try (Stream<Person> people = personDataAccess.streamPersonByBio(word, true, 0, 10)) {
+            firstPeople = people.limit(5).toList();
+        }
+
+        // Then
+        assertEquals(5, firstPeople.size());
+    }
+
+    @Test
+    void shouldFindPersonSummaryByBio() {
+        // Given
+        String word = "dedicated";
+        List<Person> people = personDataAccess.findPersonByBio(word, false, 10);
+
+        // When
+        List<PersonSummary> summaries = personDataAccess.findPersonSummaryByBio(word, false, 10, false);
+
+        // Then the summaries match the full records, in score order
+        assertEquals(10, summaries.size());
+        for (int i = 0; i < summaries.size(); i++) {
+            assertEquals(people.get(i).id(), summaries.get(i).id());
+            assertEquals(people.get(i).name(), summaries.get(i).name());
+            assertEquals(people.get(i).job(), summaries.get(i).job());
+            assertNull(summaries.get(i).highlights());
+        }
+        assertTrue(summaries.getFirst().score() >= summaries.getLast().score());
+    }
+
+    @Test
+    void shouldFindPersonSummaryByBioWithHighlights() {
+        // Given
+        String word = "dedicated";
+
+        // When
+        List<PersonSummary> summaries = personDataAccess.findPersonSummaryByBio(word, false, 5, true);
+
+        // Then
+        assertEquals(5, summaries.size());
+        for (PersonSummary summary : summaries) {
+            assertFalse(summary.highlights().isEmpty());
+            assertTrue(summary.highlights().stream()
+                    .flatMap(highlight -> highlight.texts().stream())
+                    .anyMatch(text -> text.type().equals("hit") && text.value().equalsIgnoreCase(word)));
+        }
+    }
+
     @Test
     void checkIndexValidation() {
         // Given
@@ -112,4 +154,4 @@ class PersonDataAccessSearchTest {
         // Then
         assertTrue(validationResults.valid());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonAutocomplete.AutocompleteStats;
+import com.mycodefu.PersonDataAccess.NameSuggestion;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonNameSuggestionTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+
+    @BeforeAll
+    static void beforeAll() {
+        personDataAccess = new PersonDataAccess(SeededPersonSearch.connectionString());
+    }
+
+    @Test
+    void shouldSuggestNamesByPrefix() {
+        // Given
+        String prefix = "wehn";
+
+        // When
+        List<NameSuggestion> suggestions = personDataAccess.suggestPersonNames(prefix, 10);
+
+        // Then
+        assertEquals(10, suggestions.size());
+        assertTrue(suggestions.stream().allMatch(suggestion -> suggestion.name().toLowerCase().contains(prefix)));
+    }
+
+    @Test
+    void shouldAnswerLongerPrefixesFromCompleteSuggestions() {
+        try (PersonAutocomplete autocomplete = new PersonAutocomplete(personDataAccess, 10, Duration.ZERO)) {
+            // When typing a name one character at a time
+            List<NameSuggestion> suggestions = List.of();
+            for (String prefix : List.of("r", "ri", "ric", "rich", "richa", "richar", "richard")) {
+                suggestions = autocomplete.suggest(prefix);
+            }
+
+            // Then only the prefixes with more matches than the limit went to the server
+            AutocompleteStats stats = autocomplete.stats();
+            assertEquals(4, stats.serverQueries());
+            assertEquals(2, stats.prefixReuses());
+            assertEquals(
+                    personDataAccess.suggestPersonNames("richard", 10).stream().map(NameSuggestion::id).sorted().toList(),
+                    suggestions.stream().map(NameSuggestion::id).sorted().toList()
+            );
+        }
+    }
+}
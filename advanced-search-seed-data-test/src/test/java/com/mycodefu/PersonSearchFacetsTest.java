@@ -0,0 +1,58 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.AgeRangeBucket;
+import com.mycodefu.PersonDataAccess.PersonFacets;
+import com.mycodefu.PersonDataAccess.PersonSearchResults;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonSearchFacetsTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+
+    @BeforeAll
+    static void beforeAll() {
+        personDataAccess = new PersonDataAccess(SeededPersonSearch.connectionString());
+    }
+
+    @Test
+    void shouldFacetPersonByBio() {
+        // Given
+        String word = "dedicated";
+        List<Integer> ageBoundaries = List.of(18, 30, 40, 50, 60);
+
+        // When
+        PersonFacets facets = personDataAccess.facetPersonByBio(word, false, 10, ageBoundaries);
+
+        // Then
+        assertTrue(facets.count() > 500);
+        assertEquals(10, facets.jobs().size());
+        for (int i = 1; i < facets.jobs().size(); i++) {
+            assertTrue(facets.jobs().get(i - 1).count() >= facets.jobs().get(i).count());
+        }
+        assertEquals(4, facets.ageRanges().size());
+        assertEquals(new AgeRangeBucket(18, 30, facets.ageRanges().getFirst().count()), facets.ageRanges().getFirst());
+        // every person in the seed data is 18 to 59
+        assertEquals(facets.count(), facets.ageRanges().stream().mapToLong(AgeRangeBucket::count).sum());
+    }
+
+    @Test
+    void shouldFindPersonByBioWithFacetsInOneRoundTrip() {
+        // Given
+        String word = "yesr";
+        List<Integer> ageBoundaries = List.of(18, 40, 60);
+
+        // When
+        PersonSearchResults results = personDataAccess.findPersonByBioWithFacets(word, true, 20, 5, ageBoundaries);
+
+        // Then the hits and facets match the separate queries
+        assertEquals(personDataAccess.findPersonByBio(word, true, 20), results.people());
+        assertEquals(personDataAccess.facetPersonByBio(word, true, 5, ageBoundaries), results.facets());
+    }
+}
@@ -0,0 +1,104 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.PageDirection;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.PersonDataAccess.PersonPage;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonSearchPagingTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+
+    @BeforeAll
+    static void beforeAll() {
+        personDataAccess = new PersonDataAccess(SeededPersonSearch.connectionString());
+    }
+
+    @Test
+    void shouldPageThroughResultsWithoutOverlap() {
+        // Given
+        String word = "dedicated";
+        int pageSize = 20;
+        List<Person> expected;
+        try (Stream<Person> people = personDataAccess.streamPersonByBio(word, false, 0, 100)) {
+            expected = people.toList();
+        }
+
+        // When every page is read in turn
+        List<Person> paged = new ArrayList<>();
+        PersonPage firstPage = personDataAccess.findPersonByBioPage(word, false, pageSize, null, PageDirection.AFTER);
+        PersonPage page = firstPage;
+        paged.addAll(page.people());
+        while (page.nextPageToken() != null) {
+            page = personDataAccess.findPersonByBioPage(word, false, pageSize, page.nextPageToken(), PageDirection.AFTER);
+            paged.addAll(page.people());
+        }
+
+        // Then the pages line up with the full result set with no gaps or overlaps
+        assertNull(firstPage.previousPageToken());
+        assertEquals(expected.size(), paged.size());
+        assertEquals(expected.size(), paged.stream().map(Person::id).distinct().count());
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void shouldPageBackwardsToThePreviousPage() {
+        // Given
+        String word = "yesr";
+        int pageSize = 25;
+        PersonPage firstPage = personDataAccess.findPersonByBioPage(word, true, pageSize, null, PageDirection.AFTER);
+        PersonPage secondPage = personDataAccess.findPersonByBioPage(word, true, pageSize, firstPage.nextPageToken(), PageDirection.AFTER);
+
+        // When
+        PersonPage backToFirstPage = personDataAccess.findPersonByBioPage(word, true, pageSize, secondPage.previousPageToken(), PageDirection.BEFORE);
+        PersonPage secondPageAgain = personDataAccess.findPersonByBioPage(word, true, pageSize, firstPage.nextPageToken(), PageDirection.AFTER);
+
+        // Then
+        assertEquals(pageSize, secondPage.people().size());
+        assertEquals(firstPage.people(), backToFirstPage.people());
+        assertEquals(secondPage.people(), secondPageAgain.people());
+    }
+
+    @Test
+    void shouldReadDeepPagesInOrderWithoutOverlap() {
+        // Given a word in about 6,600 bios, enough for 1,000 pages of 5
+        String word = "innovative";
+        int pageSize = 5;
+        int pages = 1000;
+        List<String> expectedIds;
+        try (Stream<Person> people = personDataAccess.streamPersonByBio(word, false, 0, 1000)) {
+            expectedIds = people.limit((long) pages * pageSize).map(Person::id).toList();
+        }
+
+        // When
+        List<PersonPage> read = new ArrayList<>();
+        String token = null;
+        for (int i = 0; i < pages; i++) {
+            PersonPage page = personDataAccess.findPersonByBioPage(word, false, pageSize, token, PageDirection.AFTER);
+            read.add(page);
+            token = page.nextPageToken();
+            assertNotNull(token, "page %d should not be the last".formatted(i + 1));
+        }
+
+        // Then every page is full, and together they are the first results in score order with none repeated
+        assertTrue(read.stream().allMatch(page -> page.people().size() == pageSize));
+        List<String> pagedIds = read.stream().flatMap(page -> page.people().stream()).map(Person::id).toList();
+        assertEquals(expectedIds.size(), pagedIds.stream().distinct().count());
+        assertEquals(expectedIds, pagedIds);
+
+        // And the tokens of the last pages lead back to the pages they came from
+        PersonPage lastPage = read.getLast();
+        PersonPage pageBefore = read.get(pages - 2);
+        assertEquals(pageBefore.people(), personDataAccess.findPersonByBioPage(word, false, pageSize, lastPage.previousPageToken(), PageDirection.BEFORE).people());
+        assertEquals(lastPage.people(), personDataAccess.findPersonByBioPage(word, false, pageSize, pageBefore.nextPageToken(), PageDirection.AFTER).people());
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycodefu;
+
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.search.FuzzySearchOptions;
+import com.mongodb.client.model.search.SearchOperator;
+import com.mongodb.client.model.search.SearchOptions;
+import com.mongodb.client.model.search.TextSearchOperator;
+import org.bson.BsonDocument;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mongodb.client.model.search.SearchPath.fieldPath;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonSearchQueryTest {
+
+    @Test
+    void shouldRenderTheSamePipelineAsTheSearchBuilders() {
+        for (boolean fuzzy : List.of(false, true)) {
+            for (int limit : List.of(0, 1, 50)) {
+                // Given
+                PersonSearchQuery prepared = PersonSearchQuery.prepare(fuzzy, limit, PersonDataAccess.SEARCH_INDEX);
+
+                // When
+                List<Bson> stages = prepared.stages("dedicated engineer");
+
+                // Then
+                assertEquals(toJson(builderStages("dedicated engineer", fuzzy, limit)), toJson(stages), "fuzzy %s, limit %d".formatted(fuzzy, limit));
+            }
+        }
+    }
+
+    @Test
+    void shouldOnlySwapInTheQuery() {
+        // Given
+        PersonSearchQuery prepared = PersonSearchQuery.prepare(true, 10, "person_search_v2");
+
+        // When
+        List<Bson> first = prepared.stages("first");
+        List<Bson> second = prepared.stages("second");
+
+        // Then
+        assertEquals("second", second.getFirst().toBsonDocument().getDocument("$search").getDocument("text").getString("query").getValue());
+        assertEquals("person_search_v2", first.getFirst().toBsonDocument().getDocument("$search").getString("index").getValue());
+        assertSame(first.getLast(), second.getLast());
+    }
+
+    @Test
+    void shouldRejectANegativeLimit() {
+        assertThrows(IllegalArgumentException.class, () -> PersonSearchQuery.prepare(false, -1, PersonDataAccess.SEARCH_INDEX));
+    }
+
+    private static List<Bson> builderStages(String query, boolean fuzzy, int limit) {
+        TextSearchOperator text = SearchOperator.text(fieldPath("bio"), query);
+        if (fuzzy) {
+            text = text.fuzzy(FuzzySearchOptions.fuzzySearchOptions().maxEdits(2).prefixLength(2).maxExpansions(100));
+        }
+        List<Bson> stages = new ArrayList<>();
+        stages.add(Aggregates.search(text, SearchOptions.searchOptions().index(PersonDataAccess.SEARCH_INDEX)));
+        if (limit > 0) {
+            stages.add(Aggregates.limit(limit));
+        }
+        stages.add(Aggregates.project(Projections.exclude(PersonDataAccess.BIO_EMBEDDING)));
+        return stages;
+    }
+
+    private static List<String> toJson(List<Bson> stages) {
+        return stages.stream().map(Bson::toBsonDocument).map(BsonDocument::toJson).toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.PersonDataAccess.PersonFilter;
+import com.mycodefu.PersonDataAccess.SearchWeights;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonSearchRelevanceTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+
+    @BeforeAll
+    static void beforeAll() {
+        personDataAccess = new PersonDataAccess(SeededPersonSearch.connectionString());
+    }
+
+    @Test
+    void shouldRankNameMatchesFirst() {
+        // Given
+        String name = "Raymon Wehner";
+
+        // When
+        List<Person> people = personDataAccess.findPersonByRelevance(name, false, PersonFilter.NONE, SearchWeights.DEFAULT, 5);
+
+        // Then
+        assertEquals(name, people.getFirst().name());
+    }
+
+    @Test
+    void shouldBoostExactJobMatches() {
+        // Given
+        SearchWeights jobHeavy = new SearchWeights(1, 1, 10);
+
+        // When
+        List<Person> people = personDataAccess.findPersonByRelevance("tailor", false, PersonFilter.NONE, jobHeavy, 20);
+
+        // Then
+        assertEquals(20, people.size());
+        assertTrue(people.stream().allMatch(person -> person.job().equals("tailor")));
+    }
+
+    @Test
+    void shouldFilterByAgeRangeInsideSearch() {
+        // Given
+        PersonFilter thirties = new PersonFilter(30, 40, null);
+
+        // When
+        List<Person> people = personDataAccess.findPersonByRelevance("dedicated", false, thirties, SearchWeights.DEFAULT, 100);
+
+        // Then
+        assertFalse(people.isEmpty());
+        assertTrue(people.stream().allMatch(person -> person.age() >= 30 && person.age() < 40));
+        assertTrue(people.stream().allMatch(person -> person.bio().toLowerCase().contains("dedicated")));
+    }
+
+    @Test
+    void shouldFilterByExactJobInsideSearch() {
+        // Given
+        PersonFilter actors = new PersonFilter(null, null, "actor");
+
+        // When
+        List<Person> people = personDataAccess.findPersonByRelevance("dedicated", true, actors, SearchWeights.DEFAULT, 100);
+
+        // Then
+        assertFalse(people.isEmpty());
+        assertTrue(people.stream().allMatch(person -> person.job().equals("actor")));
+    }
+}
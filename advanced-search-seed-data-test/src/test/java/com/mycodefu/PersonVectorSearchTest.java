@@ -0,0 +1,51 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.Person;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersonVectorSearchTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+
+    @BeforeAll
+    static void beforeAll() {
+        personDataAccess = new PersonDataAccess(SeededPersonSearch.connectionString());
+    }
+
+    @Test
+    void shouldFindAPersonBySimilarityToTheirOwnBio() {
+        // Given
+        Person person = personDataAccess.findPersonByBio("dedicated", false, 1).getFirst();
+
+        // When
+        List<Person> similarPeople = personDataAccess.findSimilarPeople(SeededPersonSearch.EMBEDDER.embed(person.bio()), 10, 100);
+
+        // Then
+        assertEquals(10, similarPeople.size());
+        assertEquals(person.id(), similarPeople.getFirst().id());
+        assertNotNull(similarPeople.getFirst().bio());
+    }
+
+    @Test
+    void shouldFindPersonByHybridSearch() {
+        // Given
+        String query = "dedicated engineer";
+        List<String> textMatchIds = personDataAccess.findPersonByBio(query, false, 20).stream().map(Person::id).toList();
+        List<String> vectorMatchIds = personDataAccess.findSimilarPeople(SeededPersonSearch.EMBEDDER.embed(query), 20, 200).stream().map(Person::id).toList();
+
+        // When
+        List<Person> people = personDataAccess.findPersonByHybrid(query, false, SeededPersonSearch.EMBEDDER, 20);
+
+        // Then
+        assertEquals(20, people.size());
+        assertEquals(20, people.stream().map(Person::id).distinct().count());
+        assertTrue(people.stream().allMatch(person -> textMatchIds.contains(person.id()) || vectorMatchIds.contains(person.id())));
+    }
+}
@@ -0,0 +1,179 @@
+package com.mycodefu;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AtlasLocal
+class ReactivePersonDataAccessTest {
+
+    @AutoClose
+    private static ReactivePersonDataAccess reactivePersonDataAccess;
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+    private static AtlasLocalDatabase atlasLocalDatabase;
+
+    @BeforeAll
+    static void beforeAll(AtlasLocalDatabase database) {
+        atlasLocalDatabase = database;
+        System.out.println("Initializing data access with MongoDB connection string: " + database.connectionString() + ", database: " + database.databaseName());
+        reactivePersonDataAccess = new ReactivePersonDataAccess(database.connectionString(), database.databaseName());
+        personDataAccess = new PersonDataAccess(database.connectionString(), database.databaseName());
+    }
+
+    @Test
+    void shouldInsertAndRetrievePerson() {
+        // Given
+        Person person = Person.of(
+                "John Doe",
+                30,
+                "Software Developer",
+                "John is a software developer who loves to code."
+        );
+
+        // When
+        String id = reactivePersonDataAccess.insertPerson(person).join();
+        Person retrievedPerson = reactivePersonDataAccess.getPerson(id).join();
+
+        // Then
+        assertNotNull(id);
+        assertEquals(new Person(id, "John Doe", 30, "Software Developer", "John is a software developer who loves to code."), retrievedPerson);
+    }
+
+    @Test
+    void shouldUpdatePerson() {
+        // Given
+        String id = reactivePersonDataAccess.insertPerson(Person.of("Jane Smith", 25, "Data Scientist", "Jane is a data scientist who loves to analyze data.")).join();
+
+        // When
+        reactivePersonDataAccess.updatePerson(new Person(id, "Jane Smith", 26, "Senior Data Scientist", "Jane is a senior data scientist who loves to analyze data.")).join();
+        Person retrievedPerson = reactivePersonDataAccess.getPerson(id).join();
+
+        // Then
+        assertEquals(26, retrievedPerson.age());
+        assertEquals("Senior Data Scientist", retrievedPerson.job());
+    }
+
+    @Test
+    void shouldDeletePerson() {
+        // Given
+        String id = reactivePersonDataAccess.insertPerson(Person.of("Bill Lumbergh", 40, "Manager", "Bill is a manager of tech teams. Often asks 'What's happening?'.")).join();
+
+        // When
+        reactivePersonDataAccess.deletePerson(id).join();
+        Person retrievedPerson = reactivePersonDataAccess.getPerson(id).join();
+
+        // Then
+        assertNull(retrievedPerson);
+    }
+
+    @Test
+    void shouldNotReadTheBioEmbeddingWhenGettingAPerson() {
+        // Given a person with a bio embedding, and clients which record the find commands they send
+        String id = personDataAccess.insertPerson(Person.of("Samir Nagheenanajar", 32, "programmer", "Samir is tired of people mispronouncing his name."));
+        personDataAccess.setBioEmbedding(id, new float[256]);
+        List<BsonDocument> projections = new CopyOnWriteArrayList<>();
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(atlasLocalDatabase.connectionString()))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if (event.getCommandName().equals("find")) {
+                            projections.add(event.getCommand().getDocument("projection", new BsonDocument()).clone());
+                        }
+                    }
+                })
+                .build();
+
+        // When
+        Person person;
+        Person reactivePerson;
+        try (MongoClient syncClient = MongoClients.create(settings);
+             ReactivePersonDataAccess reactive = new ReactivePersonDataAccess(settings, atlasLocalDatabase.databaseName())) {
+            person = new PersonDataAccess(syncClient, atlasLocalDatabase.databaseName()).getPerson(id);
+            reactivePerson = reactive.getPerson(id).join();
+        }
+
+        // Then
+        Person expected = new Person(id, "Samir Nagheenanajar", 32, "programmer", "Samir is tired of people mispronouncing his name.");
+        assertEquals(expected, person);
+        assertEquals(expected, reactivePerson);
+        BsonDocument excludeEmbedding = new BsonDocument(PersonDataAccess.BIO_EMBEDDING, new BsonInt32(0));
+        assertEquals(List.of(excludeEmbedding, excludeEmbedding), projections);
+    }
+
+    @Test
+    void shouldSustainMoreConcurrentRequestsWithFewerThreadsThanSync() throws Exception {
+        // Given
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(personDataAccess.insertPerson(Person.of("Person " + i, 20 + i % 40, "tester", "Person %d is used for the load test.".formatted(i))));
+        }
+        int requests = 10_000;
+        int syncThreads = 200;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        // When the sync data access is driven by a thread per in-flight request
+        threads.resetPeakThreadCount();
+        long startSync = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(syncThreads)) {
+            List<Future<Person>> results = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> personDataAccess.getPerson(randomId(ids))));
+            }
+            for (Future<Person> result : results) {
+                assertNotNull(result.get(1, TimeUnit.MINUTES));
+            }
+        }
+        long syncMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startSync);
+        int syncPeakThreads = threads.getPeakThreadCount();
+
+        // and the reactive data access has every request in flight at once from this thread
+        threads.resetPeakThreadCount();
+        long startReactive = System.nanoTime();
+        List<CompletableFuture<Person>> results = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            results.add(reactivePersonDataAccess.getPerson(randomId(ids)));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+        long reactiveMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startReactive);
+        int reactivePeakThreads = threads.getPeakThreadCount();
+
+        // Then
+        System.out.printf("%d getPerson requests: sync %dms with %d concurrent (peak %d JVM threads), reactive %dms with %d concurrent (peak %d JVM threads)%n",
+                requests,
+                syncMillis, syncThreads, syncPeakThreads,
+                reactiveMillis, requests, reactivePeakThreads);
+        assertTrue(results.stream().allMatch(result -> result.join() != null));
+        assertTrue(reactivePeakThreads < syncPeakThreads);
+    }
+
+    private static String randomId(List<String> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,85 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.Person;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.testcontainers.shaded.org.awaitility.Awaitility;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactivePersonSearchTest {
+
+    @AutoClose
+    private static PersonDataAccess personDataAccess;
+    @AutoClose
+    private static ReactivePersonDataAccess reactivePersonDataAccess;
+
+    @BeforeAll
+    static void beforeAll() {
+        personDataAccess = new PersonDataAccess(SeededPersonSearch.connectionString());
+        reactivePersonDataAccess = new ReactivePersonDataAccess(SeededPersonSearch.connectionString());
+    }
+
+    @Test
+    void shouldFindPersonByBioReactively() {
+        // Given
+        String word = "yesr";
+
+        // When
+        List<Person> yearPeople = reactivePersonDataAccess.findPersonByBio(word, true).join();
+
+        // Then
+        assertEquals(personDataAccess.findPersonByBio(word, true), yearPeople);
+    }
+
+    @Test
+    void shouldOnlyStreamAsManyResultsAsRequested() throws InterruptedException {
+        // Given
+        String word = "dedicated";
+        List<Person> received = new CopyOnWriteArrayList<>();
+        CountDownLatch firstFive = new CountDownLatch(5);
+        AtomicReference<Subscription> subscription = new AtomicReference<>();
+
+        // When only five results are requested
+        reactivePersonDataAccess.streamPersonByBio(word, false, 0, 5).subscribe(new Subscriber<>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription.set(s);
+                s.request(5);
+            }
+
+            @Override
+            public void onNext(Person person) {
+                received.add(person);
+                firstFive.countDown();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertTrue(firstFive.await(10, TimeUnit.SECONDS));
+        Thread.sleep(200);
+
+        // Then no more are pushed until requested
+        assertEquals(5, received.size());
+        subscription.get().request(5);
+        Awaitility.await().atMost(10, TimeUnit.SECONDS).until(() -> received.size() == 10);
+        subscription.get().cancel();
+        assertTrue(received.stream().allMatch(person -> person.bio().toLowerCase().contains(word)));
+    }
+}
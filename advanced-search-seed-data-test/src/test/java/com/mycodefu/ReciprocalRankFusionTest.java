@@ -0,0 +1,41 @@
+package com.mycodefu;
+
+import com.mycodefu.PersonDataAccess.Person;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReciprocalRankFusionTest {
+
+    @Test
+    void shouldRankPeopleFoundByBothSearchesFirst() {
+        // Given
+        List<Person> text = List.of(person("a"), person("b"), person("c"));
+        List<Person> vector = List.of(person("d"), person("c"), person("e"));
+
+        // When
+        List<Person> fused = PersonDataAccess.reciprocalRankFusion(List.of(text, vector), PersonDataAccess.HYBRID_RANK_CONSTANT, 10);
+
+        // Then c is in both, a and d are first in one, then b and e second in one
+        assertEquals(List.of("c", "a", "d", "b", "e"), fused.stream().map(Person::id).toList());
+    }
+
+    @Test
+    void shouldLimitTheFusedResults() {
+        // Given
+        List<Person> text = List.of(person("a"), person("b"));
+        List<Person> vector = List.of(person("b"), person("a"));
+
+        // When
+        List<Person> fused = PersonDataAccess.reciprocalRankFusion(List.of(text, vector, List.of()), PersonDataAccess.HYBRID_RANK_CONSTANT, 1);
+
+        // Then a and b tie, so the first seen wins
+        assertEquals(List.of("a"), fused.stream().map(Person::id).toList());
+    }
+
+    private static Person person(String id) {
+        return new Person(id, "Person " + id, 30, "tailor", "bio");
+    }
+}
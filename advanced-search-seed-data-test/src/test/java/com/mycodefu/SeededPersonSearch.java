@@ -0,0 +1,80 @@
+package com.mycodefu;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mycodefu.atlassearch.util.SearchIndexManager;
+import com.mycodefu.atlassearch.util.SearchIndexManager.IndexReadiness;
+import com.mycodefu.atlassearch.util.SearchIndexReconciler;
+import com.mycodefu.embedding.HashingTextEmbedder;
+import com.mycodefu.seed.SeedLoader;
+import com.mycodefu.testsupport.SeededAtlasLocalContainer;
+import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
+import org.testcontainers.shaded.com.google.common.io.Resources;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * One Atlas Local container per JVM with the 15,000 seed people, their bio embeddings and the person search indexes,
+ * started by the first search test class which needs it. The test classes each open their own data access against it.
+ */
+final class SeededPersonSearch {
+    static final HashingTextEmbedder EMBEDDER = new HashingTextEmbedder();
+
+    private static SeededAtlasLocalContainer container;
+
+    private SeededPersonSearch() {
+    }
+
+    static synchronized String connectionString() {
+        if (container == null) {
+            SeededAtlasLocalContainer seeded = new SeededAtlasLocalContainer(
+                    SeededPersonSearch::seed,
+                    "4",
+                    "seed-data",
+                    "atlas-search-indexes/examples/person/person_search.json",
+                    "atlas-search-indexes/examples/person/person_autocomplete.json",
+                    "atlas-search-indexes/examples/person/person_vector.json"
+            );
+            seeded.start();
+            System.out.println("Seeded person search container: " + seeded.getConnectionString());
+            awaitIndexes(seeded.getConnectionString());
+            container = seeded;
+        }
+        return container.getConnectionString();
+    }
+
+    /**
+     * The snapshot is taken once the indexes are READY, this only waits if mongot has to catch up after the restart.
+     */
+    private static void awaitIndexes(String connectionString) {
+        try (PersonDataAccess personDataAccess = new PersonDataAccess(connectionString)) {
+            SearchIndexManager searchIndexManager = new SearchIndexManager(personDataAccess.collection);
+            for (String indexName : List.of("person_search", PersonDataAccess.AUTOCOMPLETE_INDEX, PersonDataAccess.VECTOR_INDEX)) {
+                IndexReadiness readiness = searchIndexManager.await(indexName);
+                System.out.printf("Index %s ready %dms after startup%n", indexName, readiness.timeToReadyMillis());
+            }
+        }
+    }
+
+    /**
+     * Runs once per change to the seed data or index definitions, the result is reused from a snapshot after that.
+     */
+    private static void seed(MongoDBAtlasLocalContainer container) throws IOException, URISyntaxException {
+        try (SeedLoader seedLoader = new SeedLoader(container.getConnectionString(), SeedLoader.defaultThreads())) {
+            Path personDump = Path.of(Resources.getResource("seed-data/dump/examples/person.bson.gz").toURI());
+            seedLoader.load(personDump, "examples", "person").printResults();
+        }
+
+        try (PersonDataAccess seedDataAccess = new PersonDataAccess(container.getConnectionString())) {
+            long embedded = seedDataAccess.backfillBioEmbeddings(EMBEDDER, 1000);
+            System.out.printf("Embedded %d bios%n", embedded);
+        }
+
+        try (MongoClient seedClient = MongoClients.create(container.getConnectionString())) {
+            new SearchIndexReconciler(seedClient).reconcile().printResults();
+        }
+    }
+}
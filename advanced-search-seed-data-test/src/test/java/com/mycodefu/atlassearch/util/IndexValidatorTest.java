@@ -0,0 +1,147 @@
+package com.mycodefu.atlassearch.util;
+
+import com.mycodefu.atlassearch.util.IndexValidator.CanonicalMapping;
+import com.mycodefu.atlassearch.util.IndexValidator.IndexValidationResults;
+import com.mycodefu.atlassearch.util.IndexValidator.InvalidField;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexValidatorTest {
+    private static final Document EXPECTED = Document.parse("""
+            {"dynamic": false, "fields": {
+              "name": {"type": "string", "analyzer": "lucene.standard"},
+              "job": [{"type": "token"}, {"type": "stringFacet"}],
+              "address": {"type": "document", "fields": {"city": [{"type": "token"}, {"type": "string", "analyzer": "lucene.english"}]}}
+            }}
+            """);
+
+    @Test
+    void shouldMatchServerCopyWithDefaultsAndReorderedTypes() {
+        // Given
+        Document actual = Document.parse("""
+                {"dynamic": false, "fields": {
+                  "name": {"type": "string", "analyzer": "lucene.standard", "norms": "include", "store": true},
+                  "job": [{"type": "stringFacet"}, {"type": "token", "normalizer": "none"}],
+                  "address": {"type": "document", "fields": {"city": [{"type": "string", "analyzer": "lucene.english"}, {"type": "token"}]}}
+                }}
+                """);
+
+        // When
+        IndexValidationResults results = IndexValidator.compareAtlasSearchIndexMapping(EXPECTED, actual, new ArrayList<>());
+
+        // Then
+        results.printResults();
+        assertTrue(results.valid());
+    }
+
+    @Test
+    void shouldReportEveryInvalidFieldInOnePass() {
+        // Given
+        CanonicalMapping expected = CanonicalMapping.of(EXPECTED);
+        Document actual = Document.parse("""
+                {"dynamic": false, "fields": {
+                  "job": [{"type": "stringFacet"}],
+                  "address": {"type": "document", "fields": {"city": [{"type": "string", "analyzer": "lucene.standard"}, {"type": "token"}]}}
+                }}
+                """);
+
+        // When
+        IndexValidationResults results = IndexValidator.compareAtlasSearchIndexMapping(expected, actual, new ArrayList<>());
+
+        // Then
+        results.printResults();
+        assertFalse(results.valid());
+        assertEquals(List.of(
+                new InvalidField("", "name", "Field not found in actual mappings"),
+                new InvalidField("", "job", "Field count mismatch"),
+                new InvalidField("address", "city", "Field value mismatch. Expected: 'lucene.english', actual: 'lucene.standard'")
+        ), results.invalidFields());
+    }
+
+    @Test
+    void shouldReportChangedSettingsOutsideTheTypeAndRemovedFields() {
+        // Given the expected mappings with name changed to autocomplete, and an actual copy with other grams and a
+        // field the expected mappings no longer have
+        Document expected = Document.parse("""
+                {"dynamic": false, "fields": {
+                  "name": {"type": "autocomplete", "tokenization": "edgeGram", "minGrams": 2, "maxGrams": 20}
+                }}
+                """);
+        Document actual = Document.parse("""
+                {"dynamic": false, "fields": {
+                  "name": {"type": "autocomplete", "tokenization": "edgeGram", "minGrams": 2, "maxGrams": 10, "foldDiacritics": true},
+                  "job": {"type": "token"}
+                }}
+                """);
+
+        // When
+        IndexValidationResults results = IndexValidator.compareAtlasSearchIndexMapping(expected, actual, new ArrayList<>());
+
+        // Then
+        results.printResults();
+        assertEquals(List.of(
+                new InvalidField("", "job", "Field not expected in actual mappings"),
+                new InvalidField("", "name", "Field value mismatch. Expected: '20', actual: '10'")
+        ), results.invalidFields());
+    }
+
+    @Test
+    void shouldReportSettingsOnlyTheActualCopyHas() {
+        // Given
+        Document expected = Document.parse("""
+                {"dynamic": false, "fields": {"name": {"type": "autocomplete"}}}
+                """);
+        Document actual = Document.parse("""
+                {"dynamic": false, "fields": {"name": {"type": "autocomplete", "maxGrams": 15, "foldDiacritics": false}}}
+                """);
+
+        // When
+        IndexValidationResults results = IndexValidator.compareAtlasSearchIndexMapping(expected, actual, new ArrayList<>());
+
+        // Then
+        assertEquals(List.of(new InvalidField("", "name", "Unexpected setting 'foldDiacritics' in actual mappings: 'false'")), results.invalidFields());
+    }
+
+    @Test
+    void shouldTellServerDefaultsFromChangedSettingsOnTheActualCopy() {
+        // Given
+        Document expected = Document.parse("""
+                {"dynamic": false, "fields": {"bio": {"type": "string", "analyzer": "lucene.english"}, "name": {"type": "autocomplete"}}}
+                """);
+        Document actual = Document.parse("""
+                {"dynamic": false, "fields": {
+                    "bio": {"type": "string", "analyzer": "lucene.english", "searchAnalyzer": "lucene.english", "indexOptions": "offsets"},
+                    "name": {"type": "autocomplete", "maxGrams": {"$numberLong": "15"}, "minGrams": 2.0}
+                }}
+                """);
+        Document changedSearchAnalyzer = Document.parse("""
+                {"dynamic": false, "fields": {
+                    "bio": {"type": "string", "analyzer": "lucene.english", "searchAnalyzer": "lucene.standard"},
+                    "name": {"type": "autocomplete"}
+                }}
+                """);
+
+        // Then
+        assertTrue(IndexValidator.compareAtlasSearchIndexMapping(expected, actual, new ArrayList<>()).valid());
+        assertEquals(
+                List.of(new InvalidField("", "bio", "Unexpected setting 'searchAnalyzer' in actual mappings: 'lucene.standard'")),
+                IndexValidator.compareAtlasSearchIndexMapping(expected, changedSearchAnalyzer, new ArrayList<>()).invalidFields()
+        );
+    }
+
+    @Test
+    void shouldReuseCanonicalMappingAcrossValidations() {
+        // Given
+        CanonicalMapping expected = CanonicalMapping.of(EXPECTED);
+
+        // Then
+        assertTrue(IndexValidator.compareAtlasSearchIndexMapping(expected, EXPECTED, new ArrayList<>()).valid());
+        assertFalse(IndexValidator.compareAtlasSearchIndexMapping(expected, new Document("dynamic", true), new ArrayList<>()).valid());
+        assertTrue(IndexValidator.compareAtlasSearchIndexMapping(expected, EXPECTED, new ArrayList<>()).valid());
+    }
+}
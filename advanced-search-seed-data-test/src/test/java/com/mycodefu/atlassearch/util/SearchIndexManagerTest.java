@@ -0,0 +1,154 @@
+package com.mycodefu.atlassearch.util;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mycodefu.atlassearch.util.SearchIndexManager.IndexAction;
+import com.mycodefu.atlassearch.util.SearchIndexManager.IndexReadiness;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AtlasLocal
+class SearchIndexManagerTest {
+    private static final BsonDocument BIO_INDEX = BsonDocument.parse("""
+            {"mappings": {"dynamic": false, "fields": {"bio": {"type": "string", "analyzer": "lucene.standard"}}}}
+            """);
+    private static final BsonDocument NAME_INDEX = BsonDocument.parse("""
+            {"mappings": {"dynamic": false, "fields": {"name": {"type": "string"}, "job": [{"type": "token"}, {"type": "stringFacet"}]}}}
+            """);
+
+    @AutoClose
+    private static MongoClient mongoClient;
+    private static AtlasLocalDatabase atlasLocalDatabase;
+
+    @BeforeAll
+    static void beforeAll(AtlasLocalDatabase database) {
+        atlasLocalDatabase = database;
+        mongoClient = MongoClients.create(database.connectionString());
+    }
+
+    @Test
+    void shouldCreateThenSkipIdenticalIndex() {
+        // Given
+        SearchIndexManager searchIndexManager = new SearchIndexManager(collection("skip"));
+
+        // When
+        IndexReadiness created = searchIndexManager.createAndAwait("bio_search", BIO_INDEX);
+        IndexReadiness unchanged = searchIndexManager.createAndAwait("bio_search", BIO_INDEX);
+
+        // Then
+        System.out.printf("Created in %dms (%d polls), unchanged in %dms (%d polls)%n", created.timeToReadyMillis(), created.polls(), unchanged.timeToReadyMillis(), unchanged.polls());
+        assertEquals(IndexAction.CREATED, created.action());
+        assertEquals(IndexAction.UNCHANGED, unchanged.action());
+        assertEquals(1, unchanged.polls());
+        assertEquals(List.of(created, unchanged), searchIndexManager.history());
+    }
+
+    @Test
+    void shouldUpdateIndexWithChangedDefinition() {
+        // Given
+        SearchIndexManager searchIndexManager = new SearchIndexManager(collection("update"));
+        searchIndexManager.createAndAwait("person_search", BIO_INDEX);
+
+        // When
+        IndexReadiness updated = searchIndexManager.createAndAwait("person_search", NAME_INDEX);
+
+        // Then
+        assertEquals(IndexAction.UPDATED, updated.action());
+        assertEquals(IndexAction.UNCHANGED, searchIndexManager.createAndAwait("person_search", NAME_INDEX).action());
+    }
+
+    @Test
+    void shouldWaitForSeveralIndexesConcurrently() {
+        // Given
+        SearchIndexManager searchIndexManager = new SearchIndexManager(collection("concurrent"));
+        Map<String, BsonDocument> definitions = new LinkedHashMap<>();
+        definitions.put("bio_search", BIO_INDEX);
+        definitions.put("name_search", NAME_INDEX);
+
+        // When
+        long start = System.nanoTime();
+        List<IndexReadiness> readiness = searchIndexManager.createAndAwait(definitions);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        readiness.forEach(index -> System.out.printf("%s %s and ready in %dms after %d polls%n", index.name(), index.action(), index.timeToReadyMillis(), index.polls()));
+        assertEquals(List.of("bio_search", "name_search"), readiness.stream().map(IndexReadiness::name).toList());
+        assertTrue(readiness.stream().allMatch(index -> index.action() == IndexAction.CREATED));
+        long slowest = readiness.stream().mapToLong(IndexReadiness::timeToReadyMillis).max().orElseThrow();
+        long total = readiness.stream().mapToLong(IndexReadiness::timeToReadyMillis).sum();
+        System.out.printf("Both indexes ready in %dms, slowest %dms, sequential total %dms%n", elapsedMillis, slowest, total);
+        assertTrue(elapsedMillis < total);
+    }
+
+    @Test
+    void shouldMatchDefinitionsWithServerDefaultsAndReorderedTypes() {
+        // Given
+        BsonDocument returnedByServer = BsonDocument.parse("""
+                {"analyzer": "lucene.standard", "searchAnalyzer": "lucene.standard",
+                 "mappings": {"dynamic": false, "fields": {"name": {"type": "string", "indexOptions": "offsets", "store": true, "norms": "include"}, "job": [{"type": "stringFacet"}, {"type": "token"}]}}}
+                """);
+
+        // Then
+        assertTrue(SearchIndexManager.definitionMatches(NAME_INDEX, returnedByServer));
+        assertFalse(SearchIndexManager.definitionMatches(BIO_INDEX, returnedByServer));
+        assertFalse(SearchIndexManager.definitionMatches(NAME_INDEX, BsonDocument.parse("""
+                {"mappings": {"dynamic": false, "fields": {"name": {"type": "string"}, "job": [{"type": "token"}]}}}
+                """)));
+    }
+
+    @Test
+    void shouldNotMatchDefinitionsWithRemovedFieldsOrChangedDefaults() {
+        // Given
+        BsonDocument nameOnly = BsonDocument.parse("""
+                {"mappings": {"dynamic": false, "fields": {"name": {"type": "string"}}}}
+                """);
+        BsonDocument autocomplete = BsonDocument.parse("""
+                {"mappings": {"dynamic": false, "fields": {"name": {"type": "autocomplete", "minGrams": 2, "maxGrams": 15}}}}
+                """);
+
+        // Then
+        assertFalse(SearchIndexManager.definitionMatches(nameOnly, NAME_INDEX));
+        assertFalse(SearchIndexManager.definitionMatches(NAME_INDEX, nameOnly));
+        assertTrue(SearchIndexManager.definitionMatches(autocomplete, BsonDocument.parse("""
+                {"mappings": {"fields": {"name": {"type": "autocomplete", "tokenization": "edgeGram", "foldDiacritics": true}}}}
+                """)));
+        assertFalse(SearchIndexManager.definitionMatches(autocomplete, BsonDocument.parse("""
+                {"mappings": {"dynamic": false, "fields": {"name": {"type": "autocomplete", "minGrams": 2, "maxGrams": 20}}}}
+                """)));
+    }
+
+    @Test
+    void shouldUpdateIndexWhenAFieldIsRemoved() {
+        // Given
+        SearchIndexManager searchIndexManager = new SearchIndexManager(collection("remove"));
+        BsonDocument nameOnly = BsonDocument.parse("""
+                {"mappings": {"dynamic": false, "fields": {"name": {"type": "string"}}}}
+                """);
+        searchIndexManager.createAndAwait("person_search", NAME_INDEX);
+
+        // When
+        IndexReadiness updated = searchIndexManager.createAndAwait("person_search", nameOnly);
+
+        // Then
+        assertEquals(IndexAction.UPDATED, updated.action());
+        assertEquals(IndexAction.UNCHANGED, searchIndexManager.createAndAwait("person_search", nameOnly).action());
+    }
+
+    private static MongoCollection<Document> collection(String name) {
+        MongoCollection<Document> collection = mongoClient.getDatabase(atlasLocalDatabase.databaseName()).getCollection(name);
+        collection.insertOne(new Document("name", "Peter Gibbons").append("job", "programmer").append("bio", "Peter works at Initech."));
+        return collection;
+    }
+}
@@ -0,0 +1,141 @@
+package com.mycodefu.atlassearch.util;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mycodefu.atlassearch.util.IndexValidator.InvalidField;
+import com.mycodefu.atlassearch.util.SearchIndexManager.IndexAction;
+import com.mycodefu.atlassearch.util.SearchIndexReconciler.ChangeType;
+import com.mycodefu.atlassearch.util.SearchIndexReconciler.IndexChange;
+import com.mycodefu.atlassearch.util.SearchIndexReconciler.ReconcileResult;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AtlasLocal
+class SearchIndexReconcilerTest {
+
+    @AutoClose
+    private static MongoClient mongoClient;
+    private static AtlasLocalDatabase atlasLocalDatabase;
+
+    @BeforeAll
+    static void beforeAll(AtlasLocalDatabase database) {
+        atlasLocalDatabase = database;
+        mongoClient = MongoClients.create(database.connectionString());
+    }
+
+    @Test
+    void shouldCreateMissingIndexesThenLeaveThemAlone() {
+        // Given
+        SearchIndexReconciler reconciler = reconciler(atlasLocalDatabase.databaseName());
+
+        // When
+        ReconcileResult first = reconciler.reconcile();
+        ReconcileResult second = reconciler.reconcile();
+
+        // Then
+        first.printResults();
+        second.printResults();
+        assertEquals(reconciler.scan().size(), first.count(ChangeType.CREATE));
+        assertEquals(first.changes().size(), first.readiness().size());
+        assertEquals(second.changes().size(), second.count(ChangeType.UNCHANGED));
+        assertTrue(second.readiness().isEmpty());
+    }
+
+    @Test
+    void shouldUpdateOnlyTheIndexWhichDrifted() {
+        // Given an index someone changed by hand since the last deploy
+        String databaseName = atlasLocalDatabase.databaseName() + "_drift";
+        SearchIndexReconciler reconciler = reconciler(databaseName);
+        reconciler.reconcile();
+        MongoCollection<Document> person = mongoClient.getDatabase(databaseName).getCollection("person");
+        BsonDocument drifted = BsonDocument.parse(IndexValidator.readResourceAsString("atlas-search-indexes/examples/person/person_search.json"));
+        drifted.getDocument("mappings").getDocument("fields").getDocument("bio").put("analyzer", new BsonString("lucene.english"));
+        new SearchIndexManager(person).createAndAwait("person_search", drifted);
+
+        try {
+            // When
+            List<IndexChange> plan = reconciler.plan();
+            ReconcileResult result = reconciler.reconcile();
+
+            // Then
+            result.printResults();
+            IndexChange personSearch = plan.stream().filter(change -> change.index().name().equals("person_search")).findFirst().orElseThrow();
+            assertEquals(ChangeType.UPDATE, personSearch.type());
+            assertEquals("bio", personSearch.differences().getFirst().fieldName());
+            assertEquals(1, result.count(ChangeType.UPDATE));
+            assertTrue(reconciler.plan().stream().allMatch(change -> change.type() == ChangeType.UNCHANGED));
+        } finally {
+            mongoClient.getDatabase(databaseName).drop();
+        }
+    }
+
+    @Test
+    void shouldUpdateAnIndexWhenASettingOutsideTheTypeChanges() {
+        // Given an autocomplete index built with shorter grams than the definition asks for
+        String databaseName = atlasLocalDatabase.databaseName() + "_grams";
+        SearchIndexReconciler reconciler = reconciler(databaseName);
+        reconciler.reconcile();
+        BsonDocument drifted = BsonDocument.parse(IndexValidator.readResourceAsString("atlas-search-indexes/examples/person/person_autocomplete.json"));
+        drifted.getDocument("mappings").getDocument("fields").getDocument("name").put("maxGrams", new BsonInt32(10));
+        new SearchIndexManager(mongoClient.getDatabase(databaseName).getCollection("person")).createAndAwait("person_autocomplete", drifted);
+
+        try {
+            // When
+            IndexChange personAutocomplete = change(reconciler.plan(), "person_autocomplete");
+            ReconcileResult result = reconciler.reconcile();
+
+            // Then
+            assertEquals(ChangeType.UPDATE, personAutocomplete.type());
+            assertEquals("name", personAutocomplete.differences().getFirst().fieldName());
+            assertEquals(IndexAction.UPDATED, result.readiness().stream().filter(readiness -> readiness.name().equals("person_autocomplete")).findFirst().orElseThrow().action());
+            assertTrue(reconciler.plan().stream().allMatch(change -> change.type() == ChangeType.UNCHANGED));
+        } finally {
+            mongoClient.getDatabase(databaseName).drop();
+        }
+    }
+
+    @Test
+    void shouldUpdateAnIndexWhenTheDefinitionRemovesAField() {
+        // Given a live index with a field the definition no longer has
+        String databaseName = atlasLocalDatabase.databaseName() + "_removed";
+        SearchIndexReconciler reconciler = reconciler(databaseName);
+        reconciler.reconcile();
+        BsonDocument withRemovedField = BsonDocument.parse(IndexValidator.readResourceAsString("atlas-search-indexes/examples/person/person_search.json"));
+        withRemovedField.getDocument("mappings").getDocument("fields").put("nickname", BsonDocument.parse("{\"type\": \"string\"}"));
+        new SearchIndexManager(mongoClient.getDatabase(databaseName).getCollection("person")).createAndAwait("person_search", withRemovedField);
+
+        try {
+            // When
+            IndexChange personSearch = change(reconciler.plan(), "person_search");
+            ReconcileResult result = reconciler.reconcile();
+
+            // Then
+            assertEquals(ChangeType.UPDATE, personSearch.type());
+            assertEquals(List.of(new InvalidField("", "nickname", "Field not expected in actual mappings")), personSearch.differences());
+            assertEquals(1, result.count(ChangeType.UPDATE));
+            assertTrue(reconciler.plan().stream().allMatch(change -> change.type() == ChangeType.UNCHANGED));
+        } finally {
+            mongoClient.getDatabase(databaseName).drop();
+        }
+    }
+
+    private static IndexChange change(List<IndexChange> plan, String indexName) {
+        return plan.stream().filter(change -> change.index().name().equals(indexName)).findFirst().orElseThrow();
+    }
+
+    private static SearchIndexReconciler reconciler(String databaseName) {
+        return new SearchIndexReconciler(mongoClient, SearchIndexReconciler.DEFAULT_RESOURCE_ROOT, resourceDatabase -> databaseName);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycodefu.cache;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObjectIdMapTest {
+
+    @Test
+    void shouldBehaveLikeAHashMapThroughGrowthAndRemovals() {
+        // Given
+        Random random = new Random(42);
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(new ObjectId());
+        }
+        ObjectIdMap<Integer> map = new ObjectIdMap<>();
+        Map<ObjectId, Integer> expected = new HashMap<>();
+
+        // When a random mix of puts and removes is applied to both
+        for (int i = 0; i < 20_000; i++) {
+            ObjectId id = ids.get(random.nextInt(ids.size()));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), map.remove(id));
+            } else {
+                assertEquals(expected.put(id, i), map.put(id, i));
+            }
+        }
+
+        // Then
+        assertEquals(expected.size(), map.size());
+        for (ObjectId id : ids) {
+            assertEquals(expected.get(id), map.get(id));
+            assertEquals(expected.get(id), map.get(id.toHexString()));
+        }
+        assertEquals(expected.values().stream().sorted().toList(), map.values().stream().sorted().toList());
+    }
+
+    @Test
+    void shouldFindIdsDifferingOnlyInTheirLastBytes() {
+        // Given ids from the same second and process, as a bulk insert creates them
+        ObjectIdMap<String> map = new ObjectIdMap<>(4);
+        ObjectId first = new ObjectId("65a1b2c3d4e5f60718293a4b");
+        ObjectId second = new ObjectId("65a1b2c3d4e5f60718293a4c");
+
+        // When
+        map.put(first, "first");
+        map.put(second, "second");
+
+        // Then
+        assertEquals("first", map.get("65a1b2c3d4e5f60718293a4b"));
+        assertEquals("second", map.get("65A1B2C3D4E5F60718293A4C"));
+        assertNull(map.get("65a1b2c3d4e5f60718293a4d"));
+    }
+
+    @Test
+    void shouldRejectInvalidHexIds() {
+        ObjectIdMap<String> map = new ObjectIdMap<>();
+        assertThrows(IllegalArgumentException.class, () -> map.get("not an id"));
+        assertThrows(IllegalArgumentException.class, () -> map.get("65a1b2c3d4e5f60718293a4g"));
+    }
+}
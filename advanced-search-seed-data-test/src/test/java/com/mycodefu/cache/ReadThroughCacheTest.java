@@ -0,0 +1,208 @@
+package com.mycodefu.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadThroughCacheTest {
+
+    @Test
+    void shouldLoadOnceAndThenHit() {
+        // Given
+        ReadThroughCache<String, String> cache = ReadThroughCache.bounded(10, Duration.ofMinutes(1));
+        AtomicInteger loadCount = new AtomicInteger();
+
+        // When
+        String first = cache.get("a", key -> key + loadCount.incrementAndGet());
+        String second = cache.get("a", key -> key + loadCount.incrementAndGet());
+
+        // Then
+        assertEquals("a1", first);
+        assertEquals("a1", second);
+        assertEquals(1, loadCount.get());
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.loads());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsed() {
+        // Given
+        ReadThroughCache<String, String> cache = ReadThroughCache.bounded(2, Duration.ofMinutes(1));
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.getIfPresent("a");
+
+        // When
+        cache.put("c", "C");
+
+        // Then
+        assertEquals("A", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals("C", cache.getIfPresent("c"));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void shouldEvictByWeight() {
+        // Given
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1), (key, value) -> value.length());
+        cache.put("a", "123456");
+
+        // When
+        cache.put("b", "12345");
+
+        // Then
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(5, cache.weight());
+    }
+
+    @Test
+    void shouldExpireAfterTtl() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofSeconds(5), (key, value) -> 1, now::get);
+        cache.put("a", "A");
+
+        // When
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        String beforeTtl = cache.getIfPresent("a");
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        String afterTtl = cache.getIfPresent("a");
+
+        // Then
+        assertEquals("A", beforeTtl);
+        assertNull(afterTtl);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldNotCacheNullValues() {
+        // Given
+        ReadThroughCache<String, String> cache = ReadThroughCache.bounded(10, Duration.ofMinutes(1));
+
+        // When
+        cache.get("missing", key -> null);
+        cache.get("missing", key -> null);
+
+        // Then
+        assertEquals(2, cache.stats().loads());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void shouldCollapseConcurrentMisses() throws Exception {
+        // Given
+        ReadThroughCache<String, String> cache = ReadThroughCache.bounded(10, Duration.ofMinutes(1));
+        AtomicInteger loadCount = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        int threads = 8;
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            results.add(executor.submit(() -> cache.get("a", key -> {
+                loadCount.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "A";
+            })));
+            await(loaderStarted);
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("a", key -> "A" + loadCount.incrementAndGet())));
+            }
+            Thread.sleep(100);
+            releaseLoader.countDown();
+
+            // Then
+            for (Future<String> result : results) {
+                assertEquals("A", result.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    void shouldNotCacheLoadInvalidatedWhileInFlight() throws Exception {
+        // Given
+        ReadThroughCache<String, String> cache = ReadThroughCache.bounded(10, Duration.ofMinutes(1));
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+
+        // When
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<String> staleLoad = executor.submit(() -> cache.get("a", key -> {
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "stale";
+            }));
+            await(loaderStarted);
+            cache.invalidate("a");
+            releaseLoader.countDown();
+            assertEquals("stale", staleLoad.get(5, TimeUnit.SECONDS));
+        }
+
+        // Then
+        assertEquals("fresh", cache.get("a", key -> "fresh"));
+    }
+
+    @Test
+    void shouldNotCacheLoadInvalidatedWhileItIsBeingStored() {
+        // Given
+        AtomicReference<ReadThroughCache<String, String>> cacheReference = new AtomicReference<>();
+        // the weigher runs once the load has finished, as the value is about to be stored
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(10, Duration.ofMinutes(1), (key, value) -> {
+            if (value.equals("stale")) {
+                cacheReference.get().invalidate(key);
+            }
+            return 1;
+        });
+        cacheReference.set(cache);
+
+        // When
+        String loaded = cache.get("a", key -> "stale");
+
+        // Then
+        assertEquals("stale", loaded);
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.weight());
+    }
+
+    @Test
+    void shouldPropagateLoaderFailure() {
+        // Given
+        ReadThroughCache<String, String> cache = ReadThroughCache.bounded(10, Duration.ofMinutes(1));
+
+        // When
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () -> cache.get("a", key -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        // Then
+        assertEquals("boom", failure.getMessage());
+        assertEquals(1, cache.stats().loadFailures());
+        assertEquals("A", cache.get("a", key -> "A"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mycodefu.concurrency;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mycodefu.atlassearch.util.IndexValidator;
+import com.mycodefu.atlassearch.util.SearchIndexManager;
+import com.mycodefu.concurrency.VirtualThreadLoadHarness.LoadReport;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
+
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+class VirtualThreadLoadHarnessTest {
+
+    @Container
+    private static final MongoDBAtlasLocalContainer mongoDBContainer = new MongoDBAtlasLocalContainer("mongodb/mongodb-atlas-local:8.0.5");
+    @AutoClose
+    private static VirtualThreadLoadHarness harness;
+
+    @BeforeAll
+    static void beforeAll() {
+        System.out.println("Initializing load harness with MongoDB connection string: " + mongoDBContainer.getConnectionString());
+        harness = new VirtualThreadLoadHarness(mongoDBContainer.getConnectionString());
+
+        try (MongoClient mongoClient = MongoClients.create(mongoDBContainer.getConnectionString())) {
+            MongoCollection<Document> collection = mongoClient.getDatabase("examples").getCollection("person");
+            new SearchIndexManager(collection).createAndAwait("person_search", BsonDocument.parse(IndexValidator.readResourceAsString("atlas-search-indexes/examples/person/person_search.json")));
+        }
+    }
+
+    @Test
+    void shouldServeTenThousandConcurrentVirtualThreads() throws InterruptedException {
+        // Given
+        int virtualThreads = 10_000;
+
+        // When
+        LoadReport report = harness.run(virtualThreads, 1, "thread-safe");
+        report.printResults();
+
+        // Then every thread read back exactly what it wrote, and no request timed out waiting for a connection
+        assertEquals(0, report.errors());
+        assertEquals(0, report.mismatchedReads());
+        assertEquals(virtualThreads * 3, report.operations());
+        assertEquals(0, report.pool().checkoutTimeouts());
+        assertTrue(report.pool().maxCheckedOut() <= 200);
+    }
+
+    @Test
+    void shouldStayThreadSafeOverRepeatedRounds() throws InterruptedException {
+        // Given
+        int virtualThreads = 1_000;
+
+        // When
+        LoadReport report = harness.run(virtualThreads, 10, null);
+        report.printResults();
+
+        // Then
+        assertEquals(0, report.errors());
+        assertEquals(0, report.mismatchedReads());
+        assertEquals(virtualThreads * 10 * 2, report.operations());
+    }
+}
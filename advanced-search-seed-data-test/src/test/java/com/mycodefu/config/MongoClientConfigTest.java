@@ -0,0 +1,94 @@
+package com.mycodefu.config;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoClientConfigTest {
+
+    @Test
+    void shouldLoadFromProperties() {
+        // Given
+        Properties properties = new Properties();
+        properties.setProperty("mongodb.uri", "mongodb://localhost:27017");
+        properties.setProperty("mongodb.pool.minSize", "5");
+        properties.setProperty("mongodb.pool.maxSize", "50");
+        properties.setProperty("mongodb.pool.maxConnecting", "4");
+        properties.setProperty("mongodb.pool.maxWaitTimeMs", "2000");
+        properties.setProperty("mongodb.socket.connectTimeoutMs", "1000");
+        properties.setProperty("mongodb.socket.readTimeoutMs", "3000");
+        properties.setProperty("mongodb.readPreference", "secondaryPreferred");
+        properties.setProperty("mongodb.compressors", "zstd, snappy");
+
+        // When
+        MongoClientSettings settings = MongoClientConfig.fromProperties(properties).toMongoClientSettings();
+
+        // Then
+        assertEquals(5, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(50, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(4, settings.getConnectionPoolSettings().getMaxConnecting());
+        assertEquals(2000, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(1000, settings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(3000, settings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(ReadPreference.secondaryPreferred(), settings.getReadPreference());
+        assertEquals(List.of(MongoCompressor.createZstdCompressor(), MongoCompressor.createSnappyCompressor()), settings.getCompressorList());
+    }
+
+    @Test
+    void shouldLoadFromEnvironment() {
+        // Given
+        Map<String, String> environment = Map.of(
+                "MONGODB_URI", "mongodb://localhost:27017",
+                "MONGODB_POOL_MAX_SIZE", "25",
+                "MONGODB_POOL_MAX_WAIT_TIME_MS", "500",
+                "MONGODB_COMPRESSORS", "zlib"
+        );
+
+        // When
+        MongoClientConfig config = MongoClientConfig.fromEnvironment(environment);
+
+        // Then
+        assertEquals(MongoClientConfig.builder("mongodb://localhost:27017").maxPoolSize(25).maxWaitTimeMs(500).compressors("zlib").build(), config);
+    }
+
+    @Test
+    void shouldFallBackToConnectionStringAndDriverDefaults() {
+        // Given
+        MongoClientConfig config = MongoClientConfig.builder("mongodb://localhost:27017/?maxPoolSize=7").minPoolSize(2).build();
+
+        // When
+        MongoClientSettings settings = config.toMongoClientSettings();
+
+        // Then
+        assertEquals(2, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(7, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(MongoClientSettings.builder().build().getReadPreference(), settings.getReadPreference());
+        assertTrue(settings.getCompressorList().isEmpty());
+    }
+
+    @Test
+    void shouldMapPropertiesToEnvironmentVariables() {
+        assertEquals("MONGODB_URI", MongoClientConfig.environmentVariable(MongoClientConfig.URI));
+        assertEquals("MONGODB_POOL_MAX_CONNECTING", MongoClientConfig.environmentVariable(MongoClientConfig.POOL_MAX_CONNECTING));
+        assertEquals("MONGODB_SOCKET_READ_TIMEOUT_MS", MongoClientConfig.environmentVariable(MongoClientConfig.SOCKET_READ_TIMEOUT_MS));
+    }
+
+    @Test
+    void shouldRejectInvalidSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("mongodb.uri", "mongodb://localhost:27017");
+        properties.setProperty("mongodb.pool.maxSize", "lots");
+        assertThrows(IllegalArgumentException.class, () -> MongoClientConfig.fromProperties(properties));
+
+        assertThrows(IllegalArgumentException.class, () -> MongoClientConfig.fromProperties(new Properties()));
+        assertThrows(IllegalArgumentException.class, () -> MongoClientConfig.builder("mongodb://localhost:27017").compressors("gzip").build().toMongoClientSettings());
+    }
+}
@@ -0,0 +1,51 @@
+package com.mycodefu.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashingTextEmbedderTest {
+    private final HashingTextEmbedder embedder = new HashingTextEmbedder();
+
+    @Test
+    void shouldEmbedTheSameTextToTheSameUnitVector() {
+        // When
+        float[] first = embedder.embed("A dedicated engineer who loves hiking.");
+        float[] second = new HashingTextEmbedder().embed("a DEDICATED engineer, who loves hiking");
+
+        // Then
+        assertEquals(HashingTextEmbedder.DEFAULT_DIMENSIONS, first.length);
+        assertArrayEquals(first, second);
+        assertEquals(1, dot(first, first), 1e-5);
+    }
+
+    @Test
+    void shouldScoreTextsSharingWordsAsMoreSimilar() {
+        // Given
+        float[] query = embedder.embed("dedicated software engineer");
+
+        // When
+        double related = dot(query, embedder.embed("a dedicated engineer building software for banks"));
+        double unrelated = dot(query, embedder.embed("a painter who teaches watercolour at weekends"));
+
+        // Then
+        assertTrue(related > unrelated, "related %f, unrelated %f".formatted(related, unrelated));
+    }
+
+    @Test
+    void shouldEmbedTextWithoutWordsToZeros() {
+        // When
+        float[] embedding = new HashingTextEmbedder(8).embed(" ... ");
+
+        // Then
+        assertArrayEquals(new float[8], embedding);
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,97 @@
+package com.mycodefu.metrics;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mycodefu.metrics.DataAccessMetrics.MetricsSnapshot;
+import com.mycodefu.metrics.DataAccessMetrics.Operation;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataAccessMetricsTest {
+    private static final ServerId SERVER_ID = new ServerId(new ClusterId(), new ServerAddress());
+    private static final ConnectionDescription CONNECTION = new ConnectionDescription(SERVER_ID);
+
+    @Test
+    void shouldRecordRoundTripsCheckoutWaitAndBytes() {
+        // Given
+        DataAccessMetrics metrics = new DataAccessMetrics();
+        RawBsonDocument find = RawBsonDocument.parse("{\"find\": \"person\", \"filter\": {\"_id\": 1}}");
+        RawBsonDocument reply = RawBsonDocument.parse("{\"cursor\": {\"firstBatch\": [], \"id\": 0}, \"ok\": 1}");
+
+        // When
+        metrics.connectionCheckedOut(new ConnectionCheckedOutEvent(new ConnectionId(SERVER_ID), 1, TimeUnit.MICROSECONDS.toNanos(250)));
+        metrics.commandStarted(new CommandStartedEvent(null, 1, 1, CONNECTION, "examples", "find", find));
+        metrics.commandSucceeded(new CommandSucceededEvent(null, 1, 1, CONNECTION, "examples", "find", reply, TimeUnit.MILLISECONDS.toNanos(3)));
+        metrics.commandStarted(new CommandStartedEvent(null, 2, 2, CONNECTION, "examples", "insert", new BsonDocument("insert", new BsonInt32(1))));
+
+        // Then
+        MetricsSnapshot snapshot = metrics.snapshot();
+        snapshot.printResults();
+        assertEquals(1, snapshot.commands().get("find").count());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(3), snapshot.commands().get("find").maxNanos());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(250), snapshot.checkoutWait().maxNanos());
+        assertEquals(find.getByteBuffer().remaining(), snapshot.bytesSent());
+        assertEquals(reply.getByteBuffer().remaining(), snapshot.bytesReceived());
+        assertEquals(1, snapshot.unsizedCommands());
+    }
+
+    @Test
+    void shouldOnlyReportCommandsWhichWereSent() {
+        // Given
+        DataAccessMetrics metrics = new DataAccessMetrics();
+        RawBsonDocument reply = RawBsonDocument.parse("{\"ok\": 1}");
+
+        // When one known command and one the metrics haven't registered succeed
+        metrics.commandSucceeded(new CommandSucceededEvent(null, 1, 1, CONNECTION, "examples", "aggregate", reply, TimeUnit.MILLISECONDS.toNanos(2)));
+        metrics.commandSucceeded(new CommandSucceededEvent(null, 2, 2, CONNECTION, "admin", "buildInfo", reply, TimeUnit.MILLISECONDS.toNanos(1)));
+        metrics.commandSucceeded(new CommandSucceededEvent(null, 3, 3, CONNECTION, "admin", "buildInfo", reply, TimeUnit.MILLISECONDS.toNanos(1)));
+
+        // Then
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(List.of("aggregate", "buildInfo"), List.copyOf(snapshot.commands().keySet()));
+        assertEquals(1, snapshot.commands().get("aggregate").count());
+        assertEquals(2, snapshot.commands().get("buildInfo").count());
+    }
+
+    @Test
+    void shouldTimeOperationsWithoutAllocating() {
+        // Given
+        DataAccessMetrics metrics = new DataAccessMetrics();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 10_000; i++) {
+            metrics.record(Operation.GET, metrics.start());
+        }
+
+        // When
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            metrics.record(Operation.SEARCH, metrics.start());
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // Then
+        assertTrue(allocated < 1_024, "Allocated %d bytes timing 100,000 operations".formatted(allocated));
+        assertEquals(100_000, metrics.snapshot().operations().get(Operation.SEARCH).count());
+    }
+
+    @Test
+    void shouldRecordNothingWhenDisabled() {
+        DataAccessMetrics metrics = DataAccessMetrics.disabled();
+        metrics.record(Operation.INSERT, metrics.start());
+        assertEquals(0, metrics.snapshot().operations().get(Operation.INSERT).count());
+    }
+}
@@ -0,0 +1,78 @@
+package com.mycodefu.metrics;
+
+import com.mycodefu.metrics.LatencyHistogram.HistogramSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldReportPercentilesWithinBucketPrecision() {
+        // Given 1ms to 100ms, evenly spread
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 100; millis++) {
+            histogram.record(millis * 1_000_000L);
+        }
+
+        // When
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        // Then
+        System.out.println(snapshot);
+        assertEquals(100, snapshot.count());
+        assertEquals(50.5, snapshot.meanNanos() / 1_000_000, 0.001);
+        assertEquals(100_000_000L, snapshot.maxNanos());
+        assertWithinBucket(50_000_000L, snapshot.p50Nanos());
+        assertWithinBucket(90_000_000L, snapshot.p90Nanos());
+        assertWithinBucket(99_000_000L, snapshot.p99Nanos());
+        assertEquals(100_000_000L, snapshot.p999Nanos());
+    }
+
+    @Test
+    void shouldPutEveryValueInABucketWhichCoversIt() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63);
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(LatencyHistogram.highestValue(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValue(bucket - 1) < value);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.bucket(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void shouldNotAllocateWhenRecording() {
+        // Given
+        LatencyHistogram histogram = new LatencyHistogram();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 10_000; i++) {
+            histogram.record(i);
+        }
+
+        // When
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // Then
+        assertTrue(allocated < 1_024, "Allocated %d bytes recording 100,000 values".formatted(allocated));
+    }
+
+    @Test
+    void shouldBeEmptyAfterReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.reset();
+        assertEquals(HistogramSnapshot.EMPTY, histogram.snapshot());
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 16, "Expected about %d but was %d".formatted(expected, actual));
+    }
+}
@@ -0,0 +1,76 @@
+package com.mycodefu.seed;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mycodefu.seed.SeedLoader.SeedLoadResult;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
+import org.bson.Document;
+import org.junit.jupiter.api.AutoClose;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.shaded.com.google.common.io.Resources;
+
+import java.nio.file.Path;
+
+import static com.mongodb.client.model.Filters.regex;
+import static org.junit.jupiter.api.Assertions.*;
+
+@AtlasLocal
+class SeedLoaderTest {
+    private static final long SEED_PEOPLE = 15_000;
+
+    @AutoClose
+    private static MongoClient mongoClient;
+    private static AtlasLocalDatabase atlasLocalDatabase;
+    private static Path personDump;
+
+    @BeforeAll
+    static void beforeAll(AtlasLocalDatabase database) throws Exception {
+        atlasLocalDatabase = database;
+        mongoClient = MongoClients.create(database.connectionString());
+        personDump = Path.of(Resources.getResource("seed-data/dump/examples/person.bson.gz").toURI());
+    }
+
+    @Test
+    void shouldLoadEveryPersonInTheDump() throws Exception {
+        // Given
+        MongoCollection<Document> person = mongoClient.getDatabase(atlasLocalDatabase.databaseName()).getCollection("person");
+
+        // When
+        SeedLoadResult result;
+        try (SeedLoader seedLoader = new SeedLoader(atlasLocalDatabase.connectionString(), SeedLoader.defaultThreads())) {
+            result = seedLoader.load(personDump, atlasLocalDatabase.databaseName(), "person");
+        }
+
+        // Then
+        result.printResults();
+        assertEquals(SEED_PEOPLE, result.documents());
+        assertEquals(SEED_PEOPLE, person.countDocuments());
+        assertEquals(510, person.countDocuments(regex("bio", "dedicated", "i")));
+    }
+
+    @Test
+    void compareSingleThreadedWithParallelLoad() throws Exception {
+        // Given
+        String database = atlasLocalDatabase.databaseName();
+
+        // When
+        SeedLoadResult singleThreaded;
+        try (SeedLoader seedLoader = new SeedLoader(mongoClient, 1, SeedLoader.DEFAULT_BATCH_SIZE)) {
+            singleThreaded = seedLoader.load(personDump, database, "person_single");
+        }
+        SeedLoadResult parallel;
+        try (SeedLoader seedLoader = new SeedLoader(atlasLocalDatabase.connectionString(), SeedLoader.defaultThreads())) {
+            parallel = seedLoader.load(personDump, database, "person_parallel");
+        }
+
+        // Then
+        singleThreaded.printResults();
+        parallel.printResults();
+        assertEquals(SEED_PEOPLE, singleThreaded.documents());
+        assertEquals(SEED_PEOPLE, parallel.documents());
+        assertEquals(SEED_PEOPLE, mongoClient.getDatabase(database).getCollection("person_parallel").countDocuments());
+    }
+}
@@ -0,0 +1,125 @@
+package com.mycodefu.benchmarks;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
+
+import java.net.InetSocketAddress;
+
+/**
+ * The MongoDB server the benchmarks run against, chosen with -Dbenchmark.backend=...
+ * <ul>
+ *     <li>auto (default) - atlas-local when Docker is available, otherwise in-process</li>
+ *     <li>atlas-local - a mongodb-atlas-local Testcontainer, supports Atlas Search</li>
+ *     <li>uri - an existing deployment given by -Dbenchmark.uri=mongodb://..., supports Atlas Search if the deployment does</li>
+ *     <li>in-process - an in-memory server speaking the MongoDB wire protocol, CRUD only (no $search)</li>
+ * </ul>
+ */
+public interface BenchmarkBackend extends AutoCloseable {
+    String BACKEND_PROPERTY = "benchmark.backend";
+    String URI_PROPERTY = "benchmark.uri";
+    String ATLAS_LOCAL_IMAGE = "mongodb/mongodb-atlas-local:8.0.5";
+
+    String name();
+
+    String connectionString();
+
+    boolean supportsSearch();
+
+    @Override
+    void close();
+
+    static BenchmarkBackend start() {
+        String backend = System.getProperty(BACKEND_PROPERTY, "auto");
+        return switch (backend) {
+            case "auto" -> DockerClientFactory.instance().isDockerAvailable() ? new AtlasLocal() : new InProcess();
+            case "atlas-local" -> new AtlasLocal();
+            case "uri" -> new Uri(System.getProperty(URI_PROPERTY));
+            case "in-process" -> new InProcess();
+            default -> throw new IllegalArgumentException("Unknown %s '%s', expected one of auto, atlas-local, uri, in-process".formatted(BACKEND_PROPERTY, backend));
+        };
+    }
+
+    final class AtlasLocal implements BenchmarkBackend {
+        private final MongoDBAtlasLocalContainer container;
+
+        AtlasLocal() {
+            this.container = new MongoDBAtlasLocalContainer(ATLAS_LOCAL_IMAGE);
+            this.container.start();
+        }
+
+        @Override
+        public String name() {
+            return "atlas-local";
+        }
+
+        @Override
+        public String connectionString() {
+            return container.getConnectionString();
+        }
+
+        @Override
+        public boolean supportsSearch() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            container.stop();
+        }
+    }
+
+    record Uri(String connectionString) implements BenchmarkBackend {
+        public Uri {
+            if (connectionString == null || connectionString.isBlank()) {
+                throw new IllegalArgumentException("-D%s must be set when using the uri backend".formatted(URI_PROPERTY));
+            }
+        }
+
+        @Override
+        public String name() {
+            return "uri";
+        }
+
+        @Override
+        public boolean supportsSearch() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    final class InProcess implements BenchmarkBackend {
+        private final MongoServer server;
+        private final String connectionString;
+
+        InProcess() {
+            this.server = new MongoServer(new MemoryBackend());
+            InetSocketAddress address = server.bind();
+            this.connectionString = "mongodb://%s:%d".formatted(address.getHostString(), address.getPort());
+        }
+
+        @Override
+        public String name() {
+            return "in-process";
+        }
+
+        @Override
+        public String connectionString() {
+            return connectionString;
+        }
+
+        @Override
+        public boolean supportsSearch() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            server.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.mycodefu.benchmarks;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mycodefu.PersonBatchWriter;
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.atlassearch.util.IndexValidator;
+import com.mycodefu.atlassearch.util.SearchIndexManager;
+import com.mycodefu.seed.SeedLoader;
+import com.mycodefu.seed.SeedLoader.SeedLoadResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic people and helpers to load them into a benchmark backend.
+ */
+public final class BenchmarkData {
+    public static final String DATABASE = "examples";
+    public static final String COLLECTION = "person";
+    public static final String SEARCH_INDEX = "person_search";
+    public static final String SEED_DUMP_PROPERTY = "benchmark.seedDump";
+    public static final String DEFAULT_SEED_DUMP = "advanced-search-seed-data-test/src/test/resources/seed-data/dump/examples/person.bson.gz";
+
+    private static final String[] FIRST_NAMES = {"Scotty", "Raymon", "Steve", "Dustin", "Eartha", "Jackqueline", "Richard", "Brenton", "Carroll", "Milton"};
+    private static final String[] LAST_NAMES = {"Leffler", "Wehner", "Rempel", "Schinner", "Mosciski", "Osinski", "Ortiz", "Bergstrom", "Ankunding", "Waddams"};
+    private static final String[] JOBS = {"farmer", "dental hygienist", "businessman", "engineer", "window cleaner", "astronomer", "lecturer", "bookkeeper", "travel agent"};
+    private static final String[] BIO_PHRASES = {
+            "is a dedicated professional with years of experience",
+            "known for an innovative approach to sustainable practices",
+            "combines traditional methods with modern technology",
+            "volunteers at local schools to teach children",
+            "has led numerous successful projects",
+            "brings meticulous attention to detail to every task",
+            "is passionate about lifelong learning",
+            "has nearly two decades of industry experience",
+    };
+
+    private BenchmarkData() {
+    }
+
+    public static Person person(Random random) {
+        String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        int age = 20 + random.nextInt(50);
+        String job = JOBS[random.nextInt(JOBS.length)];
+        // roughly the length of the bios in the seed data
+        String bio = "At %d, %s %s and %s. As a %s, %s %s and %s.".formatted(
+                age,
+                name,
+                BIO_PHRASES[random.nextInt(BIO_PHRASES.length)],
+                BIO_PHRASES[random.nextInt(BIO_PHRASES.length)],
+                job,
+                name,
+                BIO_PHRASES[random.nextInt(BIO_PHRASES.length)],
+                BIO_PHRASES[random.nextInt(BIO_PHRASES.length)]
+        );
+        return Person.of(name, age, job, bio);
+    }
+
+    /**
+     * Drop the person collection and insert count synthetic people, returning their ids.
+     */
+    public static List<String> seed(BenchmarkBackend backend, PersonDataAccess personDataAccess, int count) {
+        try (MongoClient mongoClient = MongoClients.create(backend.connectionString())) {
+            mongoClient.getDatabase(DATABASE).getCollection(COLLECTION).drop();
+        }
+        Random random = new Random(42);
+        List<String> ids = new ArrayList<>(count);
+        try (PersonBatchWriter writer = personDataAccess.bulk(1_000, Duration.ZERO, false)) {
+            for (int i = 0; i < count; i++) {
+                ids.add(writer.insertPerson(person(random)));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Drop the person collection and load the 15,000 people from the seed data dump, for benchmarks which need
+     * realistic names rather than the synthetic ones. The dump is found relative to the working directory, or
+     * given with -Dbenchmark.seedDump=...
+     */
+    public static SeedLoadResult seedFromDump(BenchmarkBackend backend) {
+        Path dump = Path.of(System.getProperty(SEED_DUMP_PROPERTY, DEFAULT_SEED_DUMP));
+        try (MongoClient mongoClient = MongoClients.create(backend.connectionString());
+             SeedLoader seedLoader = new SeedLoader(mongoClient, SeedLoader.defaultThreads(), SeedLoader.DEFAULT_BATCH_SIZE)) {
+            mongoClient.getDatabase(DATABASE).getCollection(COLLECTION).drop();
+            return seedLoader.load(dump, DATABASE, COLLECTION);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load %s, run from the repository root or set -D%s".formatted(dump, SEED_DUMP_PROPERTY), e);
+        }
+    }
+
+    /**
+     * Create the person_search index from the module resources and wait for it to be queryable.
+     */
+    public static void createSearchIndex(BenchmarkBackend backend) {
+        createSearchIndex(backend, SEARCH_INDEX);
+    }
+
+    /**
+     * Create a person index from the module resources and wait for it to be queryable.
+     */
+    public static void createSearchIndex(BenchmarkBackend backend, String indexName) {
+        String mappings = IndexValidator.readResourceAsString("atlas-search-indexes/%s/%s/%s.json".formatted(DATABASE, COLLECTION, indexName));
+        try (MongoClient mongoClient = MongoClients.create(backend.connectionString())) {
+            MongoCollection<Document> collection = mongoClient.getDatabase(DATABASE).getCollection(COLLECTION);
+            new SearchIndexManager(collection).createAndAwait(indexName, BsonDocument.parse(mappings));
+        }
+    }
+}
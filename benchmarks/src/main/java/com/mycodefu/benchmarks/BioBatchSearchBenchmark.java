@@ -0,0 +1,89 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonDataAccess.BioBatchResults;
+import com.mycodefu.PersonDataAccess.Person;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries per second for a batch of bio queries run one at a time in a loop, against findPersonByBioBatch sending
+ * them in parallel (maxConcurrency aggregates at once) and optionally several to an aggregate with $unionWith
+ * (queriesPerAggregate).
+ * <p>
+ * Scores are per query. Parallel aggregates win when the server has spare cores; $unionWith wins when the round trip
+ * is most of a query's time, so also try it against a remote cluster (-Dbenchmark.backend=uri).
+ * <p>
+ * Needs a backend with Atlas Search (atlas-local or uri), the in-process backend has no $search support.
+ * <p>
+ * Run with: java -Dbenchmark.backend=atlas-local -jar benchmarks/target/benchmarks.jar BioBatchSearchBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BioBatchSearchBenchmark {
+    private static final int SEED_COUNT = 10_000;
+    private static final int LIMIT = 10;
+    private static final List<String> QUERIES = List.of(
+            "dedicated", "engineer", "teacher", "passionate", "years", "community", "design", "music", "travel", "family",
+            "creative", "experience", "nurse", "chef", "garden", "history", "science", "sports", "artist", "writer",
+            "yesr", "dedicatd", "enginer", "pasionate", "comunity", "musik", "travle", "famly", "creativ", "histroy"
+    );
+
+    @Param({"8"})
+    public int maxConcurrency;
+
+    @Param({"1", "5", "30"})
+    public int queriesPerAggregate;
+
+    private BenchmarkBackend backend;
+    private PersonDataAccess personDataAccess;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = BenchmarkBackend.start();
+        if (!backend.supportsSearch()) {
+            backend.close();
+            throw new IllegalStateException("The %s backend does not support Atlas Search, run with -D%s=atlas-local or uri".formatted(backend.name(), BenchmarkBackend.BACKEND_PROPERTY));
+        }
+        personDataAccess = new PersonDataAccess(backend.connectionString());
+        BenchmarkData.seed(backend, personDataAccess, SEED_COUNT);
+        BenchmarkData.createSearchIndex(backend);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (personDataAccess != null) {
+            personDataAccess.close();
+        }
+        backend.close();
+    }
+
+    /**
+     * The baseline, independent of the params.
+     */
+    @Benchmark
+    @OperationsPerInvocation(30)
+    public void sequentialLoop(Blackhole blackhole) {
+        for (String query : QUERIES) {
+            List<Person> hits = personDataAccess.findPersonByBio(query, true, LIMIT);
+            blackhole.consume(hits);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(30)
+    public BioBatchResults batch() {
+        BioBatchResults results = personDataAccess.findPersonByBioBatch(QUERIES, true, LIMIT, maxConcurrency, queriesPerAggregate);
+        if (!results.complete()) {
+            throw new IllegalStateException("Batch search failed: " + results.failures());
+        }
+        return results;
+    }
+}
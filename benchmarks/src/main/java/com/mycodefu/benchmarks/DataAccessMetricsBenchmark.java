@@ -0,0 +1,43 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.metrics.DataAccessMetrics;
+import com.mycodefu.metrics.DataAccessMetrics.Operation;
+import com.mycodefu.metrics.LatencyHistogram;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of leaving metrics on: timing an operation (two clock reads and a histogram record) against the disabled
+ * metrics PersonDataAccess uses by default. Run with -prof gc to check neither allocates (gc.alloc.rate.norm ~0 B/op),
+ * and with -t 4 to see the cost under contention on the shared counters.
+ * <p>
+ * Run with: java -jar benchmarks/target/benchmarks.jar DataAccessMetricsBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataAccessMetricsBenchmark {
+    private final DataAccessMetrics enabled = new DataAccessMetrics();
+    private final DataAccessMetrics disabled = DataAccessMetrics.disabled();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private long value;
+
+    @Benchmark
+    public void timeOperation() {
+        enabled.record(Operation.GET, enabled.start());
+    }
+
+    @Benchmark
+    public void timeOperationDisabled() {
+        disabled.record(Operation.GET, disabled.start());
+    }
+
+    @Benchmark
+    public void recordHistogram() {
+        histogram.record(value++ & 0xFFFFF);
+    }
+}
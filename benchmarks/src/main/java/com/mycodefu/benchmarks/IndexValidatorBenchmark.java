@@ -0,0 +1,116 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.atlassearch.util.IndexValidator;
+import com.mycodefu.atlassearch.util.IndexValidator.CanonicalMapping;
+import com.mycodefu.atlassearch.util.IndexValidator.IndexValidationResults;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to validate a synthetic search index mapping against the definition the server returns for it.
+ * <p>
+ * The mapping has a mix of string, number, multi-mapped (token and stringFacet) and embedded document fields. The
+ * server copy has extra default settings on every field and its multi-mapped arrays in the opposite order, as Atlas
+ * returns them. compareMappings prepares the expected mapping on every call, comparePreparedMappings reuses the
+ * canonical form validateIndexes caches. Run with -prof gc to compare allocation per validation (gc.alloc.rate.norm).
+ * <p>
+ * Run with: java -jar benchmarks/target/benchmarks.jar IndexValidatorBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IndexValidatorBenchmark {
+
+    @Param({"10000"})
+    public int fields;
+
+    private Document expectedMapping;
+    private CanonicalMapping canonicalExpectedMapping;
+    private Document actualMapping;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        expectedMapping = syntheticMapping(fields);
+        canonicalExpectedMapping = CanonicalMapping.of(expectedMapping);
+        actualMapping = serverCopy(expectedMapping);
+        IndexValidationResults results = compareMappings();
+        if (!results.valid()) {
+            throw new IllegalStateException("Synthetic mappings should match: " + results.message());
+        }
+    }
+
+    /**
+     * Canonicalises the expected mapping on every call, as a one-off validation would.
+     */
+    @Benchmark
+    public IndexValidationResults compareMappings() {
+        return IndexValidator.compareAtlasSearchIndexMapping(expectedMapping, actualMapping, new ArrayList<>());
+    }
+
+    /**
+     * Reuses the cached canonical form, as validateIndexes does after the first call for an index.
+     */
+    @Benchmark
+    public IndexValidationResults comparePreparedMappings() {
+        return IndexValidator.compareAtlasSearchIndexMapping(canonicalExpectedMapping, actualMapping, new ArrayList<>());
+    }
+
+    static Document syntheticMapping(int fields) {
+        Document mappingFields = new Document();
+        for (int i = 0; i < fields; i++) {
+            mappingFields.put("field" + i, syntheticField(i));
+        }
+        return new Document("dynamic", false).append("fields", mappingFields);
+    }
+
+    private static Object syntheticField(int i) {
+        return switch (i % 5) {
+            case 0 -> new Document("type", "string").append("analyzer", "lucene.standard");
+            case 1 -> List.of(new Document("type", "token").append("normalizer", "lowercase"), new Document("type", "stringFacet"));
+            case 2 -> new Document("type", "number").append("representation", "int64").append("indexDoubles", false);
+            case 3 -> List.of(new Document("type", "string").append("analyzer", "lucene.english"), new Document("type", "autocomplete"), new Document("type", "token"));
+            default -> new Document("type", "document").append("fields", new Document()
+                    .append("street", new Document("type", "string"))
+                    .append("city", List.of(new Document("type", "token"), new Document("type", "stringFacet")))
+                    .append("postcode", new Document("type", "number").append("indexIntegers", true)));
+        };
+    }
+
+    /**
+     * The same mapping as the server reports it: defaults filled in and multi-mapped arrays in a different order.
+     */
+    @SuppressWarnings("unchecked")
+    static Document serverCopy(Document mapping) {
+        Document copy = new Document();
+        for (var entry : mapping.entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Document document) {
+                copy.put(entry.getKey(), withServerDefaults(serverCopy(document)));
+            } else if (value instanceof List<?> list) {
+                List<Document> reversed = new ArrayList<>();
+                for (Object element : ((List<Object>) list).reversed()) {
+                    reversed.add(withServerDefaults(serverCopy((Document) element)));
+                }
+                copy.put(entry.getKey(), reversed);
+            } else {
+                copy.put(entry.getKey(), value);
+            }
+        }
+        return copy;
+    }
+
+    private static Document withServerDefaults(Document field) {
+        if (field.containsKey("type")) {
+            field.putIfAbsent("norms", "include");
+            field.putIfAbsent("store", true);
+        }
+        return field;
+    }
+}
@@ -0,0 +1,68 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.cache.ObjectIdMap;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looking up a person by hex id in the PersonChangeFeed replica's map, against a HashMap keyed by the hex string.
+ * <p>
+ * Each lookup gets a new id String, as a service does when it reads the id from a request, so the HashMap has to hash
+ * it rather than using the hash cached in the String it was given last time. Both pay for that String (about 64 bytes
+ * per op with -prof gc); the ObjectIdMap adds no allocation of its own and holds no key objects. Ids are looked up in
+ * a random order, as HashMap nodes allocated in insertion order would otherwise be read sequentially.
+ * <p>
+ * Run with: java -jar benchmarks/target/benchmarks.jar ObjectIdMapBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ObjectIdMapBenchmark {
+    @Param({"10000", "1000000"})
+    public int people;
+
+    private final ObjectIdMap<Person> objectIdMap = new ObjectIdMap<>();
+    private final Map<String, Person> hashMap = new HashMap<>();
+    private char[][] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ids = new char[people][];
+        for (int i = 0; i < people; i++) {
+            ObjectId id = new ObjectId();
+            ids[i] = id.toHexString().toCharArray();
+            Person person = new Person(id.toHexString(), "Person " + i, 30, "tailor", "bio");
+            objectIdMap.put(id, person);
+            hashMap.put(id.toHexString(), person);
+        }
+        Collections.shuffle(Arrays.asList(ids), new Random(42));
+    }
+
+    @Benchmark
+    public Person objectIdMapGet() {
+        return objectIdMap.get(nextId());
+    }
+
+    @Benchmark
+    public Person hashMapGet() {
+        return hashMap.get(nextId());
+    }
+
+    private String nextId() {
+        String id = new String(ids[next]);
+        next = next + 1 == ids.length ? 0 : next + 1;
+        return id;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.PersonAutocomplete;
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonDataAccess.NameSuggestion;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency percentiles (SampleTime) for type-ahead name suggestions, typing a word one character at a time.
+ * <p>
+ * serverPerKeystroke sends every keystroke from the second character on to the person_autocomplete index, as a naive
+ * search box would. cachedPerKeystroke types the same word into a fresh PersonAutocomplete, which stops querying once a
+ * prefix has fewer matches than the limit and works out the longer prefixes from those. singlePrefix is one query
+ * for the whole word, the floor for one keystroke. Uses the seed data dump so the names and prefix counts are real.
+ * <p>
+ * Needs a backend with Atlas Search (atlas-local or uri), and to be run from the repository root to find the dump.
+ * <p>
+ * Run with: java -Dbenchmark.backend=atlas-local -jar benchmarks/target/benchmarks.jar PersonAutocompleteBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonAutocompleteBenchmark {
+    private static final int LIMIT = 10;
+
+    @Param({"richard", "wehner", "milton"})
+    public String word;
+
+    private BenchmarkBackend backend;
+    private PersonDataAccess personDataAccess;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = BenchmarkBackend.start();
+        if (!backend.supportsSearch()) {
+            backend.close();
+            throw new IllegalStateException("The %s backend does not support Atlas Search, run with -D%s=atlas-local or uri".formatted(backend.name(), BenchmarkBackend.BACKEND_PROPERTY));
+        }
+        personDataAccess = new PersonDataAccess(backend.connectionString());
+        BenchmarkData.seedFromDump(backend).printResults();
+        BenchmarkData.createSearchIndex(backend, PersonDataAccess.AUTOCOMPLETE_INDEX);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (personDataAccess != null) {
+            personDataAccess.close();
+        }
+        backend.close();
+    }
+
+    @Benchmark
+    public List<NameSuggestion> serverPerKeystroke() {
+        List<NameSuggestion> suggestions = List.of();
+        for (int length = PersonAutocomplete.MIN_PREFIX_LENGTH; length <= word.length(); length++) {
+            suggestions = personDataAccess.suggestPersonNames(word.substring(0, length), LIMIT);
+        }
+        return suggestions;
+    }
+
+    @Benchmark
+    public List<NameSuggestion> cachedPerKeystroke() {
+        try (PersonAutocomplete autocomplete = new PersonAutocomplete(personDataAccess, LIMIT, Duration.ZERO)) {
+            List<NameSuggestion> suggestions = List.of();
+            for (int length = 1; length <= word.length(); length++) {
+                suggestions = autocomplete.suggest(word.substring(0, length));
+            }
+            return suggestions;
+        }
+    }
+
+    @Benchmark
+    public List<NameSuggestion> singlePrefix() {
+        return personDataAccess.suggestPersonNames(word, LIMIT);
+    }
+}
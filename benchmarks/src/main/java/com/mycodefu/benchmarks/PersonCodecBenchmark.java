@@ -0,0 +1,72 @@
+package com.mycodefu.benchmarks;
+
+import com.mongodb.MongoClientSettings;
+import com.mycodefu.PersonCodec;
+import com.mycodefu.PersonDataAccess.Person;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode throughput of one Person document with the reflective record codec vs the hand-written PersonCodec.
+ * <p>
+ * Documents are encoded to and decoded from BSON bytes, as they are on the wire.
+ * Run with -prof gc to compare allocation per document (gc.alloc.rate.norm).
+ * <p>
+ * Run with: java -jar benchmarks/target/benchmarks.jar PersonCodecBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PersonCodecBenchmark {
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    @Param({"record", "hand-written"})
+    public String codec;
+
+    private Codec<Person> personCodec;
+    private Person person;
+    private byte[] encodedPerson;
+    private final BasicOutputBuffer outputBuffer = new BasicOutputBuffer(1024);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        personCodec = switch (codec) {
+            case "record" -> MongoClientSettings.getDefaultCodecRegistry().get(Person.class);
+            case "hand-written" -> new PersonCodec();
+            default -> throw new IllegalArgumentException("Unknown codec " + codec);
+        };
+        Person generated = BenchmarkData.person(new Random(42));
+        person = new Person(new ObjectId().toHexString(), generated.name(), generated.age(), generated.job(), generated.bio());
+        encodedPerson = encode().toByteArray();
+    }
+
+    @Benchmark
+    public BasicOutputBuffer encode() {
+        outputBuffer.truncateToPosition(0);
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(outputBuffer)) {
+            personCodec.encode(writer, person, ENCODER_CONTEXT);
+        }
+        return outputBuffer;
+    }
+
+    @Benchmark
+    public Person decode() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(encodedPerson))) {
+            return personCodec.decode(reader, DECODER_CONTEXT);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonDataAccess.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles (p50/p99/p999 from SampleTime) for the PersonDataAccess CRUD methods.
+ * <p>
+ * Run with: java -Dbenchmark.backend=auto -jar benchmarks/target/benchmarks.jar PersonCrudBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonCrudBenchmark {
+    private static final int SEED_COUNT = 10_000;
+
+    private BenchmarkBackend backend;
+    private PersonDataAccess personDataAccess;
+    private List<String> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = BenchmarkBackend.start();
+        personDataAccess = new PersonDataAccess(backend.connectionString());
+        ids = BenchmarkData.seed(backend, personDataAccess, SEED_COUNT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        personDataAccess.close();
+        backend.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadData {
+        private final Random random = new Random(ThreadLocalRandom.current().nextLong());
+
+        Person newPerson() {
+            return BenchmarkData.person(random);
+        }
+    }
+
+    /**
+     * Inserts a person to be deleted by each deletePerson invocation.
+     * The per-invocation setup is small compared to the round trip being measured.
+     */
+    @State(Scope.Thread)
+    public static class PersonToDelete {
+        String id;
+
+        @Setup(Level.Invocation)
+        public void insert(PersonCrudBenchmark benchmark, ThreadData threadData) {
+            id = benchmark.personDataAccess.insertPerson(threadData.newPerson());
+        }
+    }
+
+    @Benchmark
+    public String insertPerson(ThreadData threadData) {
+        return personDataAccess.insertPerson(threadData.newPerson());
+    }
+
+    @Benchmark
+    public Person getPerson() {
+        return personDataAccess.getPerson(randomId());
+    }
+
+    @Benchmark
+    public void updatePerson(ThreadData threadData) {
+        Person person = threadData.newPerson();
+        personDataAccess.updatePerson(new Person(randomId(), person.name(), person.age(), person.job(), person.bio()));
+    }
+
+    @Benchmark
+    public void deletePerson(PersonToDelete personToDelete) {
+        personDataAccess.deletePerson(personToDelete.id);
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
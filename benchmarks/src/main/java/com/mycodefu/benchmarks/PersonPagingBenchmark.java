@@ -0,0 +1,79 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonDataAccess.PageDirection;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.PersonDataAccess.PersonPage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency percentiles (SampleTime) for reading one page of bio search results at increasing depths, with pages of 5
+ * for a word in about 6,600 of the seed bios.
+ * <p>
+ * searchAfterPage reads the page with findPersonByBioPage from the previous page's token, which should cost about the
+ * same at page 1000 as at page 1. limitAndSkipPage reads every result up to the end of the page and keeps the last 5,
+ * which is what skip and limit paging costs mongot, and grows with the depth.
+ * <p>
+ * Needs a backend with Atlas Search (atlas-local or uri), and to be run from the repository root to find the dump.
+ * <p>
+ * Run with: java -Dbenchmark.backend=atlas-local -jar benchmarks/target/benchmarks.jar PersonPagingBenchmark
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonPagingBenchmark {
+    private static final String WORD = "innovative";
+    private static final int PAGE_SIZE = 5;
+
+    @Param({"1", "100", "1000"})
+    public int page;
+
+    private BenchmarkBackend backend;
+    private PersonDataAccess personDataAccess;
+    private String pageToken;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = BenchmarkBackend.start();
+        if (!backend.supportsSearch()) {
+            backend.close();
+            throw new IllegalStateException("The %s backend does not support Atlas Search, run with -D%s=atlas-local or uri".formatted(backend.name(), BenchmarkBackend.BACKEND_PROPERTY));
+        }
+        personDataAccess = new PersonDataAccess(backend.connectionString());
+        BenchmarkData.seedFromDump(backend).printResults();
+        BenchmarkData.createSearchIndex(backend);
+
+        // the token of the page before the measured one, null for the first page
+        for (int i = 1; i < page; i++) {
+            pageToken = personDataAccess.findPersonByBioPage(WORD, false, PAGE_SIZE, pageToken, PageDirection.AFTER).nextPageToken();
+            if (pageToken == null) {
+                throw new IllegalStateException("'%s' has fewer than %d pages of %d".formatted(WORD, page, PAGE_SIZE));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (personDataAccess != null) {
+            personDataAccess.close();
+        }
+        backend.close();
+    }
+
+    @Benchmark
+    public PersonPage searchAfterPage() {
+        return personDataAccess.findPersonByBioPage(WORD, false, PAGE_SIZE, pageToken, PageDirection.AFTER);
+    }
+
+    @Benchmark
+    public List<Person> limitAndSkipPage() {
+        List<Person> people = personDataAccess.findPersonByBio(WORD, false, page * PAGE_SIZE);
+        return people.subList(people.size() - PAGE_SIZE, people.size());
+    }
+}
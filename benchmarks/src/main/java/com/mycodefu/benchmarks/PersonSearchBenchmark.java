@@ -0,0 +1,85 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.CachingPersonDataAccess;
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.PersonDataAccess.PersonSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles (p50/p99/p999 from SampleTime) for PersonDataAccess.findPersonByBio.
+ * <p>
+ * cachedFindPersonByBio goes through CachingPersonDataAccess with only the query's case and surrounding whitespace
+ * varied, which the cache key normalises away, so every call after the first is a hit on the same entry. The cache
+ * stats are printed at the end of the trial.
+ * <p>
+ * Needs a backend with Atlas Search (atlas-local or uri), the in-process backend has no $search support.
+ * <p>
+ * Run with: java -Dbenchmark.backend=atlas-local -jar benchmarks/target/benchmarks.jar PersonSearchBenchmark
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonSearchBenchmark {
+    private static final int SEED_COUNT = 10_000;
+
+    @Param({"dedicated", "yesr"})
+    public String query;
+
+    @Param({"false", "true"})
+    public boolean fuzzy;
+
+    private BenchmarkBackend backend;
+    private PersonDataAccess personDataAccess;
+    private CachingPersonDataAccess cachingPersonDataAccess;
+    private String[] queryVariants;
+    private int nextQueryVariant;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = BenchmarkBackend.start();
+        if (!backend.supportsSearch()) {
+            backend.close();
+            throw new IllegalStateException("The %s backend does not support Atlas Search, run with -D%s=atlas-local or uri".formatted(backend.name(), BenchmarkBackend.BACKEND_PROPERTY));
+        }
+        personDataAccess = new PersonDataAccess(backend.connectionString());
+        BenchmarkData.seed(backend, personDataAccess, SEED_COUNT);
+        BenchmarkData.createSearchIndex(backend);
+        cachingPersonDataAccess = new CachingPersonDataAccess(personDataAccess, 1_000, Duration.ofMinutes(10));
+        queryVariants = new String[]{query, query.toUpperCase(), "  " + query + "  "};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (cachingPersonDataAccess != null) {
+            System.out.println("Search cache: " + cachingPersonDataAccess.searchStats());
+        }
+        if (personDataAccess != null) {
+            personDataAccess.close();
+        }
+        backend.close();
+    }
+
+    @Benchmark
+    public List<Person> findPersonByBio() {
+        return personDataAccess.findPersonByBio(query, fuzzy);
+    }
+
+    @Benchmark
+    public List<PersonSummary> findPersonSummaryByBio() {
+        return personDataAccess.findPersonSummaryByBio(query, fuzzy, PersonDataAccess.DEFAULT_SEARCH_LIMIT, false);
+    }
+
+    @Benchmark
+    public List<Person> cachedFindPersonByBio() {
+        String variant = queryVariants[nextQueryVariant++ % queryVariants.length];
+        return cachingPersonDataAccess.findPersonByBio(variant, fuzzy);
+    }
+}
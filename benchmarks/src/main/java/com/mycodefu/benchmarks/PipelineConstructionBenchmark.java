@@ -0,0 +1,117 @@
+package com.mycodefu.benchmarks;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.search.FuzzySearchOptions;
+import com.mongodb.client.model.search.SearchOperator;
+import com.mongodb.client.model.search.SearchOptions;
+import com.mongodb.client.model.search.TextSearchOperator;
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonSearchQuery;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mongodb.client.model.search.SearchPath.fieldPath;
+
+/**
+ * The client side cost of the findPersonByBio pipeline, without a server: building the stages with the search
+ * builders on every call (as findPersonByBio used to) against swapping the query into a PersonSearchQuery.
+ * <p>
+ * build* only constructs the stages. encode* also renders them to BSON and encodes them, the work the driver does when
+ * it sends the aggregate command, which is where the builders' cost mostly shows. Run with -prof gc to compare
+ * allocation per call (gc.alloc.rate.norm).
+ * <p>
+ * Run with: java -jar benchmarks/target/benchmarks.jar PipelineConstructionBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineConstructionBenchmark {
+    private static final CodecRegistry CODEC_REGISTRY = MongoClientSettings.getDefaultCodecRegistry();
+    private static final BsonDocumentCodec DOCUMENT_CODEC = new BsonDocumentCodec(CODEC_REGISTRY);
+    private static final EncoderContext ENCODER_CONTEXT = EncoderContext.builder().build();
+
+    @Param({"false", "true"})
+    public boolean fuzzy;
+
+    private final String query = "dedicated engineer";
+    private PersonSearchQuery preparedQuery;
+    private final BasicOutputBuffer buffer = new BasicOutputBuffer(1024);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        preparedQuery = PersonSearchQuery.prepare(fuzzy, PersonDataAccess.DEFAULT_SEARCH_LIMIT, PersonDataAccess.SEARCH_INDEX);
+        if (!render(builderStages()).equals(render(preparedQuery.stages(query)))) {
+            throw new IllegalStateException("The prepared pipeline should match the builders");
+        }
+    }
+
+    @Benchmark
+    public List<Bson> buildWithBuilders() {
+        return builderStages();
+    }
+
+    @Benchmark
+    public List<Bson> buildPrepared() {
+        return preparedQuery.stages(query);
+    }
+
+    @Benchmark
+    public int encodeWithBuilders() {
+        return encode(builderStages());
+    }
+
+    @Benchmark
+    public int encodePrepared() {
+        return encode(preparedQuery.stages(query));
+    }
+
+    /**
+     * The pipeline as findPersonByBio built it before PersonSearchQuery.
+     */
+    private List<Bson> builderStages() {
+        TextSearchOperator textOperator = SearchOperator.text(fieldPath("bio"), query);
+        if (fuzzy) {
+            textOperator = textOperator
+                    .fuzzy(FuzzySearchOptions
+                            .fuzzySearchOptions()
+                            .maxEdits(2)
+                            .prefixLength(2)
+                            .maxExpansions(100)
+                    );
+        }
+        List<Bson> aggregateStages = new ArrayList<>();
+        aggregateStages.add(Aggregates.search(textOperator, SearchOptions.searchOptions().index(PersonDataAccess.SEARCH_INDEX)));
+        aggregateStages.add(Aggregates.limit(PersonDataAccess.DEFAULT_SEARCH_LIMIT));
+        aggregateStages.add(Aggregates.project(Projections.exclude(PersonDataAccess.BIO_EMBEDDING)));
+        return aggregateStages;
+    }
+
+    private int encode(List<Bson> stages) {
+        buffer.truncateToPosition(0);
+        for (Bson stage : stages) {
+            try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+                DOCUMENT_CODEC.encode(writer, stage.toBsonDocument(BsonDocument.class, CODEC_REGISTRY), ENCODER_CONTEXT);
+            }
+        }
+        return buffer.getPosition();
+    }
+
+    private static List<BsonDocument> render(List<Bson> stages) {
+        return stages.stream().map(Bson::toBsonDocument).toList();
+    }
+}
@@ -0,0 +1,131 @@
+package com.mycodefu.benchmarks;
+
+import com.mycodefu.PersonDataAccess;
+import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.PersonDataAccess.PersonSummary;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonDouble;
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.codecs.RawBsonDocumentCodec;
+import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode cost of a page of search hits as full Person records vs projected PersonSummary records.
+ * <p>
+ * The hits are pre-encoded to BSON, as they arrive from the server, so only client side decoding is measured.
+ * The wire size of each page is printed at setup; run with -prof gc to compare allocation per page (gc.alloc.rate.norm).
+ * <p>
+ * Run with: java -jar benchmarks/target/benchmarks.jar SearchResultDecodeBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchResultDecodeBenchmark {
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    @Param({"false", "true"})
+    public boolean highlights;
+
+    private Codec<Person> personCodec;
+    private Codec<PersonSummary> personSummaryCodec;
+    private List<RawBsonDocument> fullHits;
+    private List<RawBsonDocument> summaryHits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CodecRegistry codecRegistry = PersonDataAccess.PERSON_CODEC_REGISTRY;
+        personCodec = codecRegistry.get(Person.class);
+        personSummaryCodec = codecRegistry.get(PersonSummary.class);
+
+        Random random = new Random(42);
+        fullHits = new ArrayList<>();
+        summaryHits = new ArrayList<>();
+        for (int i = 0; i < PersonDataAccess.DEFAULT_SEARCH_LIMIT; i++) {
+            Person generated = BenchmarkData.person(random);
+            Person person = new Person(new ObjectId().toHexString(), generated.name(), generated.age(), generated.job(), generated.bio());
+            fullHits.add(encode(person));
+            summaryHits.add(summaryHit(person, random.nextDouble() * 10));
+        }
+
+        System.out.printf("%nPage of %d hits on the wire: full records %d bytes, summaries%s %d bytes%n",
+                PersonDataAccess.DEFAULT_SEARCH_LIMIT,
+                totalBytes(fullHits),
+                highlights ? " with highlights" : "",
+                totalBytes(summaryHits));
+    }
+
+    @Benchmark
+    public void decodeFullPerson(Blackhole blackhole) {
+        for (RawBsonDocument hit : fullHits) {
+            blackhole.consume(decode(personCodec, hit));
+        }
+    }
+
+    @Benchmark
+    public void decodePersonSummary(Blackhole blackhole) {
+        for (RawBsonDocument hit : summaryHits) {
+            blackhole.consume(decode(personSummaryCodec, hit));
+        }
+    }
+
+    private static <T> T decode(Codec<T> codec, RawBsonDocument document) {
+        try (BsonReader reader = document.asBsonReader()) {
+            return codec.decode(reader, DECODER_CONTEXT);
+        }
+    }
+
+    private RawBsonDocument encode(Person person) {
+        BsonDocument document = new BsonDocument();
+        personCodec.encode(new BsonDocumentWriter(document), person, EncoderContext.builder().build());
+        return toRaw(document);
+    }
+
+    /**
+     * The shape of a hit after the findPersonSummaryByBio $project stage.
+     */
+    private RawBsonDocument summaryHit(Person person, double score) {
+        BsonDocument document = new BsonDocument("_id", new BsonObjectId(new ObjectId(person.id())))
+                .append("name", new BsonString(person.name()))
+                .append("job", new BsonString(person.job()))
+                .append("score", new BsonDouble(score));
+        if (highlights) {
+            String bio = person.bio();
+            int hitStart = bio.indexOf(" is ");
+            document.append("highlights", new BsonArray(List.of(new BsonDocument("path", new BsonString("bio"))
+                    .append("score", new BsonDouble(score))
+                    .append("texts", new BsonArray(List.of(
+                            new BsonDocument("value", new BsonString(bio.substring(0, hitStart))).append("type", new BsonString("text")),
+                            new BsonDocument("value", new BsonString("is")).append("type", new BsonString("hit")),
+                            new BsonDocument("value", new BsonString(bio.substring(hitStart + 3, Math.min(bio.length(), hitStart + 60)))).append("type", new BsonString("text"))
+                    ))))));
+        }
+        return toRaw(document);
+    }
+
+    private static RawBsonDocument toRaw(BsonDocument document) {
+        return new RawBsonDocumentCodec().decode(document.asBsonReader(), DECODER_CONTEXT);
+    }
+
+    private static long totalBytes(List<RawBsonDocument> documents) {
+        return documents.stream().mapToLong(document -> document.getByteBuffer().remaining()).sum();
+    }
+}
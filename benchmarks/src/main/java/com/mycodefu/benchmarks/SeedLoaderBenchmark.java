@@ -0,0 +1,109 @@
+package com.mycodefu.benchmarks;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mycodefu.seed.SeedLoader;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Loading the person seed dump into an empty collection: SeedLoader on one thread and on its default thread count,
+ * against a single threaded loader which decodes each document and sends batches of 1000 with insertMany, the way a
+ * loader written with the driver's Document API would.
+ * <p>
+ * mongorestore, which the search test used before SeedLoader, isn't available to the in-process backend, so compare
+ * against it by timing {@code mongorestore --gzip} on the same dump and backend by hand.
+ * <p>
+ * Run with: java -Dbenchmark.backend=auto -jar benchmarks/target/benchmarks.jar SeedLoaderBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SeedLoaderBenchmark {
+    private static final int BATCH_SIZE = SeedLoader.DEFAULT_BATCH_SIZE;
+
+    private BenchmarkBackend backend;
+    private MongoClient mongoClient;
+    private Path dump;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = BenchmarkBackend.start();
+        mongoClient = MongoClients.create(backend.connectionString());
+        dump = Path.of(System.getProperty(BenchmarkData.SEED_DUMP_PROPERTY, BenchmarkData.DEFAULT_SEED_DUMP));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mongoClient.close();
+        backend.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void dropCollection() {
+        collection().drop();
+    }
+
+    @Benchmark
+    public long decodeAndInsertMany() throws IOException {
+        MongoCollection<Document> collection = collection();
+        DocumentCodec codec = new DocumentCodec();
+        DecoderContext decoderContext = DecoderContext.builder().build();
+        long documents = 0;
+        try (InputStream in = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(dump), 256 * 1024), 256 * 1024)) {
+            List<Document> batch = new ArrayList<>(BATCH_SIZE);
+            RawBsonDocument raw;
+            while ((raw = SeedLoader.readDocument(in)) != null) {
+                batch.add(codec.decode(raw.asBsonReader(), decoderContext));
+                if (batch.size() == BATCH_SIZE) {
+                    collection.insertMany(batch);
+                    documents += batch.size();
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                collection.insertMany(batch);
+                documents += batch.size();
+            }
+        }
+        return documents;
+    }
+
+    @Benchmark
+    public long seedLoaderOneThread() throws IOException {
+        return load(1);
+    }
+
+    @Benchmark
+    public long seedLoaderDefaultThreads() throws IOException {
+        return load(SeedLoader.defaultThreads());
+    }
+
+    private long load(int threads) throws IOException {
+        // the same client as the baseline, so no load pays for opening connections
+        try (SeedLoader seedLoader = new SeedLoader(mongoClient, threads, BATCH_SIZE)) {
+            return seedLoader.load(dump, BenchmarkData.DATABASE, BenchmarkData.COLLECTION).documents();
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoClient.getDatabase(BenchmarkData.DATABASE).getCollection(BenchmarkData.COLLECTION);
+    }
+}
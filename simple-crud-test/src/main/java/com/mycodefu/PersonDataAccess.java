@@ -32,8 +32,12 @@ public class PersonDataAccess implements AutoCloseable {
     }
 
     public PersonDataAccess(String connectionString) {
+        this(connectionString, "examples");
+    }
+
+    public PersonDataAccess(String connectionString, String databaseName) {
         this.mongoClient = MongoClients.create(connectionString);
-        this.collection = this.mongoClient.getDatabase("examples").getCollection("person", Person.class);
+        this.collection = this.mongoClient.getDatabase(databaseName).getCollection("person", Person.class);
     }
 
     public String insertPerson(Person person) {
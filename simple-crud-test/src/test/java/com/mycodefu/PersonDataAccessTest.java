@@ -1,24 +1,21 @@
 package com.mycodefu;
 
 import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
 import org.junit.jupiter.api.*;
-import org.testcontainers.junit.jupiter.Container;
-import org.testcontainers.junit.jupiter.Testcontainers;
-import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@Testcontainers
+@AtlasLocal
 class PersonDataAccessTest {
 
-    @Container
-    private static final MongoDBAtlasLocalContainer mongoDBContainer = new MongoDBAtlasLocalContainer("mongodb/mongodb-atlas-local:8.0.5");
     @AutoClose
     private static PersonDataAccess personDataAccess;
 
     @BeforeAll
-    static void beforeAll() {
-        personDataAccess = new PersonDataAccess(mongoDBContainer.getConnectionString());
+    static void beforeAll(AtlasLocalDatabase database) {
+        personDataAccess = new PersonDataAccess(database.connectionString(), database.databaseName());
     }
 
     @Test
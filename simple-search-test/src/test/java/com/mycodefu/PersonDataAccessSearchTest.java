@@ -2,14 +2,13 @@ package com.mycodefu;
 
 import com.mongodb.client.ListSearchIndexesIterable;
 import com.mycodefu.PersonDataAccess.Person;
+import com.mycodefu.testsupport.AtlasLocal;
+import com.mycodefu.testsupport.AtlasLocalDatabase;
 import org.bson.BsonDocument;
 import org.bson.Document;
 import org.junit.jupiter.api.AutoClose;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
-import org.testcontainers.junit.jupiter.Container;
-import org.testcontainers.junit.jupiter.Testcontainers;
-import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
 import org.testcontainers.shaded.org.awaitility.Awaitility;
 
 import java.time.Duration;
@@ -20,18 +19,16 @@ import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@Testcontainers
+@AtlasLocal
 class PersonDataAccessSearchTest {
 
-    @Container
-    private static final MongoDBAtlasLocalContainer mongoDBContainer = new MongoDBAtlasLocalContainer("mongodb/mongodb-atlas-local:8.0.5");
     @AutoClose
     private static PersonDataAccess personDataAccess;
 
     @BeforeAll
-    static void beforeAll() {
-        System.out.println("Initializing data access with MongoDB connection string: " + mongoDBContainer.getConnectionString());
-        personDataAccess = new PersonDataAccess(mongoDBContainer.getConnectionString());
+    static void beforeAll(AtlasLocalDatabase database) {
+        System.out.println("Initializing data access with MongoDB connection string: " + database.connectionString() + ", database: " + database.databaseName());
+        personDataAccess = new PersonDataAccess(database.connectionString(), database.databaseName());
 
         //insert a few records for testing
         personDataAccess.insertPerson(Person.of("Miss Scotty Leffler", 32, "farmer", "At 32, Miss Scotty Leffler is a dedicated farmer known for her innovative approaches to sustainable agriculture on her family-owned farm. Passionate about environmental stewardship, she combines traditional farming methods with modern technology to enhance crop yield and soil health."));
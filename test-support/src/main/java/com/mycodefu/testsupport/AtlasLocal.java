@@ -0,0 +1,19 @@
+package com.mycodefu.testsupport;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run the test class against the Atlas Local container shared by every test class in the JVM, in a database of its own.
+ * <p>
+ * Declare an AtlasLocalDatabase parameter on a @BeforeAll or test method to get the connection string and database name.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(AtlasLocalExtension.class)
+public @interface AtlasLocal {
+}
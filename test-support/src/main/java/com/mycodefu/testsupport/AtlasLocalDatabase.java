@@ -0,0 +1,7 @@
+package com.mycodefu.testsupport;
+
+/**
+ * The shared Atlas Local container and the database reserved for one test class.
+ */
+public record AtlasLocalDatabase(String connectionString, String databaseName) {
+}
@@ -0,0 +1,61 @@
+package com.mycodefu.testsupport;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
+
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Gives each test class its own database in the shared Atlas Local container, and drops it after the class has run.
+ */
+public class AtlasLocalExtension implements BeforeAllCallback, AfterAllCallback, ParameterResolver {
+    private static final Namespace NAMESPACE = Namespace.create(AtlasLocalExtension.class);
+    private static final int MAX_DATABASE_NAME_LENGTH = 63;
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        MongoDBAtlasLocalContainer container = SharedAtlasLocalContainer.container();
+        String databaseName = databaseName(context.getRequiredTestClass());
+        context.getStore(NAMESPACE).put(AtlasLocalDatabase.class, new AtlasLocalDatabase(container.getConnectionString(), databaseName));
+
+        // print how much container startup was saved once every test class in the JVM has run
+        context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(
+                "report",
+                key -> (ExtensionContext.Store.CloseableResource) () -> System.out.println(SharedAtlasLocalContainer.report())
+        );
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        AtlasLocalDatabase database = context.getStore(NAMESPACE).remove(AtlasLocalDatabase.class, AtlasLocalDatabase.class);
+        if (database != null) {
+            try (MongoClient mongoClient = MongoClients.create(database.connectionString())) {
+                mongoClient.getDatabase(database.databaseName()).drop();
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == AtlasLocalDatabase.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(AtlasLocalDatabase.class, AtlasLocalDatabase.class);
+    }
+
+    private static String databaseName(Class<?> testClass) {
+        String suffix = "_" + UUID.randomUUID().toString().substring(0, 8);
+        String name = testClass.getSimpleName().toLowerCase(Locale.ROOT);
+        return name.substring(0, Math.min(name.length(), MAX_DATABASE_NAME_LENGTH - suffix.length())) + suffix;
+    }
+}
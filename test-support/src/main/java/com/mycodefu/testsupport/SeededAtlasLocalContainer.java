@@ -0,0 +1,173 @@
+package com.mycodefu.testsupport;
+
+import com.github.dockerjava.api.DockerClient;
+import org.testcontainers.containers.BindMode;
+import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An Atlas Local container which starts with seed data and search indexes already in place.
+ * <p>
+ * The first time a given set of seed resources is used, a throwaway container is started with each resource mounted at
+ * /tmp/&lt;resource&gt;, the seeder restores the data and builds the indexes, and the container's /data directory
+ * (mongod and mongot data) is saved as a tar snapshot once the container has been stopped cleanly. Every start after
+ * that copies the snapshot into the new container before it boots, so seeding costs no more than container startup.
+ * <p>
+ * Snapshots are keyed by a SHA-256 of the image and the contents of every seed resource, so changing the seed data or
+ * an index definition builds a new snapshot. Changes to the seeder code itself are not part of the key; pass a new
+ * version to pick those up. Snapshots are kept in ${java.io.tmpdir}/atlas-local-snapshots unless the
+ * atlas.local.snapshot.dir system property says otherwise.
+ */
+public class SeededAtlasLocalContainer extends MongoDBAtlasLocalContainer {
+    public static final String SNAPSHOT_DIRECTORY_PROPERTY = "atlas.local.snapshot.dir";
+
+    // mongod keeps the replica set config in its data files, so every container sharing a snapshot needs the same hostname
+    private static final String HOSTNAME = "atlas-local-seeded";
+    private static final String DATA_PATH = "/data";
+    private static final int STOP_TIMEOUT_SECONDS = 60;
+
+    @FunctionalInterface
+    public interface Seeder {
+        void seed(MongoDBAtlasLocalContainer container) throws Exception;
+    }
+
+    private final Seeder seeder;
+    private final String version;
+    private final List<String> resources;
+    private Path snapshot;
+
+    /**
+     * @param seeder    loads the data and builds the indexes in a freshly started container.
+     * @param version   bump this when the seeder changes in a way the resources don't show.
+     * @param resources classpath files or directories the seeder reads, for example the mongodump and index JSON.
+     */
+    public SeededAtlasLocalContainer(Seeder seeder, String version, String... resources) {
+        super(SharedAtlasLocalContainer.IMAGE);
+        this.seeder = seeder;
+        this.version = version;
+        this.resources = List.of(resources);
+        withCreateContainerCmdModifier(cmd -> cmd.withHostName(HOSTNAME));
+    }
+
+    @Override
+    public void start() {
+        Path snapshot = snapshotDirectory().resolve(snapshotKey() + ".tar");
+        if (Files.exists(snapshot)) {
+            System.out.println("Using seed snapshot " + snapshot);
+        } else {
+            long start = System.nanoTime();
+            buildSnapshot(snapshot);
+            System.out.printf("Built seed snapshot %s in %dms%n", snapshot, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        this.snapshot = snapshot;
+
+        long start = System.nanoTime();
+        super.start();
+        System.out.printf("Started seeded Atlas Local container in %dms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    protected void containerIsCreated(String containerId) {
+        super.containerIsCreated(containerId);
+        try (InputStream archive = Files.newInputStream(snapshot)) {
+            getDockerClient().copyArchiveToContainerCmd(containerId)
+                    .withTarInputStream(archive)
+                    .withRemotePath("/")
+                    .withCopyUIDGID(true)
+                    .exec();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to copy seed snapshot %s into the container".formatted(snapshot), e);
+        }
+    }
+
+    private void buildSnapshot(Path snapshot) {
+        try (MongoDBAtlasLocalContainer builder = new MongoDBAtlasLocalContainer(SharedAtlasLocalContainer.IMAGE)) {
+            builder.withCreateContainerCmdModifier(cmd -> cmd.withHostName(HOSTNAME));
+            for (String resource : resources) {
+                builder.withClasspathResourceMapping(resource, "/tmp/" + resource, BindMode.READ_ONLY);
+            }
+            builder.start();
+            try {
+                seeder.seed(builder);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to seed the snapshot container", e);
+            }
+
+            // a clean shutdown flushes mongod's journal and mongot's indexes to /data before it is archived
+            DockerClient dockerClient = builder.getDockerClient();
+            dockerClient.stopContainerCmd(builder.getContainerId()).withTimeout(STOP_TIMEOUT_SECONDS).exec();
+
+            Files.createDirectories(snapshot.getParent());
+            Path partial = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".partial");
+            try (InputStream archive = dockerClient.copyArchiveFromContainerCmd(builder.getContainerId(), DATA_PATH).exec()) {
+                Files.copy(archive, partial, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // parallel builds of the same snapshot are harmless, the last one to finish wins
+            Files.move(partial, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save seed snapshot " + snapshot, e);
+        }
+    }
+
+    private String snapshotKey() {
+        MessageDigest digest = sha256();
+        digest.update(SharedAtlasLocalContainer.IMAGE.getBytes(UTF_8));
+        digest.update(version.getBytes(UTF_8));
+        for (String resource : resources) {
+            Path root = resourcePath(resource);
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                    digest.update(root.relativize(file).toString().getBytes(UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to hash seed resource " + resource, e);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static Path resourcePath(String resource) {
+        URL url = Thread.currentThread().getContextClassLoader().getResource(resource);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            throw new IllegalArgumentException("Seed resource %s must be a file or directory on the classpath, found %s".formatted(resource, url));
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid seed resource location " + url, e);
+        }
+    }
+
+    private static Path snapshotDirectory() {
+        String directory = System.getProperty(SNAPSHOT_DIRECTORY_PROPERTY);
+        if (directory != null) {
+            return Path.of(directory);
+        }
+        return Path.of(System.getProperty("java.io.tmpdir"), "atlas-local-snapshots");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.mycodefu.testsupport;
+
+import org.testcontainers.mongodb.MongoDBAtlasLocalContainer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Atlas Local container per JVM, started by the first test class which needs it.
+ * <p>
+ * Parallel surefire forks each get their own container. The container is also marked reusable, so with
+ * testcontainers.reuse.enable=true in ~/.testcontainers.properties it is shared across modules and test runs too.
+ */
+public final class SharedAtlasLocalContainer {
+    public static final String IMAGE = "mongodb/mongodb-atlas-local:8.0.5";
+
+    private static MongoDBAtlasLocalContainer container;
+    private static long startupMillis;
+    private static final AtomicInteger testClasses = new AtomicInteger();
+
+    private SharedAtlasLocalContainer() {
+    }
+
+    public static synchronized MongoDBAtlasLocalContainer container() {
+        if (container == null) {
+            long start = System.nanoTime();
+            MongoDBAtlasLocalContainer atlasLocal = new MongoDBAtlasLocalContainer(IMAGE).withReuse(true);
+            atlasLocal.start();
+            startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            container = atlasLocal;
+            System.out.printf("Started shared Atlas Local container in %dms: %s%n", startupMillis, container.getConnectionString());
+        }
+        testClasses.incrementAndGet();
+        return container;
+    }
+
+    static synchronized String report() {
+        int classes = testClasses.get();
+        return "Shared Atlas Local container started in %dms and used by %d test classes, saving about %dms of container startup"
+                .formatted(startupMillis, classes, Math.max(0, classes - 1) * startupMillis);
+    }
+}